@@ -0,0 +1,52 @@
+package com.account_sell.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Creates the partial unique index that allows only one BOOKED order per account number.
+ * Hibernate cannot express partial indexes, so it is created here once Hibernate has created the tables
+ * and before the web server starts. Bookings rely on the index ({@code ON CONFLICT ... WHERE status = 'BOOKED'}
+ * fails without it), so startup fails when it cannot be created.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class OrderIndexInitializer {
+
+    private static final String BOOKED_INDEX = "uk_account_orders_booked_account_number";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void createIndex() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_indexes WHERE indexname = ?", Integer.class, BOOKED_INDEX);
+        if (existing != null && existing > 0) {
+            log.debug("Index {} already exists", BOOKED_INDEX);
+            return;
+        }
+
+        // Building the index would fail on existing duplicates, leave them for an admin to resolve
+        List<String> duplicates = jdbcTemplate.queryForList(
+                "SELECT account_number FROM account_orders WHERE status = 'BOOKED' " +
+                        "GROUP BY account_number HAVING COUNT(*) > 1",
+                String.class);
+        if (!duplicates.isEmpty()) {
+            log.error("Cannot create {}: account numbers booked more than once: {}", BOOKED_INDEX, duplicates);
+            throw new IllegalStateException("Cannot create " + BOOKED_INDEX + ", resolve the duplicate BOOKED orders for "
+                    + duplicates + " before starting");
+        }
+
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + BOOKED_INDEX +
+                " ON account_orders (account_number) WHERE status = 'BOOKED'");
+        log.info("Created partial unique index {}", BOOKED_INDEX);
+    }
+}
@@ -0,0 +1,39 @@
+package com.account_sell.config;
+
+import com.account_sell.feature.statistics.jdbc.QueryStatisticsDataSource;
+import com.account_sell.feature.statistics.service.QueryStatisticsService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's DataSource so every statement is timed by {@link QueryStatisticsService}.
+ * Only the primary "dataSource" bean is wrapped; with replica routing enabled that is the router,
+ * so statements on both pools are covered once.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatisticsConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    // Static so the post processor does not force this configuration class to be created early
+    @Bean
+    public static BeanPostProcessor queryStatisticsDataSourcePostProcessor(
+            ObjectProvider<QueryStatisticsService> queryStatisticsService) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource
+                        && !(bean instanceof QueryStatisticsDataSource)) {
+                    return new QueryStatisticsDataSource((DataSource) bean, queryStatisticsService.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.account_sell.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes behind the admin user search.
+ * Hibernate cannot express expression or GIN indexes, so they are created here on application startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserIndexInitializer implements CommandLineRunner {
+
+    private static final String USERNAME_TRGM_INDEX = "idx_users_username_trgm";
+    private static final String STATUS_ID_INDEX = "idx_users_status_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        // Keyset pages filtered by status
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + STATUS_ID_INDEX + " ON users (status, id)");
+
+        // Substring search on lower(username), needs the pg_trgm extension
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + USERNAME_TRGM_INDEX +
+                    " ON users USING gin (lower(username) gin_trgm_ops)");
+            log.debug("Index {} is in place", USERNAME_TRGM_INDEX);
+        } catch (Exception e) {
+            // Search still works without it, only slower
+            log.error("Cannot create {}, is the pg_trgm extension available? {}", USERNAME_TRGM_INDEX, e.getMessage());
+        }
+    }
+}
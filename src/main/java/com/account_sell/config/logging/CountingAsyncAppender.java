@@ -0,0 +1,40 @@
+package com.account_sell.config.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AsyncAppender} that counts the events it drops.
+ * <p>
+ * Once the queue is past its discarding threshold, TRACE, DEBUG and INFO events are dropped, and with
+ * neverBlock a full queue drops everything; either way the request thread never waits on I/O.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        // Only asked once the queue is past the discarding threshold
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            dropped.incrementAndGet();
+        }
+        return discardable;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // A full queue with neverBlock loses the event inside AsyncAppenderBase, count it here
+        if (isStarted() && isNeverBlock() && getRemainingCapacity() == 0 && !super.isDiscardable(event)) {
+            dropped.incrementAndGet();
+        }
+        super.append(event);
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,92 @@
+package com.account_sell.config.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+import java.util.Iterator;
+
+/**
+ * Publishes the async logging queues and drop counts as metrics:
+ * logging.async.queue.size and logging.async.dropped per appender, and logging.sampled.out.
+ * <p>
+ * Appenders are looked up by name on each read, because logback replaces them when its configuration is reloaded.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class LoggingMetricsConfig {
+
+    private final MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void bindMetrics() {
+        LoggerContext context = loggerContext();
+        if (context == null) {
+            log.warn("Logging is not backed by logback, async logging metrics are disabled");
+            return;
+        }
+
+        Iterator<Appender<ILoggingEvent>> appenders =
+                context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            Appender<?> appender = appenders.next();
+            if (appender instanceof CountingAsyncAppender) {
+                String name = appender.getName();
+                Gauge.builder("logging.async.queue.size", () -> {
+                            CountingAsyncAppender current = asyncAppender(name);
+                            return current != null ? current.getNumberOfElementsInQueue() : 0;
+                        })
+                        .description("Log events waiting to be written")
+                        .tag("appender", name)
+                        .register(meterRegistry);
+                FunctionCounter.builder("logging.async.dropped", this, config -> {
+                            CountingAsyncAppender current = asyncAppender(name);
+                            return current != null ? current.getDroppedCount() : 0;
+                        })
+                        .description("Log events dropped because the queue was full or nearly full")
+                        .tag("appender", name)
+                        .register(meterRegistry);
+            }
+        }
+
+        FunctionCounter.builder("logging.sampled.out", this, config -> {
+                    long total = 0;
+                    LoggerContext current = loggerContext();
+                    if (current != null) {
+                        for (TurboFilter filter : current.getTurboFilterList()) {
+                            if (filter instanceof SamplingTurboFilter) {
+                                total += ((SamplingTurboFilter) filter).getSampledOutCount();
+                            }
+                        }
+                    }
+                    return total;
+                })
+                .description("Hot-path log events skipped by sampling")
+                .register(meterRegistry);
+    }
+
+    private CountingAsyncAppender asyncAppender(String name) {
+        LoggerContext context = loggerContext();
+        if (context == null) {
+            return null;
+        }
+        Appender<?> appender = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).getAppender(name);
+        return appender instanceof CountingAsyncAppender ? (CountingAsyncAppender) appender : null;
+    }
+
+    private static LoggerContext loggerContext() {
+        return LoggerFactory.getILoggerFactory() instanceof LoggerContext
+                ? (LoggerContext) LoggerFactory.getILoggerFactory()
+                : null;
+    }
+}
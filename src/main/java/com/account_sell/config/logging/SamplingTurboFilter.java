@@ -0,0 +1,73 @@
+package com.account_sell.config.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps only one in {@code sampleRate} INFO and lower events from the configured hot-path loggers.
+ * <p>
+ * Runs before the event is created, so sampled-out calls cost a counter increment and nothing else.
+ * WARN and ERROR are never sampled. Configure with a comma-separated list of logger name prefixes:
+ * <pre>
+ * &lt;turboFilter class="com.account_sell.config.logging.SamplingTurboFilter"&gt;
+ *     &lt;loggers&gt;com.account_sell.feature.account&lt;/loggers&gt;
+ *     &lt;sampleRate&gt;10&lt;/sampleRate&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private String[] prefixes = new String[0];
+    private int sampleRate = 10;
+
+    // One counter per logger, so a chatty logger does not crowd out a quieter one
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final AtomicLong sampledOut = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isXxxEnabled() checks, leave those alone
+        if (format == null || level.isGreaterOrEqual(Level.WARN) || sampleRate <= 1 || !isSampled(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        // Events the logger's level drops anyway must not use up a sampling slot
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+
+        long count = counters.computeIfAbsent(logger.getName(), name -> new AtomicLong()).getAndIncrement();
+        if (count % sampleRate == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        sampledOut.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    private boolean isSampled(String loggerName) {
+        for (String prefix : prefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void setLoggers(String loggers) {
+        this.prefixes = loggers.trim().isEmpty() ? new String[0] : loggers.trim().split("\\s*,\\s*");
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public long getSampledOutCount() {
+        return sampledOut.get();
+    }
+}
@@ -3,5 +3,7 @@ package com.account_sell.enumation;
 public enum FilterType {
     CONTAIN,
     START_WITH,
-    END_WITH
+    END_WITH,
+    // The input is a wildcard pattern for all 9 digits, see AccountPattern
+    PATTERN
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.account_sell.feature.account.controller;
 
+import com.account_sell.feature.account.dto.request.BrowseAccountRequest;
+import com.account_sell.feature.account.dto.request.GenerateAccountBatchRequest;
 import com.account_sell.feature.account.dto.request.GenerateAccountRequest;
+import com.account_sell.feature.account.dto.resposne.GenerateAccountBatchResponse;
 import com.account_sell.feature.account.dto.resposne.GenerateAccountResponse;
 import com.account_sell.feature.account.service.AccountNumberGeneratorService;
 import lombok.RequiredArgsConstructor;
@@ -44,4 +47,48 @@ public class SpecialAccountController {
         
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Generates special account numbers for several searches in one call.
+     *
+     * @param request the searches, each with the same fields as a generate request
+     * @param limit optional parameter to limit the number of results per search (default: 10, max: 1000)
+     * @return one response per search, in request order
+     */
+    @PostMapping("/generate/batch")
+    public ResponseEntity<GenerateAccountBatchResponse> generateSpecialAccountNumbersBatch(
+            @RequestBody @Valid GenerateAccountBatchRequest request,
+            @RequestParam(name = "limit", defaultValue = "10") @Min(1) @Max(1000) int limit) {
+
+        log.info("Received request to generate special account numbers for {} searches, limit: {}",
+                request.getSpecs().size(), limit);
+
+        GenerateAccountBatchResponse response = accountNumberGeneratorService.generateSpecialAccountNumbersBatch(request, limit);
+
+        log.info("Generated account numbers for {} searches", response.getResults().size());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Returns ready-priced account numbers of a type and price tier, without a pattern.
+     *
+     * @param request the account type and price tier
+     * @param limit optional parameter to limit the number of results (default: 10, max: 1000)
+     * @return response with the account numbers and the total in the tier
+     */
+    @PostMapping("/browse")
+    public ResponseEntity<GenerateAccountResponse> browseAccountNumbers(
+            @RequestBody @Valid BrowseAccountRequest request,
+            @RequestParam(name = "limit", defaultValue = "10") @Min(1) @Max(1000) int limit) {
+
+        log.info("Received request to browse {} account numbers in tier {}, limit: {}",
+                request.getAccountType(), request.getPriceRange(), limit);
+
+        GenerateAccountResponse response = accountNumberGeneratorService.browseAccountNumbers(request, limit);
+
+        log.info("Served {} account numbers", response.getGeneratedCount());
+
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.account_sell.feature.account.dto.request;
+
+import com.account_sell.enumation.AccountType;
+import com.account_sell.enumation.PriceRange;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BrowseAccountRequest {
+
+    private AccountType accountType = AccountType.NORMAL;
+
+    @NotNull(message = "Price range is required")
+    private PriceRange priceRange;
+}
@@ -0,0 +1,23 @@
+package com.account_sell.feature.account.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerateAccountBatchRequest {
+
+    public static final int MAX_SPECS = 50;
+
+    // Each spec is searched as if sent to /generate on its own
+    @NotEmpty(message = "At least one search is required")
+    @Size(max = MAX_SPECS, message = "At most " + MAX_SPECS + " searches can be generated at once")
+    private List<@Valid GenerateAccountRequest> specs;
+}
@@ -17,7 +17,8 @@ import javax.validation.constraints.Size;
 public class GenerateAccountRequest {
 
     @NotBlank(message = "Input number pattern is required")
-    @Size(min = 1, max = 9, message = "Input must be between 1 and 9 digits")
+    // Up to 9 digits, or a wildcard pattern when the filter is PATTERN
+    @Size(min = 1, max = 64, message = "Input must be between 1 and 64 characters")
     private String userInputMinunum4DigitalTo9;
 
     @Min(value = 0, message = "Minimum price cannot be negative")
@@ -29,4 +30,10 @@ public class GenerateAccountRequest {
     private FilterType filter = FilterType.CONTAIN;
 
     private AccountType accountType = AccountType.NORMAL;
+
+    // Pages through the numbers in an order fixed by the seed; not used for DOB and PHONE
+    private Long seed;
+
+    // nextCursor of the previous page, which carries the seed and where that page stopped
+    private String cursor;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.account_sell.feature.account.dto.resposne;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerateAccountBatchResponse {
+    // One result per spec, in request order
+    private List<GenerateAccountResponse> results;
+}
@@ -13,8 +13,14 @@ import java.util.List;
 @AllArgsConstructor
 public class GenerateAccountResponse {
     private List<AccountDetails> accountNumberDetails;
+    // Numbers matching the pattern and price range, not only the ones returned
     private long totalCount;
+    // False when totalCount was estimated from a sample because the pattern leaves too many numbers to price
+    private boolean totalCountExact;
     private int generatedCount;
+    // Set when paging with a seed or cursor; nextCursor is null once every number has been walked
+    private Long seed;
+    private String nextCursor;
     
     @Data
     @Builder
@@ -0,0 +1,28 @@
+package com.account_sell.feature.account.service;
+
+import com.account_sell.enumation.AccountType;
+import com.account_sell.enumation.PriceRange;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ready-priced account numbers per account type and price tier, for browsing without a pattern
+ */
+public interface AccountInventoryService {
+
+    /**
+     * Takes numbers of the account type priced in the tier out of its pool
+     *
+     * @param accountType the account type, one whose numbers are searched (not DOB or PHONE)
+     * @param tier the price tier
+     * @param count maximum number of account numbers to take
+     * @return account numbers with prices, fewer than count when the tier is too rare to find in time
+     */
+    List<Map.Entry<String, Double>> take(AccountType accountType, PriceRange tier, int count);
+
+    /**
+     * Tops up the pools that fell below the low-water mark
+     */
+    void replenish();
+}
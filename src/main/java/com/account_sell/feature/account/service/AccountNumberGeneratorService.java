@@ -1,6 +1,9 @@
 package com.account_sell.feature.account.service;
 
+import com.account_sell.feature.account.dto.request.BrowseAccountRequest;
+import com.account_sell.feature.account.dto.request.GenerateAccountBatchRequest;
 import com.account_sell.feature.account.dto.request.GenerateAccountRequest;
+import com.account_sell.feature.account.dto.resposne.GenerateAccountBatchResponse;
 import com.account_sell.feature.account.dto.resposne.GenerateAccountResponse;
 
 /**
@@ -16,4 +19,22 @@ public interface AccountNumberGeneratorService {
      * @return response containing generated account numbers
      */
     GenerateAccountResponse generateSpecialAccountNumbers(GenerateAccountRequest request, int limit);
+
+    /**
+     * Generates special account numbers for several searches at once
+     *
+     * @param request the searches, each with its own pattern, filter, price range and account type
+     * @param limit maximum number of account numbers to generate per search
+     * @return one response per search, in request order
+     */
+    GenerateAccountBatchResponse generateSpecialAccountNumbersBatch(GenerateAccountBatchRequest request, int limit);
+
+    /**
+     * Serves account numbers of a type and price tier without a pattern, from the ready-priced pools
+     *
+     * @param request the account type and price tier
+     * @param limit maximum number of account numbers to return
+     * @return response containing the account numbers
+     */
+    GenerateAccountResponse browseAccountNumbers(BrowseAccountRequest request, int limit);
 }
\ No newline at end of file
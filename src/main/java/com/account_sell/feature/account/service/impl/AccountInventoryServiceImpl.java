@@ -0,0 +1,293 @@
+package com.account_sell.feature.account.service.impl;
+
+import com.account_sell.enumation.AccountType;
+import com.account_sell.enumation.PriceRange;
+import com.account_sell.exceptions.error.InvalidInputException;
+import com.account_sell.feature.account.service.AccountInventoryService;
+import com.account_sell.utils.AccountNumberUtil;
+import com.account_sell.utils.pricing.AccountPattern;
+import com.account_sell.utils.pricing.PricingRuleSet;
+import com.account_sell.utils.pricing.PricingRules;
+import com.account_sell.utils.pricing.RegionLayout;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Keeps a ring buffer of priced numbers for every searched account type and price tier.
+ * <p>
+ * A scheduled pass tops up every account type with a pool below the low-water mark: candidates are
+ * priced in bulk and each goes to the pool of its tier, so one pass feeds all tiers of the type. Besides
+ * uniform numbers, candidates are drawn with runs, a sequence or pairs of digits, which the expensive
+ * tiers are made of; every candidate is still priced by the active rules. Requests only drain the pools,
+ * and search live with a small budget when a pool runs dry. Pools are emptied when the rules are reloaded.
+ * <p>
+ * Some tiers are too rare to find by drawing candidates. A tier that a pass left short while adding less
+ * than one number per {@value #MIN_YIELD} candidates backs off: passes stop once the other tiers are full,
+ * it is only targeted again after twice as many passes each time, and requests do not search live for it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccountInventoryServiceImpl implements AccountInventoryService {
+
+    private static final int BLOCK = 1 << 12;
+    // Searched on the request thread when a pool runs dry, a few milliseconds of pricing
+    private static final int MAX_LIVE_CANDIDATES = 1 << 14;
+    // A low tier must gain one number per this many candidates priced in a pass, or it is starved
+    private static final int MIN_YIELD = BLOCK;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.inventory.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.inventory.capacity:1000}")
+    private int capacity;
+
+    @Value("${app.inventory.low-water-mark:250}")
+    private int lowWaterMark;
+
+    @Value("${app.inventory.candidates-per-refill:65536}")
+    private int candidatesPerRefill;
+
+    private final Map<AccountType, InventoryPool[]> pools = new EnumMap<>(AccountType.class);
+    // The rules the pooled numbers were priced with
+    private volatile PricingRuleSet pricedWith;
+    // Background passes run so far, only touched by the scheduler thread
+    private long passes;
+
+    @PostConstruct
+    public void init() {
+        for (AccountType accountType : AccountType.values()) {
+            if (AccountNumberUtil.leadingDigits(accountType) == null) {
+                continue;
+            }
+            InventoryPool[] tiers = new InventoryPool[PriceRange.values().length];
+            for (PriceRange tier : PriceRange.values()) {
+                InventoryPool pool = new InventoryPool(capacity);
+                tiers[tier.ordinal()] = pool;
+                Gauge.builder("inventory.pool.size", pool, InventoryPool::size)
+                        .description("Priced account numbers ready to serve")
+                        .tags("account_type", accountType.name(), "tier", tier.name())
+                        .register(meterRegistry);
+            }
+            pools.put(accountType, tiers);
+        }
+        pricedWith = PricingRules.active();
+    }
+
+    @Override
+    public List<Map.Entry<String, Double>> take(AccountType accountType, PriceRange tier, int count) {
+        InventoryPool[] tiers = pools.get(accountType);
+        if (tiers == null) {
+            log.error("Browsing is not supported for account type: {}", accountType);
+            throw new InvalidInputException("Browsing is not supported for " + accountType + " accounts");
+        }
+
+        PricingRuleSet rules = currentRules();
+        InventoryPool pool = tiers[tier.ordinal()];
+        if (pool.size() < count) {
+            meterRegistry.counter("inventory.shortfall", "account_type", accountType.name(), "tier", tier.name())
+                    .increment();
+            // Search live for the rest unless the background pass just failed to find any; what the other
+            // tiers get stays in their pools. Searched before taking, as a number taken out of the pool
+            // could be found again and returned twice.
+            if (!pool.isStarved()) {
+                fill(accountType, tiers, rules, MAX_LIVE_CANDIDATES, pool, Math.min(count, capacity));
+            }
+        }
+        int[] numbers = new int[count];
+        int taken = pool.poll(numbers, 0, count);
+
+        double price = rules.priceOf(tier);
+        List<Map.Entry<String, Double>> result = new ArrayList<>(taken);
+        for (int i = 0; i < taken; i++) {
+            result.add(new AbstractMap.SimpleEntry<>(RegionLayout.toAccountNumber(numbers[i]), price));
+        }
+        return result;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.inventory.refill-interval-ms:2000}")
+    public void replenish() {
+        if (!enabled) {
+            return;
+        }
+        PricingRuleSet rules = currentRules();
+        long pass = ++passes;
+        for (Map.Entry<AccountType, InventoryPool[]> entry : pools.entrySet()) {
+            InventoryPool[] tiers = entry.getValue();
+            boolean low = false;
+            for (InventoryPool pool : tiers) {
+                low |= pool.size() < lowWaterMark && !pool.isBackingOff(pass);
+            }
+            if (!low) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            boolean[] wasLow = new boolean[tiers.length];
+            for (int t = 0; t < tiers.length; t++) {
+                wasLow[t] = tiers[t].size() < lowWaterMark;
+            }
+            int[] added = new int[tiers.length];
+            int priced = fill(entry.getKey(), tiers, rules, candidatesPerRefill, pass, added);
+            for (int t = 0; t < tiers.length; t++) {
+                // Only a pool that was low is judged; a trickle that would take many passes to refill it counts as nothing
+                if (priced > 0 && (wasLow[t] || added[t] > 0)) {
+                    tiers[t].recordPass(pass, (long) added[t] * MIN_YIELD >= priced);
+                }
+            }
+            log.debug("Priced {} candidates for the {} pools in {} ms", priced, entry.getKey(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * The active rules, emptying the pools first when they were priced with earlier rules
+     */
+    private PricingRuleSet currentRules() {
+        PricingRuleSet active = PricingRules.active();
+        if (active != pricedWith) {
+            synchronized (this) {
+                if (active != pricedWith) {
+                    log.info("Pricing rules changed, emptying the inventory pools");
+                    for (InventoryPool[] tiers : pools.values()) {
+                        for (InventoryPool pool : tiers) {
+                            pool.clear();
+                        }
+                    }
+                    pricedWith = active;
+                }
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Background pass: prices up to {@code budget} candidates of the account type and adds each to the
+     * pool of its tier, stopping early once every pool not backing off is full
+     *
+     * @param added receives the numbers added to each tier
+     * @return the number of candidates priced
+     */
+    private int fill(AccountType accountType, InventoryPool[] tiers, PricingRuleSet rules, int budget, long pass,
+                     int[] added) {
+        return fill(accountType, tiers, rules, budget, added, () -> {
+            for (InventoryPool pool : tiers) {
+                if (pool.size() < capacity && !pool.isBackingOff(pass)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Live search: like a background pass, but stops as soon as the pool holds {@code needed} numbers
+     */
+    private int fill(AccountType accountType, InventoryPool[] tiers, PricingRuleSet rules, int budget,
+                     InventoryPool target, int needed) {
+        return fill(accountType, tiers, rules, budget, new int[tiers.length], () -> target.size() >= needed);
+    }
+
+    private int fill(AccountType accountType, InventoryPool[] tiers, PricingRuleSet rules, int budget, int[] added,
+                     BooleanSupplier done) {
+        RegionLayout layout = new RegionLayout(AccountNumberUtil.leadingDigits(accountType));
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] block = new int[BLOCK];
+        int priced = 0;
+        while (priced < budget && !done.getAsBoolean()) {
+            for (int i = 0; i < block.length; i++) {
+                block[i] = layout.number(layout.randomLead(random), candidateRegion(layout.regionLength(), random));
+            }
+            byte[] matched = rules.matchTiers(block, AccountPattern.LENGTH);
+            // Rules reloaded meanwhile: these prices are stale
+            if (rules != pricedWith) {
+                break;
+            }
+            for (int i = 0; i < block.length; i++) {
+                if (tiers[matched[i]].offer(block[i])) {
+                    added[matched[i]]++;
+                }
+            }
+            priced += block.length;
+        }
+        return priced;
+    }
+
+    /**
+     * Digits after the leading digits: uniform, or with a run, a sequence, pairs or two runs at a random place
+     */
+    private int candidateRegion(int regionLength, ThreadLocalRandom random) {
+        int[] digits = new int[regionLength];
+        for (int i = 0; i < regionLength; i++) {
+            digits[i] = random.nextInt(10);
+        }
+        switch (random.nextInt(5)) {
+            case 1: {
+                int length = 3 + random.nextInt(regionLength - 2);
+                int start = random.nextInt(regionLength - length + 1);
+                int digit = random.nextInt(10);
+                for (int i = start; i < start + length; i++) {
+                    digits[i] = digit;
+                }
+                break;
+            }
+            case 2: {
+                int length = 3 + random.nextInt(Math.min(regionLength, 10) - 2);
+                int start = random.nextInt(regionLength - length + 1);
+                int step = random.nextBoolean() ? 1 : -1;
+                int digit = step > 0 ? random.nextInt(11 - length) : length - 1 + random.nextInt(11 - length);
+                for (int i = start; i < start + length; i++, digit += step) {
+                    digits[i] = digit;
+                }
+                break;
+            }
+            case 3: {
+                int pairs = 2 + random.nextInt(regionLength / 2 - 1);
+                int start = random.nextInt(regionLength - 2 * pairs + 1);
+                for (int p = 0, i = start; p < pairs; p++, i += 2) {
+                    digits[i] = random.nextInt(10);
+                    digits[i + 1] = digits[i];
+                }
+                break;
+            }
+            case 4: {
+                // Two runs side by side, such as 555552222 or 111333
+                int first = 3 + random.nextInt(regionLength - 5);
+                int second = 3 + random.nextInt(regionLength - first - 2);
+                int start = random.nextInt(regionLength - first - second + 1);
+                int digit = random.nextInt(10);
+                int other = (digit + 1 + random.nextInt(9)) % 10;
+                for (int i = start; i < start + first + second; i++) {
+                    digits[i] = i < start + first ? digit : other;
+                }
+                break;
+            }
+            default:
+                break;
+        }
+
+        int region = 0;
+        for (int digit : digits) {
+            region = region * 10 + digit;
+        }
+        return region;
+    }
+}
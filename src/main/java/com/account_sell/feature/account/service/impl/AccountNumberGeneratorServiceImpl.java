@@ -2,25 +2,80 @@ package com.account_sell.feature.account.service.impl;
 
 import com.account_sell.enumation.AccountType;
 import com.account_sell.enumation.FilterType;
+import com.account_sell.enumation.PriceRange;
 import com.account_sell.exceptions.error.InvalidInputException;
+import com.account_sell.feature.account.dto.request.BrowseAccountRequest;
+import com.account_sell.feature.account.dto.request.GenerateAccountBatchRequest;
 import com.account_sell.feature.account.dto.request.GenerateAccountRequest;
+import com.account_sell.feature.account.dto.resposne.GenerateAccountBatchResponse;
 import com.account_sell.feature.account.dto.resposne.GenerateAccountResponse;
 import com.account_sell.feature.account.mapper.SpecialAccountMapper;
+import com.account_sell.feature.account.service.AccountInventoryService;
 import com.account_sell.feature.account.service.AccountNumberGeneratorService;
 import com.account_sell.utils.AccountNumberUtil;
+import com.account_sell.utils.pricing.AccountPattern;
+import com.account_sell.utils.pricing.CandidateSpace;
+import com.account_sell.utils.pricing.MatchCounter;
+import com.account_sell.utils.pricing.PricingRules;
+import com.account_sell.utils.pricing.SeededWalk;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AccountNumberGeneratorServiceImpl implements AccountNumberGeneratorService {
 
+    private static final int MAX_CACHED_COUNTS = 1000;
+    // Exact counts waiting for the counting thread, more are dropped and asked for again by a later request
+    private static final int MAX_QUEUED_COUNTS = 64;
+
     private final SpecialAccountMapper specialAccountMapper;
+    private final AccountInventoryService accountInventoryService;
+
+    // Recent per-tier counts by type, filter and pattern, least recently used evicted first
+    private final Map<String, MatchCounter.Histogram> matchCounts = Collections.synchronizedMap(
+            new LinkedHashMap<String, MatchCounter.Histogram>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, MatchCounter.Histogram> eldest) {
+                    return size() > MAX_CACHED_COUNTS;
+                }
+            });
+    // Searches whose exact count is queued or running
+    private final Set<String> exactCountsPending = ConcurrentHashMap.newKeySet();
+    // One thread, so exact counts never take more than a core from the requests
+    private final ThreadPoolExecutor exactCounter = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED_COUNTS),
+            runnable -> {
+                Thread thread = new Thread(runnable, "match-count");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+    @PreDestroy
+    public void shutdown() {
+        exactCounter.shutdownNow();
+    }
 
     @Override
     public GenerateAccountResponse generateSpecialAccountNumbers(GenerateAccountRequest request, int limit) {
@@ -53,12 +108,120 @@ public class AccountNumberGeneratorServiceImpl implements AccountNumberGenerator
             log.debug("No account type specified, defaulting to NORMAL");
         }
 
-        // Generate account numbers
-        List<Map.Entry<String, Double>> generatedAccounts = AccountNumberUtil.generateAccountNumbers(
-                inputPattern, filterType.name(), limit, minPrice, maxPrice, accountType);
+        String trimmedPattern = inputPattern.trim();
+        String searchKey = searchKey(accountType, filterType, trimmedPattern, minPrice, maxPrice);
+        List<Map.Entry<String, Double>> generatedAccounts;
+        MatchCounter.Histogram matchCount;
+        SeededWalk walk = null;
+        if (filterType == FilterType.PATTERN) {
+            AccountPattern pattern = compilePattern(trimmedPattern, accountType);
+            if (isPaged(request)) {
+                walk = startWalk(request, CandidateSpace.of(pattern), searchKey);
+                generatedAccounts = AccountNumberUtil.generatePage(walk, limit, minPrice, maxPrice, accountType);
+            } else {
+                generatedAccounts = AccountNumberUtil.generateFromPattern(pattern, limit, minPrice, maxPrice, accountType);
+            }
+            matchCount = countMatches(countKey(accountType, filterType, trimmedPattern),
+                    maxExact -> MatchCounter.histogram(pattern, maxExact));
+        } else if (isPaged(request) && AccountNumberUtil.leadingDigits(accountType) != null) {
+            CandidateSpace space = CandidateSpace.of(AccountNumberUtil.leadingDigits(accountType), trimmedPattern, filterType);
+            walk = startWalk(request, space, searchKey);
+            generatedAccounts = AccountNumberUtil.generatePage(walk, limit, minPrice, maxPrice, accountType);
+            matchCount = countMatches(accountType, filterType, trimmedPattern);
+        } else {
+            // Generate account numbers
+            generatedAccounts = AccountNumberUtil.generateAccountNumbers(
+                    inputPattern, filterType.name(), limit, minPrice, maxPrice, accountType);
+            matchCount = countMatches(accountType, filterType, trimmedPattern);
+        }
 
         log.info("Generated {} account numbers matching criteria", generatedAccounts.size());
 
+        GenerateAccountResponse response = toResponse(generatedAccounts, matchCount, minPrice, maxPrice);
+        if (walk != null) {
+            response.setSeed(walk.getSeed());
+            response.setNextCursor(walk.isExhausted() ? null : encodeCursor(walk, searchKey));
+        }
+        return response;
+    }
+
+    @Override
+    public GenerateAccountBatchResponse generateSpecialAccountNumbersBatch(GenerateAccountBatchRequest request, int limit) {
+        List<GenerateAccountRequest> specs = request.getSpecs();
+        log.info("Generating special account numbers for {} searches, limit: {}", specs.size(), limit);
+
+        if (limit <= 0 || limit > 100000) {
+            limit = 10;
+            log.debug("Applying default limit of 10");
+        }
+
+        // Digit patterns of the same account type share one sweep; the rest are generated one by one
+        GenerateAccountResponse[] results = new GenerateAccountResponse[specs.size()];
+        Map<AccountType, List<Integer>> sweeps = new EnumMap<>(AccountType.class);
+        for (int i = 0; i < specs.size(); i++) {
+            GenerateAccountRequest spec = specs.get(i);
+            validateRequest(spec);
+            AccountType accountType = spec.getAccountType() != null ? spec.getAccountType() : AccountType.NORMAL;
+            if (spec.getFilter() == FilterType.PATTERN || isPaged(spec) || AccountNumberUtil.leadingDigits(accountType) == null) {
+                results[i] = generateSpecialAccountNumbers(spec, limit);
+            } else {
+                sweeps.computeIfAbsent(accountType, type -> new ArrayList<>()).add(i);
+            }
+        }
+
+        for (Map.Entry<AccountType, List<Integer>> sweep : sweeps.entrySet()) {
+            AccountType accountType = sweep.getKey();
+            List<Integer> indexes = sweep.getValue();
+            List<String> patterns = new ArrayList<>(indexes.size());
+            List<FilterType> filters = new ArrayList<>(indexes.size());
+            double[] minPrices = new double[indexes.size()];
+            double[] maxPrices = new double[indexes.size()];
+            for (int k = 0; k < indexes.size(); k++) {
+                GenerateAccountRequest spec = specs.get(indexes.get(k));
+                patterns.add(spec.getUserInputMinunum4DigitalTo9().trim());
+                filters.add(spec.getFilter() != null ? spec.getFilter() : FilterType.CONTAIN);
+                minPrices[k] = spec.getMinPrice();
+                maxPrices[k] = spec.getMaxPrice();
+            }
+
+            List<List<Map.Entry<String, Double>>> generated = AccountNumberUtil.generateAccountNumbersBatch(
+                    patterns, filters, minPrices, maxPrices, limit, AccountNumberUtil.leadingDigits(accountType), accountType);
+            for (int k = 0; k < indexes.size(); k++) {
+                MatchCounter.Histogram matchCount = countMatches(accountType, filters.get(k), patterns.get(k));
+                results[indexes.get(k)] = toResponse(generated.get(k), matchCount, minPrices[k], maxPrices[k]);
+            }
+        }
+
+        return GenerateAccountBatchResponse.builder()
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    @Override
+    public GenerateAccountResponse browseAccountNumbers(BrowseAccountRequest request, int limit) {
+        AccountType accountType = request.getAccountType() != null ? request.getAccountType() : AccountType.NORMAL;
+        PriceRange tier = request.getPriceRange();
+        log.info("Browsing {} account numbers in tier {}, limit: {}", accountType, tier, limit);
+
+        if (limit <= 0 || limit > 1000) {
+            limit = 10;
+            log.debug("Applying default limit of 10");
+        }
+
+        List<Map.Entry<String, Double>> accounts = accountInventoryService.take(accountType, tier, limit);
+
+        // Every number of the type priced in the tier
+        double price = PricingRules.active().priceOf(tier);
+        AccountPattern anyNumber = AccountPattern.compile("?????????")
+                .restrictLeading(AccountNumberUtil.leadingDigits(accountType));
+        MatchCounter.Histogram matchCount = countMatches(countKey(accountType, null, ""),
+                maxExact -> MatchCounter.histogram(anyNumber, maxExact));
+
+        return toResponse(accounts, matchCount, price, price);
+    }
+
+    private GenerateAccountResponse toResponse(List<Map.Entry<String, Double>> generatedAccounts,
+                                               MatchCounter.Histogram matchCount, double minPrice, double maxPrice) {
         // Convert to response format using mapper
         List<GenerateAccountResponse.AccountDetails> accountDetails =
                 specialAccountMapper.toAccountDetailsList(generatedAccounts);
@@ -66,11 +229,158 @@ public class AccountNumberGeneratorServiceImpl implements AccountNumberGenerator
         // Build the final response object
         return GenerateAccountResponse.builder()
                 .accountNumberDetails(accountDetails)
-                .totalCount(accountDetails.size())
+                .totalCount(matchCount != null ? matchCount.count(minPrice, maxPrice) : accountDetails.size())
+                .totalCountExact(matchCount == null || matchCount.isExact())
                 .generatedCount(accountDetails.size())
                 .build();
     }
 
+    /**
+     * Counts all numbers of the account type that match the pattern, per price tier
+     *
+     * @return the counts, or null for types whose numbers are derived from the input rather than searched
+     */
+    private MatchCounter.Histogram countMatches(AccountType accountType, FilterType filterType, String pattern) {
+        List<String> leads = AccountNumberUtil.leadingDigits(accountType);
+        if (leads == null) {
+            return null;
+        }
+
+        return countMatches(countKey(accountType, filterType, pattern),
+                maxExact -> MatchCounter.histogram(leads, pattern, filterType, maxExact));
+    }
+
+    /**
+     * The cached counts of a search, or counts made now if they are cheap, else estimated from a sample.
+     * Estimates of spaces small enough to count in full are replaced by an exact count made in the background.
+     * <p>
+     * The generate endpoints are open to anonymous callers, so a request only ever prices up to
+     * {@link MatchCounter#CHEAP_EXACT_CANDIDATES} numbers. The trade-off: a 2 or 3 digit pattern answers with
+     * an estimated total ({@code totalCountExact} false) until its exact count lands, and every search missing
+     * the cache can queue a recount of up to {@link MatchCounter#MAX_EXACT_CANDIDATES} numbers, seconds of a
+     * core. The single counting thread, the {@value #MAX_QUEUED_COUNTS} queued counts and one pending count per
+     * search keep that to one core however many searches arrive; searches beyond the queue stay estimated.
+     *
+     * @param counter counts the search, pricing every candidate only when there are at most the given number
+     */
+    private MatchCounter.Histogram countMatches(String key, LongFunction<MatchCounter.Histogram> counter) {
+        MatchCounter.Histogram histogram = matchCounts.get(key);
+        if (histogram == null || histogram.getRules() != PricingRules.active()) {
+            long start = System.nanoTime();
+            histogram = counter.apply(MatchCounter.CHEAP_EXACT_CANDIDATES);
+            log.debug("Counted {} numbers for {} ({}) in {} ms", histogram.getCandidates(), key,
+                    histogram.isExact() ? "exact" : "estimated", (System.nanoTime() - start) / 1_000_000);
+            matchCounts.put(key, histogram);
+        }
+        if (!histogram.isExact() && histogram.getListed() <= MatchCounter.MAX_EXACT_CANDIDATES) {
+            countExactly(key, counter);
+        }
+        return histogram;
+    }
+
+    private void countExactly(String key, LongFunction<MatchCounter.Histogram> counter) {
+        if (!exactCountsPending.add(key)) {
+            return;
+        }
+        try {
+            exactCounter.execute(() -> {
+                try {
+                    long start = System.nanoTime();
+                    MatchCounter.Histogram exact = counter.apply(MatchCounter.MAX_EXACT_CANDIDATES);
+                    // Counted with rules reloaded since: the next request counts again
+                    if (exact.getRules() == PricingRules.active()) {
+                        matchCounts.put(key, exact);
+                    }
+                    log.debug("Counted {} numbers for {} exactly in {} ms", exact.getCandidates(), key,
+                            (System.nanoTime() - start) / 1_000_000);
+                } catch (Exception e) {
+                    log.error("Error counting matches for {}: {}", key, e.getMessage(), e);
+                } finally {
+                    exactCountsPending.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            exactCountsPending.remove(key);
+            log.debug("Exact count queue is full, {} stays estimated for now", key);
+        }
+    }
+
+    // Identifies a search in the count cache; one entry answers every price range
+    private String countKey(AccountType accountType, FilterType filterType, String pattern) {
+        return accountType + ":" + filterType + ":" + pattern;
+    }
+
+    // Identifies a search for the cursors of its pages
+    private String searchKey(AccountType accountType, FilterType filterType, String pattern,
+                             double minPrice, double maxPrice) {
+        return accountType + ":" + filterType + ":" + pattern + ":" + minPrice + ":" + maxPrice;
+    }
+
+    private boolean isPaged(GenerateAccountRequest request) {
+        return request.getSeed() != null || request.getCursor() != null;
+    }
+
+    /**
+     * Starts a walk from the request's cursor, or from the start of the request's seed
+     *
+     * @throws InvalidInputException if the cursor is malformed or belongs to another search
+     */
+    private SeededWalk startWalk(GenerateAccountRequest request, CandidateSpace space, String searchKey) {
+        if (request.getCursor() == null) {
+            return new SeededWalk(space, request.getSeed(), 0);
+        }
+
+        String[] parts;
+        long seed;
+        long position;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(request.getCursor().trim()), StandardCharsets.UTF_8)
+                    .split(":");
+            seed = Long.parseLong(parts[0]);
+            position = Long.parseLong(parts[1]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            log.error("Invalid cursor: {}", request.getCursor());
+            throw new InvalidInputException("Invalid cursor");
+        }
+        if (parts.length != 3 || position < 0) {
+            log.error("Invalid cursor: {}", request.getCursor());
+            throw new InvalidInputException("Invalid cursor");
+        }
+        if (!parts[2].equals(fingerprint(searchKey))) {
+            log.error("Cursor {} does not belong to search {}", request.getCursor(), searchKey);
+            throw new InvalidInputException("Cursor does not belong to this search");
+        }
+        return new SeededWalk(space, seed, position);
+    }
+
+    private String encodeCursor(SeededWalk walk, String searchKey) {
+        String cursor = walk.getSeed() + ":" + walk.getPosition() + ":" + fingerprint(searchKey);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String fingerprint(String searchKey) {
+        return Integer.toHexString(searchKey.hashCode());
+    }
+
+    /**
+     * Compiles a wildcard pattern and limits it to the leading digits of the account type
+     *
+     * @throws InvalidInputException if the pattern is invalid or cannot be used for the account type
+     */
+    private AccountPattern compilePattern(String input, AccountType accountType) {
+        List<String> leads = AccountNumberUtil.leadingDigits(accountType);
+        if (leads == null) {
+            log.error("Pattern filter is not supported for account type: {}", accountType);
+            throw new InvalidInputException("Pattern filter is not supported for " + accountType + " accounts");
+        }
+        try {
+            return AccountPattern.compile(input).restrictLeading(leads);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid account number pattern {}: {}", input, e.getMessage());
+            throw new InvalidInputException(e.getMessage());
+        }
+    }
+
     /**
      * Validates the request parameters
      *
@@ -85,6 +395,12 @@ public class AccountNumberGeneratorServiceImpl implements AccountNumberGenerator
 
         String input = request.getUserInputMinunum4DigitalTo9().trim();
 
+        // Wildcard patterns are checked when they are compiled
+        if (request.getFilter() == FilterType.PATTERN) {
+            validatePriceRange(request);
+            return;
+        }
+
         if (input.length() > 9) {
             log.error("Input must not exceed 9 digits: {}", input);
             throw new InvalidInputException("Input must not exceed 9 digits");
@@ -95,6 +411,10 @@ public class AccountNumberGeneratorServiceImpl implements AccountNumberGenerator
             throw new InvalidInputException("Input must contain only digits");
         }
 
+        validatePriceRange(request);
+    }
+
+    private void validatePriceRange(GenerateAccountRequest request) {
         if (request.getMinPrice() < 0) {
             log.error("Minimum price cannot be negative: {}", request.getMinPrice());
             throw new InvalidInputException("Minimum price cannot be negative");
@@ -0,0 +1,91 @@
+package com.account_sell.feature.account.service.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Ring buffer of distinct numbers for one account type and price tier, with the backoff of a tier the
+ * background passes of {@link AccountInventoryServiceImpl} cannot fill
+ */
+final class InventoryPool {
+
+    // A starved tier waits 2, 4, ... up to 64 passes before it is targeted again
+    private static final int MAX_BACKOFF_SHIFT = 6;
+
+    private final int[] numbers;
+    private final Set<Integer> members = new HashSet<>();
+    private int head;
+    private int size;
+    // Passes in a row that left the pool short while adding next to nothing
+    private int starvedPasses;
+    // First pass allowed to target the pool again
+    private long retryAt;
+
+    InventoryPool(int capacity) {
+        this.numbers = new int[capacity];
+    }
+
+    /**
+     * @return whether the number was added, not already pooled and with room left
+     */
+    synchronized boolean offer(int number) {
+        if (size < numbers.length && members.add(number)) {
+            numbers[(head + size) % numbers.length] = number;
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Moves up to {@code count} numbers, oldest first, into {@code out} from {@code from}
+     *
+     * @return how many were moved
+     */
+    synchronized int poll(int[] out, int from, int count) {
+        int n = Math.min(count, size);
+        for (int i = 0; i < n; i++) {
+            out[from + i] = numbers[head];
+            members.remove(numbers[head]);
+            head = (head + 1) % numbers.length;
+        }
+        size -= n;
+        return n;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    // Empties the pool and forgets its backoff, for numbers priced with other rules
+    synchronized void clear() {
+        members.clear();
+        head = 0;
+        size = 0;
+        starvedPasses = 0;
+        retryAt = 0;
+    }
+
+    /**
+     * Judges a pass that targeted the pool: fed ends the backoff, anything else doubles it
+     */
+    synchronized void recordPass(long pass, boolean fed) {
+        if (fed) {
+            starvedPasses = 0;
+            retryAt = 0;
+        } else {
+            starvedPasses++;
+            retryAt = pass + (1L << Math.min(starvedPasses, MAX_BACKOFF_SHIFT));
+        }
+    }
+
+    // The last pass judging the pool left it starved
+    synchronized boolean isStarved() {
+        return starvedPasses > 0;
+    }
+
+    // Whether the pass must leave the pool alone
+    synchronized boolean isBackingOff(long pass) {
+        return pass < retryAt;
+    }
+}
@@ -1,6 +1,7 @@
 package com.account_sell.feature.auth.controllers;
 
 import com.account_sell.config.RequiresRole;
+import com.account_sell.exceptions.error.BadRequestException;
 import com.account_sell.feature.auth.dto.response.AuthResponseDTO;
 import com.account_sell.feature.auth.dto.request.LoginRequestDto;
 import com.account_sell.feature.auth.dto.request.RegisterRequestDto;
@@ -9,6 +10,7 @@ import com.account_sell.exceptions.response.ApiResponse;
 import com.account_sell.feature.auth.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -91,6 +93,25 @@ public class AuthController {
         }
     }
 
+    @PostMapping("logout")
+    public ApiResponse<Boolean> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        log.info("Logout request received");
+
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new BadRequestException("Bearer token is required");
+        }
+
+        authService.logout(authorization.substring(7));
+
+        log.info("Logout successful");
+
+        return new ApiResponse<>(
+                "success",
+                "Logged out successfully",
+                true
+        );
+    }
+
     @PostMapping("admin/create-user")
     @RequiresRole(value = {"ADMIN", "DEVELOPER"}, anyRole = true, message = "Only administrators and developers can create users")
     public ApiResponse<UserResponseDto> createUser(@Valid @RequestBody RegisterRequestDto registerDto) {
@@ -7,6 +7,7 @@ import com.account_sell.feature.auth.dto.request.ChangePasswordRequestDto;
 import com.account_sell.feature.auth.dto.request.UpdateUserRequestDto;
 import com.account_sell.feature.auth.dto.response.UserResponseDto;
 import com.account_sell.feature.auth.dto.response.AllUserResponseDto;
+import com.account_sell.feature.auth.dto.response.UserSearchResponseDto;
 import com.account_sell.exceptions.response.ApiResponse;
 import com.account_sell.feature.auth.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -51,6 +52,30 @@ public class UserController {
         return new ApiResponse<>("success", "Users retrieved successfully", result);
     }
 
+    /**
+     * Cursor-paginated user list, newest first.
+     * Pass nextCursor from the previous response as cursor to get the next page.
+     */
+    @PostMapping("/search")
+    @RequiresRole(value = {"ADMIN", "DEVELOPER"}, anyRole = true)
+    public ApiResponse<UserSearchResponseDto> searchUsers(
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "status", required = false) StatusData statusData) {
+
+        int effectivePageSize = pageSize <= 0 ? 10 : pageSize;
+
+        log.info("Request to search users - cursor: {}, size: {}, search: '{}', status: {}",
+                cursor, effectivePageSize, search, statusData);
+
+        UserSearchResponseDto result = userService.searchUsers(cursor, effectivePageSize, search, statusData);
+
+        log.info("Successfully retrieved {} users, next cursor: {}", result.getContent().size(), result.getNextCursor());
+
+        return new ApiResponse<>("success", "Users retrieved successfully", result);
+    }
+
     @PostMapping("/getById/{id}")
     public ApiResponse<UserResponseDto> getUserDetail(@PathVariable Long id) {
         log.info("Request to get details for user ID: {}", id);
@@ -0,0 +1,20 @@
+package com.account_sell.feature.auth.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSearchResponseDto {
+    private List<UserResponseDto> content;
+    private int pageSize;
+    // Pass back as cursor to get the next page, null on the last page
+    private Long nextCursor;
+    private boolean last;
+}
@@ -0,0 +1,28 @@
+package com.account_sell.feature.auth.models;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+public class RevokedTokenEntity extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The token's jti claim
+    @Column(nullable = false, unique = true, length = 64)
+    private String jti;
+
+    // Once the token has expired the entry is no longer needed
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
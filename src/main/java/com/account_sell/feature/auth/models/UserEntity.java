@@ -4,6 +4,7 @@ import com.account_sell.enumation.StatusData;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -28,6 +29,12 @@ public class UserEntity extends BaseEntity {
     @Enumerated(EnumType.STRING)
     private StatusData status;
 
+    // Embedded in issued tokens; bumping it rejects every token issued before the change
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    private int tokenVersion;
+
+    // Roles of a page of users load in one query instead of one per user
+    @BatchSize(size = 100)
     @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.MERGE})
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id", referencedColumnName = "id"),
@@ -0,0 +1,26 @@
+package com.account_sell.feature.auth.repository;
+
+import com.account_sell.feature.auth.models.RevokedTokenEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedTokenEntity, Long> {
+
+    boolean existsByJti(String jti);
+
+    // Revocations still in force, optionally only those recorded after a point in time
+    List<RevokedTokenEntity> findByExpiresAtAfterAndCreatedAtAfter(LocalDateTime expiresAfter, LocalDateTime createdAfter);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedTokenEntity r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
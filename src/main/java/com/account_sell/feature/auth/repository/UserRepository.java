@@ -5,8 +5,12 @@ import com.account_sell.feature.auth.models.UserEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,4 +22,8 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Page<UserEntity> findByUsernameContainingIgnoreCase(String username, Pageable pageable);
     Page<UserEntity> findByStatus(StatusData status, Pageable pageable);
 
+    // Username, status and token version only, used to check tokens without loading users and roles
+    @Query("SELECT u.username, u.status, u.tokenVersion FROM UserEntity u WHERE u.username IN :usernames")
+    List<Object[]> findTokenStates(@Param("usernames") Collection<String> usernames);
+
 }
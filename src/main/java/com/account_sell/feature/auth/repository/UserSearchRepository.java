@@ -0,0 +1,80 @@
+package com.account_sell.feature.auth.repository;
+
+import com.account_sell.enumation.StatusData;
+import com.account_sell.feature.auth.dto.response.UserResponseDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Read model for the admin user list.
+ * Users and their role names come back in one query, paged by id (newest first) instead of by
+ * offset, so each page costs the same no matter how deep the client scrolls. The username filter
+ * matches lower(username) and is served by the trigram index created in UserIndexInitializer.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserSearchRepository {
+
+    private static final String SELECT_USERS =
+            "SELECT u.id, u.username, u.status, u.created_at, u.updated_at, " +
+            "  (SELECT string_agg(r.name, ', ' ORDER BY r.id) FROM user_roles ur " +
+            "   JOIN roles r ON r.id = ur.role_id WHERE ur.user_id = u.id) AS roles " +
+            "FROM users u WHERE 1 = 1";
+
+    private static final RowMapper<UserResponseDto> USER_ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        return UserResponseDto.builder()
+                .id(rs.getLong("id"))
+                .email(rs.getString("username"))
+                .userStatus(rs.getString("status"))
+                .userRole(rs.getString("roles"))
+                .createdAt(createdAt != null ? createdAt.toLocalDateTime() : null)
+                .updatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null)
+                .build();
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the users after the cursor, newest first.
+     *
+     * @param search part of the username, case-insensitive, or null for all users
+     * @param status status to filter by, or null for all statuses
+     * @param afterId id of the last user on the previous page, or null for the first page
+     * @param limit maximum number of users to return
+     * @return the users, at most limit of them
+     */
+    public List<UserResponseDto> search(String search, StatusData status, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_USERS);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        if (search != null && !search.trim().isEmpty()) {
+            sql.append(" AND lower(u.username) LIKE :pattern ESCAPE '\\'");
+            params.addValue("pattern", "%" + escapeLike(search.trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (status != null) {
+            sql.append(" AND u.status = :status");
+            params.addValue("status", status.name());
+        }
+        if (afterId != null) {
+            sql.append(" AND u.id < :afterId");
+            params.addValue("afterId", afterId);
+        }
+        sql.append(" ORDER BY u.id DESC LIMIT :limit");
+        params.addValue("limit", limit);
+
+        return jdbcTemplate.query(sql.toString(), params, USER_ROW_MAPPER);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
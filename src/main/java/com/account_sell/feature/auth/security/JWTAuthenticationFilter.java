@@ -1,8 +1,13 @@
 package com.account_sell.feature.auth.security;
 
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
@@ -13,6 +18,9 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
 
@@ -20,6 +28,14 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
     private JWTGenerator tokenGenerator;
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
+    @Autowired
+    private TokenVersionCache tokenVersionCache;
+    @Autowired
+    private TokenRevocationStore tokenRevocationStore;
+
+    // Build the principal from token claims instead of loading the user on every request
+    @Value("${jwt.stateless-auth:true}")
+    private boolean statelessAuth;
 
 
     @Override
@@ -27,18 +43,51 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         String token = getJWTFromRequest(request);
-        if(StringUtils.hasText(token) && tokenGenerator.validateToken(token)) {
-            String username = tokenGenerator.getUsernameFromJWT(token);
-
-            UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
-            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null,
-                    userDetails.getAuthorities());
-            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+        if(StringUtils.hasText(token)) {
+            Claims claims = tokenGenerator.getValidatedClaims(token);
+            String username = claims.getSubject();
+
+            UserDetails userDetails;
+            if (tokenRevocationStore.isRevoked(claims.getId())) {
+                // Logged out, treat the request as anonymous
+                logger.debug("Rejecting revoked token for user " + username);
+                userDetails = null;
+            } else {
+                userDetails = statelessAuth
+                        ? userDetailsFromClaims(claims)
+                        : customUserDetailsService.loadUserByUsername(username);
+            }
+            if (userDetails != null) {
+                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null,
+                        userDetails.getAuthorities());
+                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            }
         }
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Principal with the roles carried in the token, or null when the token version is outdated
+     */
+    private UserDetails userDetailsFromClaims(Claims claims) {
+        String username = claims.getSubject();
+        Number version = claims.get(JWTGenerator.TOKEN_VERSION_CLAIM, Number.class);
+        if (!tokenVersionCache.isCurrent(username, version != null ? version.intValue() : 0)) {
+            logger.debug("Rejecting outdated token for user " + username);
+            return null;
+        }
+
+        Collection<GrantedAuthority> authorities = new ArrayList<>();
+        Object roles = claims.get(JWTGenerator.ROLES_CLAIM);
+        if (roles instanceof List) {
+            for (Object role : (List<?>) roles) {
+                authorities.add(new SimpleGrantedAuthority(String.valueOf(role)));
+            }
+        }
+        return new User(username, "", authorities);
+    }
+
     private String getJWTFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if(StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,10 +1,19 @@
 package com.account_sell.feature.auth.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Collection;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import java.security.Key;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -15,6 +24,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
 import javax.crypto.spec.SecretKeySpec;
 
 /**
@@ -24,6 +35,9 @@ import javax.crypto.spec.SecretKeySpec;
 @Slf4j
 public class JWTGenerator {
 
+    public static final String ROLES_CLAIM = "roles";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret.key}")
     private String secretKey;
 
@@ -33,16 +47,45 @@ public class JWTGenerator {
     @Value("${jwt.issuer:cbc-sender-api}")
     private String issuer;
 
+    // Upper bound on remembered verified tokens
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    // Key and parser are immutable and thread-safe, so they are built once
+    private Key signingKey;
+    private JwtParser parser;
+
+    // Claims of tokens whose signature was already checked, keyed by SHA-256 of the token. A hit costs
+    // about a tenth of parsing the token and checking its HMAC again (see JWTGeneratorTest)
+    private final Map<String, Claims> verifiedTokens = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        signingKey = new SecretKeySpec(secretKey.getBytes(), SignatureAlgorithm.HS512.getJcaName());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     private Key getSigningKey() {
-        return new SecretKeySpec(secretKey.getBytes(), SignatureAlgorithm.HS512.getJcaName());
+        return signingKey;
     }
 
     /**
      * Generate JWT token with user roles and additional claims.
      * @param authentication The authenticated user
+     * @param tokenVersion Current token version of the user
      * @return JWT token string
      */
-    public String generateToken(Authentication authentication) {
+    public String generateToken(Authentication authentication, int tokenVersion) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         String username = userDetails.getUsername();
 
@@ -59,11 +102,13 @@ public class JWTGenerator {
         log.debug("Generating token for user: {} with roles: {}", username, roles);
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(currentDate)
                 .setExpiration(expireDate)
                 .setSubject(username)
                 .setIssuer(issuer)
-                .claim("roles", roles)
+                .claim(ROLES_CLAIM, roles)
+                .claim(TOKEN_VERSION_CLAIM, tokenVersion)
                 .claim("created", currentDate.getTime())
                 .signWith(getSigningKey(), SignatureAlgorithm.HS512)
                 .compact();
@@ -87,7 +132,7 @@ public class JWTGenerator {
     @SuppressWarnings("unchecked")
     public List<String> getRolesFromJWT(String token) {
         Claims claims = parseToken(token);
-        return (List<String>) claims.get("roles");
+        return (List<String>) claims.get(ROLES_CLAIM);
     }
 
     /**
@@ -110,9 +155,18 @@ public class JWTGenerator {
      * @return true if valid, exception if invalid
      */
     public boolean validateToken(String token) {
+        getValidatedClaims(token);
+        return true;
+    }
+
+    /**
+     * Validate a JWT token and return its claims.
+     * @param token JWT token
+     * @return Claims from token, exception if invalid
+     */
+    public Claims getValidatedClaims(String token) {
         try {
-            parseToken(token);
-            return true;
+            return parseToken(token);
         } catch (Exception ex) {
             log.warn("JWT validation failed: {}", ex.getMessage());
             throw new AuthenticationCredentialsNotFoundException(
@@ -122,14 +176,48 @@ public class JWTGenerator {
 
     /**
      * Parse JWT token and extract claims.
+     * Tokens verified before are served from the cache until they expire.
      * @param token JWT token
      * @return Claims from token
      */
     private Claims parseToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+
+        Claims cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.getExpiration() == null || cached.getExpiration().getTime() > now) {
+                return cached;
+            }
+            // Expired, let the parser report it
+            verifiedTokens.remove(key);
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (verifiedTokens.size() >= verifiedCacheSize) {
+            evict(now);
+        }
+        verifiedTokens.put(key, claims);
+        return claims;
+    }
+
+    /**
+     * Drop expired entries, then arbitrary ones until a tenth of the cache is free.
+     */
+    private void evict(long now) {
+        verifiedTokens.values().removeIf(claims ->
+                claims.getExpiration() != null && claims.getExpiration().getTime() <= now);
+
+        int target = verifiedCacheSize - Math.max(1, verifiedCacheSize / 10);
+        Iterator<String> keys = verifiedTokens.keySet().iterator();
+        while (verifiedTokens.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private String hash(String token) {
+        byte[] digest = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(digest);
     }
-}
\ No newline at end of file
+}
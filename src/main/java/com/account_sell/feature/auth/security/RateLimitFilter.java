@@ -0,0 +1,209 @@
+package com.account_sell.feature.auth.security;
+
+import com.account_sell.feature.account.dto.request.GenerateAccountBatchRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-client token bucket rate limiting for the public, expensive endpoints.
+ * <p>
+ * Buckets live in one fixed {@link AtomicLongArray}, so memory stays bounded no matter how many
+ * clients show up. A client (authenticated user, or IP address without a token) hashes to a slot; clients
+ * that collide share a bucket. Each slot packs the last refill time in milliseconds (upper 40 bits)
+ * and the remaining tokens in thousandths (lower 24 bits), and is updated with a single CAS.
+ * <p>
+ * Generation requests cost one token per {@code generationPerToken} requested numbers (a batch is charged
+ * as its largest allowed size, since the body is not read here), and bank
+ * lookups (validate and create order) cost {@code bankCallCost}; everything else costs one token.
+ * <p>
+ * Behind {@code trustedProxies} reverse proxies the client address is read from X-Forwarded-For, counting
+ * that many entries from the right: each proxy appends the address it was called from, so the entries to
+ * the left of the ones our proxies wrote are whatever the client chose to send.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String GENERATION_PATH = "/api/v1/special-accounts/";
+    private static final String BATCH_GENERATION_PATH = "/api/v1/special-accounts/generate/batch";
+    private static final String ORDERS_PATH = "/api/v1/orders";
+    private static final String VALIDATE_PATH = "/api/v1/orders/validate";
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long UNITS_PER_TOKEN = 1000;
+
+    private final AtomicLongArray buckets;
+    private final int slotMask;
+    private final long capacityUnits;
+    // Refill speed in thousandths of a token per millisecond, equal to tokens per second
+    private final long refillUnitsPerMs;
+    private final int generationPerToken;
+    private final int bankCallCost;
+    // Reverse proxies in front of the application that append to X-Forwarded-For, 0 to ignore the header
+    private final int trustedProxies;
+    private final long startNanos = System.nanoTime();
+
+    private final Counter rejectedCounter;
+
+    public RateLimitFilter(int slots, int capacity, int refillPerSecond, int generationPerToken,
+                           int bankCallCost, int trustedProxies, MeterRegistry meterRegistry) {
+        if (capacity * UNITS_PER_TOKEN > TOKEN_MASK) {
+            throw new IllegalArgumentException("Rate limit capacity must be below " + TOKEN_MASK / UNITS_PER_TOKEN);
+        }
+        int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        this.buckets = new AtomicLongArray(size);
+        this.slotMask = size - 1;
+        this.capacityUnits = capacity * UNITS_PER_TOKEN;
+        this.refillUnitsPerMs = refillPerSecond;
+        this.generationPerToken = Math.max(1, generationPerToken);
+        this.bankCallCost = bankCallCost;
+        this.trustedProxies = Math.max(0, trustedProxies);
+        this.rejectedCounter = Counter.builder("http.ratelimit.rejected")
+                .description("Requests rejected by the public endpoint rate limiter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = path(request);
+        return !path.startsWith(GENERATION_PATH) && !path.startsWith(ORDERS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long waitMillis = tryAcquire(slot(clientKey(request)), cost(request));
+        if (waitMillis > 0) {
+            rejectedCounter.increment();
+            long retryAfterSeconds = Math.max(1, (waitMillis + 999) / 1000);
+            log.debug("Rate limit exceeded for {} {}, retry after {}s", request.getMethod(), path(request), retryAfterSeconds);
+
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType("application/json");
+            response.getWriter().write("{\"code\": 429, \"status\":\"failed\", \"message\": " +
+                    "\"Too many requests, please retry after " + retryAfterSeconds + " seconds\", " +
+                    "\"retryAfterSeconds\": " + retryAfterSeconds + "}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Takes {@code cost} tokens from the bucket in the slot.
+     * @return 0 when allowed, otherwise milliseconds until enough tokens are available
+     */
+    private long tryAcquire(int slot, long cost) {
+        // A single request never needs more than a full bucket
+        long costUnits = Math.min(cost * UNITS_PER_TOKEN, capacityUnits);
+        // Offset by one so a zero slot always means "never used"
+        long now = (System.nanoTime() - startNanos) / 1_000_000 + 1;
+
+        while (true) {
+            long state = buckets.get(slot);
+            long last;
+            long tokens;
+            if (state == 0) {
+                last = now;
+                tokens = capacityUnits;
+            } else {
+                last = state >>> TOKEN_BITS;
+                tokens = state & TOKEN_MASK;
+                if (now > last) {
+                    tokens = Math.min(capacityUnits, tokens + (now - last) * refillUnitsPerMs);
+                    last = now;
+                }
+            }
+
+            if (tokens < costUnits) {
+                return refillUnitsPerMs > 0 ? (costUnits - tokens + refillUnitsPerMs - 1) / refillUnitsPerMs : Long.MAX_VALUE;
+            }
+            if (buckets.compareAndSet(slot, state, (last << TOKEN_BITS) | (tokens - costUnits))) {
+                return 0;
+            }
+        }
+    }
+
+    private long cost(HttpServletRequest request) {
+        String path = path(request);
+        if (path.startsWith(GENERATION_PATH)) {
+            int limit = 10;
+            String limitParam = request.getParameter("limit");
+            if (StringUtils.hasText(limitParam)) {
+                try {
+                    limit = Integer.parseInt(limitParam.trim());
+                } catch (NumberFormatException e) {
+                    // Let validation reject it, charge the default
+                }
+            }
+            long requested = (long) Math.max(limit, 1)
+                    * (path.equals(BATCH_GENERATION_PATH) ? GenerateAccountBatchRequest.MAX_SPECS : 1);
+            return Math.max(1, (requested + generationPerToken - 1) / generationPerToken);
+        }
+        if (path.equals(VALIDATE_PATH) || (path.equals(ORDERS_PATH) && HttpMethod.POST.matches(request.getMethod()))) {
+            return bankCallCost;
+        }
+        return 1;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        // Runs after the JWT filter, so only verified tokens get a per-user bucket
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            return "user:" + authentication.getName();
+        }
+        if (trustedProxies > 0) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (StringUtils.hasText(forwardedFor)) {
+                return "ip:" + forwardedClient(forwardedFor);
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * The entry {@code trustedProxies} from the right, the address the outermost trusted proxy was called
+     * from. A shorter header went through fewer proxies than configured, so its first entry is taken.
+     */
+    private String forwardedClient(String forwardedFor) {
+        int end = forwardedFor.length();
+        for (int hop = 1; ; hop++) {
+            int comma = forwardedFor.lastIndexOf(',', end - 1);
+            if (hop == trustedProxies || comma < 0) {
+                return forwardedFor.substring(comma + 1, end).trim();
+            }
+            end = comma;
+        }
+    }
+
+    private int slot(String key) {
+        // Murmur3 finalizer spreads similar keys (neighbouring IPs) across slots
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & slotMask;
+    }
+
+    private String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
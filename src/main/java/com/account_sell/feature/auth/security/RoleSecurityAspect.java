@@ -8,50 +8,61 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.MethodClassKey;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Aspect that enforces role-based access control using the RequiresRole annotation.
  * Intercepts method calls and checks if the current user has the required roles.
+ * <p>
+ * Roles are compared as bitmasks over {@link RoleEnum}: the requirement of each method is
+ * resolved once and cached, the user's mask is built once per request, and the check itself
+ * is a single AND.
  */
 @Aspect
 @Component
 @Slf4j
 public class RoleSecurityAspect {
 
-    @Around("@annotation(com.account_sell.config.RequiresRole) || " +
-            "@within(com.account_sell.config.RequiresRole)")
-    public Object checkRole(ProceedingJoinPoint joinPoint) throws Throwable {
-        log.debug("Checking role permissions for {}", joinPoint.getSignature().toShortString());
+    // Set in a requirement for role names that are not a RoleEnum, no user can ever hold it
+    private static final int UNKNOWN_ROLE_BIT = 1 << 31;
 
-        // Get method signature
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
+    private static final Map<String, Integer> ROLE_BITS = new HashMap<>();
 
-        // Get annotation from method first, then from class if not present on method
-        RequiresRole annotation = AnnotationUtils.findAnnotation(method, RequiresRole.class);
-        if (annotation == null) {
-            annotation = AnnotationUtils.findAnnotation(joinPoint.getTarget().getClass(), RequiresRole.class);
+    static {
+        for (RoleEnum role : RoleEnum.values()) {
+            ROLE_BITS.put(role.name(), 1 << role.ordinal());
         }
+    }
 
-        if (annotation != null) {
-            // Extract required roles from annotation
-            String[] requiredRoles = annotation.value();
-            boolean anyRole = annotation.anyRole();
-            String customMessage = annotation.message();
+    private static final String USER_ROLES_ATTRIBUTE = RoleSecurityAspect.class.getName() + ".USER_ROLES";
 
-            log.debug("Required roles: {}, anyRole: {}", Arrays.toString(requiredRoles), anyRole);
+    // Methods without an annotation map to NO_REQUIREMENT so the lookup is cached too
+    private static final Requirement NO_REQUIREMENT = new Requirement(0, false, null);
+
+    private final Map<MethodClassKey, Requirement> requirements = new ConcurrentHashMap<>();
+
+    @Around("@annotation(com.account_sell.config.RequiresRole) || " +
+            "@within(com.account_sell.config.RequiresRole)")
+    public Object checkRole(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = joinPoint.getTarget().getClass();
+        Requirement requirement = requirements.computeIfAbsent(
+                new MethodClassKey(method, targetClass), key -> resolve(method, targetClass));
 
+        if (requirement != NO_REQUIREMENT) {
             // Get current authentication
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             if (authentication == null || !authentication.isAuthenticated()) {
@@ -59,52 +70,100 @@ public class RoleSecurityAspect {
                 throw new UnauthorizedException("User not authenticated");
             }
 
-            // Get user's actual roles
-            Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-            Set<String> userRoles = authorities.stream()
-                    .map(GrantedAuthority::getAuthority)
-                    .collect(Collectors.toSet());
-
-            log.debug("User roles: {}", userRoles);
-
-            // Convert requiredRoles to RoleEnum format if needed
-            Set<String> formattedRequiredRoles = Arrays.stream(requiredRoles)
-                    .map(role -> {
-                        try {
-                            // If the role is specified as enum constant, convert to string
-                            return RoleEnum.valueOf(role).name();
-                        } catch (IllegalArgumentException e) {
-                            // If not a valid enum, use as is (might be already a string)
-                            return role;
-                        }
-                    })
-                    .collect(Collectors.toSet());
-
-            boolean hasAccess = false;
-
-            if (anyRole) {
-                // Check if user has any of the required roles
-                hasAccess = formattedRequiredRoles.stream()
-                        .anyMatch(userRoles::contains);
-
-                if (!hasAccess) {
-                    log.warn("Access denied: user has none of the required roles");
-                    throw new UnauthorizedException(customMessage);
-                }
-            } else {
-                // Check if user has all of the required roles
-                hasAccess = userRoles.containsAll(formattedRequiredRoles);
-
-                if (!hasAccess) {
-                    log.warn("Access denied: user missing some required roles");
-                    throw new UnauthorizedException(customMessage);
-                }
-            }
+            int userMask = userRoles(authentication);
+            boolean hasAccess = requirement.anyRole
+                    ? (userMask & requirement.mask) != 0
+                    : (userMask & requirement.mask) == requirement.mask;
 
-            log.debug("Access granted for {}", joinPoint.getSignature().toShortString());
+            if (!hasAccess) {
+                log.warn("Access denied to {}: user roles do not satisfy {}",
+                        joinPoint.getSignature().toShortString(), requirement);
+                throw new UnauthorizedException(requirement.message);
+            }
         }
 
         // If annotation is null or access is granted, proceed with method execution
         return joinPoint.proceed();
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads the annotation from the method first, then from the class, and turns it into a role mask
+     */
+    private Requirement resolve(Method method, Class<?> targetClass) {
+        RequiresRole annotation = AnnotationUtils.findAnnotation(method, RequiresRole.class);
+        if (annotation == null) {
+            annotation = AnnotationUtils.findAnnotation(targetClass, RequiresRole.class);
+        }
+        if (annotation == null) {
+            return NO_REQUIREMENT;
+        }
+
+        int mask = 0;
+        for (String role : annotation.value()) {
+            Integer bit = ROLE_BITS.get(role);
+            if (bit != null) {
+                mask |= bit;
+            } else if (!annotation.anyRole()) {
+                log.warn("Unknown role '{}' required by {}, access will always be denied", role, method);
+                mask |= UNKNOWN_ROLE_BIT;
+            }
+        }
+
+        Requirement requirement = new Requirement(mask, annotation.anyRole(), annotation.message());
+        log.debug("Resolved role requirement for {}: {} {}", method, requirement, Arrays.toString(annotation.value()));
+        return requirement;
+    }
+
+    /**
+     * The user's roles as a mask, computed once per request and authentication
+     */
+    private int userRoles(Authentication authentication) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object cached = attributes.getAttribute(USER_ROLES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (cached instanceof UserRoles && ((UserRoles) cached).authentication == authentication) {
+                return ((UserRoles) cached).mask;
+            }
+        }
+
+        int mask = 0;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            Integer bit = ROLE_BITS.get(authority.getAuthority());
+            if (bit != null) {
+                mask |= bit;
+            }
+        }
+
+        if (attributes != null) {
+            attributes.setAttribute(USER_ROLES_ATTRIBUTE, new UserRoles(authentication, mask), RequestAttributes.SCOPE_REQUEST);
+        }
+        return mask;
+    }
+
+    private static final class Requirement {
+        private final int mask;
+        private final boolean anyRole;
+        private final String message;
+
+        private Requirement(int mask, boolean anyRole, String message) {
+            this.mask = mask;
+            this.anyRole = anyRole;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return (anyRole ? "any of " : "all of ") + Integer.toBinaryString(mask);
+        }
+    }
+
+    private static final class UserRoles {
+        private final Authentication authentication;
+        private final int mask;
+
+        private UserRoles(Authentication authentication, int mask) {
+            this.authentication = authentication;
+            this.mask = mask;
+        }
+    }
+}
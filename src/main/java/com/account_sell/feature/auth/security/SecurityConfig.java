@@ -1,6 +1,8 @@
 package com.account_sell.feature.auth.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -21,11 +23,38 @@ public class SecurityConfig {
 
     private final JwtAuthEntryPoint authEntryPoint;
     private final CustomUserDetailsService userDetailsService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean rateLimitEnabled;
+
+    @Value("${app.rate-limit.slots:65536}")
+    private int rateLimitSlots;
+
+    @Value("${app.rate-limit.capacity:100}")
+    private int rateLimitCapacity;
+
+    @Value("${app.rate-limit.refill-per-second:2}")
+    private int rateLimitRefillPerSecond;
+
+    @Value("${app.rate-limit.generation-per-token:100}")
+    private int rateLimitGenerationPerToken;
+
+    @Value("${app.rate-limit.bank-call-cost:5}")
+    private int rateLimitBankCallCost;
+
+    @Value("${app.rate-limit.trust-forwarded-for:false}")
+    private boolean rateLimitTrustForwardedFor;
+
+    @Value("${app.rate-limit.trusted-proxies:1}")
+    private int rateLimitTrustedProxies;
 
     @Autowired
-    public SecurityConfig(CustomUserDetailsService userDetailsService, JwtAuthEntryPoint authEntryPoint) {
+    public SecurityConfig(CustomUserDetailsService userDetailsService, JwtAuthEntryPoint authEntryPoint,
+                          MeterRegistry meterRegistry) {
         this.userDetailsService = userDetailsService;
         this.authEntryPoint = authEntryPoint;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
@@ -46,6 +75,10 @@ public class SecurityConfig {
                 .antMatchers("/api/v1/orders/**").permitAll()
                 .antMatchers("/api/images/**").permitAll()
                 .antMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                // Health checks stay open for the load balancer and orchestrator probes
+                .antMatchers("/actuator/health/**").permitAll()
+                // Metrics expose traffic and pool internals, the scraper signs in with HTTP Basic
+                .antMatchers("/actuator/prometheus", "/actuator/metrics/**").hasAnyAuthority("ADMIN", "DEVELOPER")
 
                 // Role-based access control examples
 //                .antMatchers("/api/v1/admin/**").hasAuthority("ADMIN")
@@ -59,6 +92,14 @@ public class SecurityConfig {
         // Add JWT filter before UsernamePasswordAuthenticationFilter
         http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
 
+        // Throttle the public endpoints once the caller is known; not a bean so it only runs in this chain
+        if (rateLimitEnabled) {
+            http.addFilterAfter(new RateLimitFilter(rateLimitSlots, rateLimitCapacity, rateLimitRefillPerSecond,
+                    rateLimitGenerationPerToken, rateLimitBankCallCost,
+                    rateLimitTrustForwardedFor ? rateLimitTrustedProxies : 0, meterRegistry),
+                    JWTAuthenticationFilter.class);
+        }
+
         return http.build();
     }
 
@@ -68,9 +109,21 @@ public class SecurityConfig {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
+    /**
+     * BCrypt with a configurable cost, run on a bounded pool so login bursts cannot take every core.
+     * Raising the strength rehashes existing passwords on their next successful login.
+     */
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.strength:10}") int strength,
+            @Value("${app.security.password.threads:0}") int threads,
+            @Value("${app.security.password.queue-capacity:64}") int queueCapacity,
+            @Value("${app.security.password.timeout-ms:5000}") long timeoutMillis,
+            MeterRegistry meterRegistry) {
+        // Default to half the cores so generation and order endpoints keep CPU during a burst
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity,
+                timeoutMillis, meterRegistry);
     }
 
     @Bean
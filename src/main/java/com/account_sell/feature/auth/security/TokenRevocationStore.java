@@ -0,0 +1,140 @@
+package com.account_sell.feature.auth.security;
+
+import com.account_sell.feature.auth.models.RevokedTokenEntity;
+import com.account_sell.feature.auth.repository.RevokedTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Denylist of revoked token ids (jti).
+ * <p>
+ * Lookups hit an in-memory set only. Entries are also grouped into one-minute buckets by
+ * token expiry, so eviction drops whole buckets once their tokens could no longer be used
+ * anyway. Revocations are stored in the revoked_tokens table to survive restarts and are
+ * polled periodically so every instance sees logouts made on the others.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationStore {
+
+    private static final long BUCKET_MILLIS = 60_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final Set<String> revoked = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<String>> expiryBuckets = new ConcurrentHashMap<>();
+
+    // Created time of the newest revocation already loaded from the database
+    private volatile LocalDateTime lastSyncedAt = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Value("${jwt.revocation-sync-ms:10000}")
+    private long syncIntervalMs;
+
+    @PostConstruct
+    public void init() {
+        sync();
+        log.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    /**
+     * Check whether a token id has been revoked, without touching the database
+     */
+    public boolean isRevoked(String jti) {
+        return jti != null && revoked.contains(jti);
+    }
+
+    /**
+     * Revoke a token until it expires
+     * @param jti the token's id claim
+     * @param expiresAt the token's expiry
+     */
+    public void revoke(String jti, Date expiresAt) {
+        if (jti == null || isRevoked(jti)) {
+            return;
+        }
+        add(jti, expiresAt.getTime());
+
+        if (!revokedTokenRepository.existsByJti(jti)) {
+            RevokedTokenEntity entity = new RevokedTokenEntity();
+            entity.setJti(jti);
+            entity.setExpiresAt(LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault()));
+            revokedTokenRepository.save(entity);
+        }
+    }
+
+    /**
+     * Pick up revocations made by other instances.
+     * Created times come from each instance's own clock and rows become visible only when their
+     * transaction commits, so every poll re-reads a window of two sync intervals before the newest
+     * row already seen; rows read twice are ignored by the set.
+     * Runs every 10 seconds by default.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation-sync-ms:10000}")
+    public void sync() {
+        try {
+            LocalDateTime newest = lastSyncedAt;
+            LocalDateTime since = newest.minus(Duration.ofMillis(2 * syncIntervalMs));
+            for (RevokedTokenEntity entity : revokedTokenRepository.findByExpiresAtAfterAndCreatedAtAfter(LocalDateTime.now(), since)) {
+                if (!revoked.contains(entity.getJti())) {
+                    add(entity.getJti(), entity.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                }
+                if (entity.getCreatedAt().isAfter(newest)) {
+                    newest = entity.getCreatedAt();
+                }
+            }
+            lastSyncedAt = newest;
+        } catch (Exception e) {
+            log.error("Error syncing revoked tokens: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Drop revocations of tokens that have expired, in memory and in the database.
+     * Runs every minute.
+     */
+    @Scheduled(fixedDelay = BUCKET_MILLIS)
+    public void evictExpired() {
+        long currentBucket = Instant.now().toEpochMilli() / BUCKET_MILLIS;
+        int evicted = 0;
+        Iterator<Map.Entry<Long, Set<String>>> buckets = expiryBuckets.entrySet().iterator();
+        while (buckets.hasNext()) {
+            Map.Entry<Long, Set<String>> bucket = buckets.next();
+            if (bucket.getKey() < currentBucket) {
+                revoked.removeAll(bucket.getValue());
+                evicted += bucket.getValue().size();
+                buckets.remove();
+            }
+        }
+
+        try {
+            int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+            if (evicted > 0 || deleted > 0) {
+                log.debug("Evicted {} expired revocations from memory and {} from the database", evicted, deleted);
+            }
+        } catch (Exception e) {
+            log.error("Error deleting expired revoked tokens: {}", e.getMessage(), e);
+        }
+    }
+
+    private void add(String jti, long expiresAtMillis) {
+        // Bucket by expiry minute, a bucket is only dropped once that whole minute has passed
+        long bucket = expiresAtMillis / BUCKET_MILLIS;
+        expiryBuckets.computeIfAbsent(bucket, key -> ConcurrentHashMap.newKeySet()).add(jti);
+        revoked.add(jti);
+    }
+}
@@ -0,0 +1,103 @@
+package com.account_sell.feature.auth.security;
+
+import com.account_sell.enumation.StatusData;
+import com.account_sell.feature.auth.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the current token version of each user that has presented a token.
+ * A token is accepted only while its "ver" claim matches, so changing a user's
+ * password, status or name revokes their older tokens without a per-request query.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionCache {
+
+    // Unknown, deleted and inactive users: every token is rejected
+    private static final int REVOKED = -1;
+
+    private static final int REFRESH_BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Check whether a token version is still current for the user.
+     * Only the first check for a user after startup or a change reads the database.
+     * The load runs inside computeIfAbsent, so an invalidate of the same user waits for it
+     * and then removes the value it stored instead of being overwritten by a stale read.
+     */
+    public boolean isCurrent(String username, int tokenVersion) {
+        int current = versions.computeIfAbsent(username, this::loadOne);
+        return current != REVOKED && current == tokenVersion;
+    }
+
+    private Integer loadOne(String username) {
+        return load(Collections.singletonList(username)).getOrDefault(username, REVOKED);
+    }
+
+    /**
+     * Forget the cached version so the next request reloads it.
+     * Inside a transaction this happens after commit, so the reload sees the new value.
+     */
+    public void invalidate(String username) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versions.remove(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versions.remove(username);
+            }
+        });
+    }
+
+    /**
+     * Reload cached versions so changes made on other instances are picked up.
+     * Runs every 30 seconds by default.
+     */
+    @Scheduled(fixedDelayString = "${jwt.token-version-refresh-ms:30000}")
+    public void refresh() {
+        if (versions.isEmpty()) {
+            return;
+        }
+        try {
+            List<String> usernames = new ArrayList<>(versions.keySet());
+            for (int from = 0; from < usernames.size(); from += REFRESH_BATCH_SIZE) {
+                List<String> batch = usernames.subList(from, Math.min(from + REFRESH_BATCH_SIZE, usernames.size()));
+                Map<String, Integer> loaded = load(batch);
+                for (String username : batch) {
+                    // Entries invalidated meanwhile are left for the next request to load
+                    versions.computeIfPresent(username, (key, old) -> loaded.getOrDefault(key, REVOKED));
+                }
+            }
+            log.debug("Refreshed token versions for {} users", usernames.size());
+        } catch (Exception e) {
+            log.error("Error refreshing token versions: {}", e.getMessage(), e);
+        }
+    }
+
+    private Map<String, Integer> load(List<String> usernames) {
+        Map<String, Integer> loaded = new HashMap<>();
+        for (Object[] row : userRepository.findTokenStates(usernames)) {
+            StatusData status = (StatusData) row[1];
+            loaded.put((String) row[0], status == StatusData.ACTIVE ? (Integer) row[2] : REVOKED);
+        }
+        return loaded;
+    }
+}
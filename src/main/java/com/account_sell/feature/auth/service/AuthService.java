@@ -18,4 +18,7 @@ public interface AuthService {
     List<Map<String, Object>> getAvailableRoles();
 
     boolean validateToken();
+
+    // Revokes the given token until it expires; a token without an id revokes all of the user's tokens
+    void logout(String token);
 }
\ No newline at end of file
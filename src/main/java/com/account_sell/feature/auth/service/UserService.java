@@ -6,10 +6,13 @@ import com.account_sell.feature.auth.dto.request.ChangePasswordRequestDto;
 import com.account_sell.feature.auth.dto.request.UpdateUserRequestDto;
 import com.account_sell.feature.auth.dto.response.UserResponseDto;
 import com.account_sell.feature.auth.dto.response.AllUserResponseDto;
+import com.account_sell.feature.auth.dto.response.UserSearchResponseDto;
 
 public interface UserService {
     AllUserResponseDto getAllUser(int pageNo, int pageSize, String search, StatusData status);
 
+    UserSearchResponseDto searchUsers(Long cursor, int pageSize, String search, StatusData status);
+
     UserResponseDto getUserById(Long id);
 
     UserResponseDto getUserByToken();
@@ -5,6 +5,7 @@ import com.account_sell.enumation.StatusData;
 import com.account_sell.exceptions.error.BadRequestException;
 import com.account_sell.exceptions.error.DuplicateNameException;
 import com.account_sell.exceptions.error.NotFoundException;
+import com.account_sell.exceptions.error.TooManyRequestsException;
 import com.account_sell.exceptions.error.UnauthorizedException;
 import com.account_sell.feature.auth.dto.request.LoginRequestDto;
 import com.account_sell.feature.auth.dto.request.RegisterRequestDto;
@@ -16,15 +17,22 @@ import com.account_sell.feature.auth.models.UserEntity;
 import com.account_sell.feature.auth.repository.RoleRepository;
 import com.account_sell.feature.auth.repository.UserRepository;
 import com.account_sell.feature.auth.security.JWTGenerator;
+import com.account_sell.feature.auth.security.TokenRevocationStore;
+import com.account_sell.feature.auth.security.TokenVersionCache;
 import com.account_sell.feature.auth.service.AuthService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -43,6 +51,9 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JWTGenerator jwtGenerator;
     private final AuthMapper authMapper;
+    private final MeterRegistry meterRegistry;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final TokenVersionCache tokenVersionCache;
 
     @Override
     public AuthResponseDTO login(LoginRequestDto loginDto) {
@@ -62,7 +73,9 @@ public class AuthServiceImpl implements AuthService {
             throw new UnauthorizedException("Account is inactive. Please contact an administrator.");
         }
 
-        // Proceed with authentication
+        // Proceed with authentication, timing every attempt by outcome
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -70,16 +83,23 @@ public class AuthServiceImpl implements AuthService {
                             loginDto.getPassword()));
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String token = jwtGenerator.generateToken(authentication);
+            String token = jwtGenerator.generateToken(authentication, userEntity.getTokenVersion());
 
             UserResponseDto userDto = authMapper.userToUserResponseDto(userEntity);
 
             log.info("User {} logged in successfully", loginDto.getEmail());
-            
+            outcome = "success";
+
             return new AuthResponseDTO(token, userDto);
+        } catch (TooManyRequestsException e) {
+            outcome = "rejected";
+            log.warn("Login for user {} rejected: {}", loginDto.getEmail(), e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.warn("Authentication failed for user {}: {}", loginDto.getEmail(), e.getMessage());
             throw e; // Let the exception handler deal with this
+        } finally {
+            sample.stop(meterRegistry.timer("auth.login", "outcome", outcome));
         }
     }
 
@@ -121,6 +141,13 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public boolean validateToken() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        // No token, or an expired, revoked or outdated one
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            log.warn("Token validation failed: request is not authenticated");
+            return false;
+        }
+
         String username = auth.getName();
         log.info("Validating token for user: {}", username);
         
@@ -135,6 +162,29 @@ public class AuthServiceImpl implements AuthService {
         return true;
     }
 
+    @Override
+    @Transactional
+    public void logout(String token) {
+        Claims claims = jwtGenerator.getValidatedClaims(token);
+        if (claims.getId() != null) {
+            tokenRevocationStore.revoke(claims.getId(), claims.getExpiration());
+            log.info("Token revoked for user: {}", claims.getSubject());
+            return;
+        }
+
+        // Issued before tokens carried an id, so it cannot be denylisted on its own;
+        // a new token version ends it, together with the user's other sessions
+        UserEntity user = userRepository.findByUsername(claims.getSubject())
+                .orElseThrow(() -> {
+                    log.warn("Logout failed: user {} not found", claims.getSubject());
+                    return new BadRequestException("Token does not belong to a known user");
+                });
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
+        tokenVersionCache.invalidate(user.getUsername());
+        log.info("Token without an id, revoked every token of user: {}", user.getUsername());
+    }
+
     private UserResponseDto createUserInternal(RegisterRequestDto registerDto, String operationType) {
         // Check if email is already in use
         if (userRepository.existsByUsername(registerDto.getEmail())) {
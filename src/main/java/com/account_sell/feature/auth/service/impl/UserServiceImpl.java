@@ -8,9 +8,12 @@ import com.account_sell.feature.auth.dto.request.ChangePasswordRequestDto;
 import com.account_sell.feature.auth.dto.request.UpdateUserRequestDto;
 import com.account_sell.feature.auth.dto.response.UserResponseDto;
 import com.account_sell.feature.auth.dto.response.AllUserResponseDto;
+import com.account_sell.feature.auth.dto.response.UserSearchResponseDto;
 import com.account_sell.feature.auth.mapper.UserMapper;
 import com.account_sell.feature.auth.models.UserEntity;
 import com.account_sell.feature.auth.repository.UserRepository;
+import com.account_sell.feature.auth.repository.UserSearchRepository;
+import com.account_sell.feature.auth.security.TokenVersionCache;
 import com.account_sell.exceptions.error.NotFoundException;
 import com.account_sell.feature.auth.service.UserService;
 import com.account_sell.utils.SecurityUtils;
@@ -21,8 +24,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -31,12 +34,17 @@ import java.util.stream.Collectors;
 @Slf4j
 public class UserServiceImpl implements UserService {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
     private final SecurityUtils securityUtils;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final TokenVersionCache tokenVersionCache;
+    private final UserSearchRepository userSearchRepository;
 
     @Override
+    @Transactional(readOnly = true)
     public AllUserResponseDto getAllUser(int pageNo, int pageSize, String search, StatusData status) {
         log.info("Getting users with pageNo={}, pageSize={}", pageNo, pageSize);
         Pageable pageable = PageRequest.of(pageNo, pageSize);
@@ -71,6 +79,28 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public UserSearchResponseDto searchUsers(Long cursor, int pageSize, String search, StatusData status) {
+        int limit = Math.min(pageSize, MAX_SEARCH_PAGE_SIZE);
+        log.info("Searching users after cursor={}, pageSize={}, search='{}', status={}", cursor, limit, search, status);
+
+        // One extra row tells whether another page follows, without a count query
+        List<UserResponseDto> users = userSearchRepository.search(search, status, cursor, limit + 1);
+        boolean last = users.size() <= limit;
+        List<UserResponseDto> content = last ? users : users.subList(0, limit);
+
+        log.debug("Retrieved {} users, last page: {}", content.size(), last);
+
+        return UserSearchResponseDto.builder()
+                .content(content)
+                .pageSize(limit)
+                .nextCursor(last ? null : content.get(content.size() - 1).getId())
+                .last(last)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public UserResponseDto getUserById(Long id) {
         log.info("Getting user by id: {}", id);
         UserEntity user = userRepository.findById(id)
@@ -103,6 +133,7 @@ public class UserServiceImpl implements UserService {
         log.debug("Clearing roles for user: {}", user.getUsername());
         user.getRoles().clear();
         userRepository.deleteById(id);
+        tokenVersionCache.invalidate(user.getUsername());
         log.info("Successfully deleted user with id: {}", id);
         return userMapper.mapToDto(user);
     }
@@ -116,6 +147,8 @@ public class UserServiceImpl implements UserService {
                     return new NotFoundException("User id " + id + " not found");
                 });
 
+        String oldUsername = user.getUsername();
+
         // Only update email if provided in the request
         if (request.getEmail() != null) {
             // Check if email is being changed and is already in use by another user
@@ -125,7 +158,6 @@ public class UserServiceImpl implements UserService {
                 throw new DuplicateNameException("Email is already in use, please choose another one.");
             }
 
-            String oldUsername = user.getUsername();
             user.setUsername(request.getEmail());
             log.info("Updated username: {} -> {}", oldUsername, request.getEmail());
         }
@@ -137,7 +169,14 @@ public class UserServiceImpl implements UserService {
             log.info("Updated status: {} -> {}", oldStatus, request.getStatus());
         }
 
+        // Tokens carry the username and are only valid for active users, so revoke them on either change
+        if (!oldUsername.equals(user.getUsername()) || request.getStatus() != null) {
+            revokeTokens(user);
+        }
+
         UserEntity updated = userRepository.save(user);
+        tokenVersionCache.invalidate(oldUsername);
+        tokenVersionCache.invalidate(updated.getUsername());
         log.info("Successfully updated user with id: {}", id);
         return userMapper.mapToDto(updated);
     }
@@ -161,7 +200,9 @@ public class UserServiceImpl implements UserService {
 
         // Update the user's password
         user.setPassword(passwordEncoder.encode(requestDto.getNewPassword()));
+        revokeTokens(user);
         UserEntity userEntity = userRepository.save(user);
+        tokenVersionCache.invalidate(userEntity.getUsername());
         log.info("Password successfully changed for user: {}", user.getUsername());
         return userMapper.mapToDto(userEntity);
     }
@@ -181,8 +222,17 @@ public class UserServiceImpl implements UserService {
         }
 
         user.setPassword(passwordEncoder.encode(requestDto.getNewPassword()));
+        revokeTokens(user);
         UserEntity userEntity = userRepository.save(user);
+        tokenVersionCache.invalidate(userEntity.getUsername());
         log.info("Admin successfully changed password for user: {}", user.getUsername());
         return userMapper.mapToDto(userEntity);
     }
-}
\ No newline at end of file
+
+    /**
+     * Invalidates every token issued to the user before this change.
+     */
+    private void revokeTokens(UserEntity user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+    }
+}
@@ -11,14 +11,24 @@ import com.account_sell.feature.order.dto.response.OrderHistoryResponse;
 import com.account_sell.feature.order.dto.response.OrderListResponse;
 import com.account_sell.feature.order.dto.response.OrderResponse;
 import com.account_sell.feature.order.dto.response.ValidateAccountNumberResponse;
+import com.account_sell.feature.order.service.OrderExportService;
 import com.account_sell.feature.order.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -28,6 +38,7 @@ import javax.validation.Valid;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
 
     @PostMapping("/validate")
     public ResponseEntity<ApiResponse<ValidateAccountNumberResponse>> validateAccountNumber(
@@ -122,19 +133,31 @@ public class OrderController {
         );
     }
 
+    /**
+     * Searches order history, newest first.
+     * <p>
+     * Without {@code fromDate} only the last {@code app.order-history.query-window-months} months (from the
+     * start of the month) are searched, so the query touches only recent monthly partitions; pass
+     * {@code fromDate} for older history. The response carries the dates actually searched.
+     */
     @PostMapping("/history")
     public ResponseEntity<ApiResponse<OrderListResponse<OrderHistoryResponse>>> getOrderHistory(
             @RequestParam(value = "pageNo", defaultValue = "1") int pageNo,
             @RequestParam(value = "pageSize", defaultValue = "10") int pageSize,
             @RequestParam(value = "status", required = false) OrderStatus status,
-            @RequestParam(value = "search", required = false) String search) {
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
 
-        log.info("Received request to get order history - page: {}, size: {}, status: {}, search: '{}'", pageNo - 1, pageSize, status, search);
+        log.info("Received request to get order history - page: {}, size: {}, status: {}, search: '{}', from: {}, to: {}",
+                pageNo - 1, pageSize, status, search, fromDate, toDate);
 
         OrderFilterRequest filterRequest = new OrderFilterRequest();
         filterRequest.setPageNo(pageNo - 1);
         filterRequest.setPageSize(pageSize);
         filterRequest.setSearch(search);
+        filterRequest.setFromDate(fromDate);
+        filterRequest.setToDate(toDate);
 
         // Set status if provided
         if (status != null) {
@@ -171,4 +194,56 @@ public class OrderController {
                 "All orders not updated for 2 weeks have been moved to EXPIRED status"
         ));
     }
-}
\ No newline at end of file
+
+    /**
+     * Export orders as CSV (opens directly in Excel)
+     * Rows are streamed from a database cursor, so memory use does not grow with the export size
+     */
+    @PostMapping("/export/orders")
+    @RequiresRole(value = {"ADMIN", "DEVELOPER"}, anyRole = true)
+    public void exportOrders(
+            @RequestParam(value = "status", required = false) OrderStatus status,
+            @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            HttpServletResponse response) throws IOException {
+
+        log.info("Received request to export orders - status: {}, from: {}, to: {}", status, fromDate, toDate);
+
+        Writer writer = csvWriter(response, "orders");
+        long rows = orderExportService.exportOrders(status, fromDate, toDate, writer);
+        writer.flush();
+
+        log.info("Exported {} orders", rows);
+    }
+
+    /**
+     * Export order history as CSV (opens directly in Excel)
+     */
+    @PostMapping("/export/history")
+    @RequiresRole(value = {"ADMIN", "DEVELOPER"}, anyRole = true)
+    public void exportOrderHistory(
+            @RequestParam(value = "status", required = false) OrderStatus status,
+            @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            HttpServletResponse response) throws IOException {
+
+        log.info("Received request to export order history - status: {}, from: {}, to: {}", status, fromDate, toDate);
+
+        Writer writer = csvWriter(response, "order-history");
+        long rows = orderExportService.exportOrderHistory(status, fromDate, toDate, writer);
+        writer.flush();
+
+        log.info("Exported {} order history records", rows);
+    }
+
+    private Writer csvWriter(HttpServletResponse response, String name) throws IOException {
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "-" + LocalDate.now() + ".csv\"");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        // Byte order mark so Excel reads the file as UTF-8
+        writer.write('\uFEFF');
+        return writer;
+    }
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,4 +15,6 @@ public class OrderFilterRequest {
     private int pageSize = 10;
     private OrderStatus status;
     private String search;
+    private LocalDate fromDate;
+    private LocalDate toDate;
 }
\ No newline at end of file
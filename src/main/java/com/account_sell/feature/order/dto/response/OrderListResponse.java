@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Data
@@ -18,4 +19,7 @@ public class OrderListResponse<T> {
     private long totalElements;
     private int totalPages;
     private boolean last;
+    // Dates actually searched (both inclusive) when the list is bounded by date, otherwise null
+    private LocalDate fromDate;
+    private LocalDate toDate;
 }
\ No newline at end of file
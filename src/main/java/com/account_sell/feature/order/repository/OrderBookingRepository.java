@@ -0,0 +1,73 @@
+package com.account_sell.feature.order.repository;
+
+import com.account_sell.enumation.OrderStatus;
+import com.account_sell.feature.order.models.OrderEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Books an account number with a single statement.
+ * The insert relies on the partial unique index on account_number WHERE status = 'BOOKED',
+ * so concurrent bookings of the same number cannot both succeed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderBookingRepository {
+
+    // Inserts the order and its initial history row in one round trip, returns no row when the number is taken
+    private static final String BOOK_ORDER_SQL =
+            "WITH inserted AS (" +
+            "  INSERT INTO account_orders (account_number, price, customer_name, phone_number, id_number, " +
+            "    account_type, filter_type, status, created_at) " +
+            "  VALUES (:accountNumber, :price, :customerName, :phoneNumber, :idNumber, " +
+            "    :accountType, :filterType, :status, :createdAt) " +
+            // Only a clash on the partial index means the number is taken; other constraint violations still fail
+            "  ON CONFLICT (account_number) WHERE status = 'BOOKED' DO NOTHING " +
+            "  RETURNING id, created_at" +
+            "), history AS (" +
+            "  INSERT INTO order_history (order_id, old_status, new_status, remarks, created_at) " +
+            "  SELECT id, NULL, :status, :remarks, created_at FROM inserted" +
+            ") " +
+            "SELECT id FROM inserted";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the order with BOOKED status and records the initial history entry.
+     *
+     * @param order the order to book, its id and createdAt are filled in on success
+     * @param remarks remarks for the initial history entry
+     * @return the booked order, or empty if the account number is already booked
+     */
+    public Optional<OrderEntity> bookIfAvailable(OrderEntity order, String remarks) {
+        LocalDateTime createdAt = LocalDateTime.now();
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("accountNumber", order.getAccountNumber())
+                .addValue("price", order.getPrice())
+                .addValue("customerName", order.getCustomerName())
+                .addValue("phoneNumber", order.getPhoneNumber())
+                .addValue("idNumber", order.getIdNumber())
+                .addValue("accountType", order.getAccountType() != null ? order.getAccountType().name() : null)
+                .addValue("filterType", order.getFilterType() != null ? order.getFilterType().name() : null)
+                .addValue("status", OrderStatus.BOOKED.name())
+                .addValue("remarks", remarks)
+                .addValue("createdAt", createdAt);
+
+        List<Long> ids = jdbcTemplate.queryForList(BOOK_ORDER_SQL, params, Long.class);
+        if (ids.isEmpty()) {
+            return Optional.empty();
+        }
+
+        order.setId(ids.get(0));
+        order.setStatus(OrderStatus.BOOKED);
+        order.setCreatedAt(createdAt);
+        return Optional.of(order);
+    }
+}
@@ -9,13 +9,16 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface OrderHistoryRepository extends JpaRepository<OrderHistoryEntity, Long> {
     // Find history by order ID with pagination
     Page<OrderHistoryEntity> findByOrderIdOrderByCreatedAtDesc(Long orderId, Pageable pageable);
     
-    // Search history with status filter and search
+    // Search history with status filter and search, bounded by date so only matching partitions are scanned
     @Query("SELECT h FROM OrderHistoryEntity h WHERE " +
+           "h.createdAt >= :fromDate AND h.createdAt < :toDate AND " +
            "(:status IS NULL OR h.newStatus = :status) AND " +
            "(:search IS NULL OR :search = '' OR " +
            "LOWER(h.order.accountNumber) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -25,5 +28,7 @@ public interface OrderHistoryRepository extends JpaRepository<OrderHistoryEntity
     Page<OrderHistoryEntity> searchOrderHistory(
             @Param("status") OrderStatus status,
             @Param("search") String search,
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("toDate") LocalDateTime toDate,
             Pageable pageable);
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -43,4 +44,16 @@ public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
     List<OrderEntity> findOldOrdersByStatus(
             @Param("status") OrderStatus status,
             @Param("cutoffDate") LocalDateTime cutoffDate);
-}
\ No newline at end of file
+
+    // Aggregates used once to seed the statistics summary table
+    @Query("SELECT o.status, COUNT(o) FROM OrderEntity o GROUP BY o.status")
+    List<Object[]> countGroupByStatus();
+
+    @Query("SELECT o.accountType, o.price, COUNT(o), SUM(o.price) FROM OrderEntity o " +
+            "WHERE o.status IN :statuses GROUP BY o.accountType, o.price")
+    List<Object[]> sumPriceGroupByTypeAndPrice(@Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query(value = "SELECT CAST(created_at AS date), COUNT(*) FROM account_orders " +
+            "WHERE created_at >= :fromDate GROUP BY CAST(created_at AS date)", nativeQuery = true)
+    List<Object[]> countCreatedPerDaySince(@Param("fromDate") LocalDateTime fromDate);
+}
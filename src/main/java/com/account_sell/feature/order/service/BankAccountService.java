@@ -1,6 +1,9 @@
 package com.account_sell.feature.order.service;
 
 import com.account_sell.feature.order.dto.response.BankAccountInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -13,9 +16,16 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class BankAccountService {
 
+    private static final String OUTCOME_FOUND = "found";
+    private static final String OUTCOME_NOT_FOUND = "not_found";
+    private static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${bank.soap.url:http://192.168.127.31:7003/CPB.MB.TWS/services}")
     private String bankSoapUrl;
     
@@ -34,6 +44,8 @@ public class BankAccountService {
     public boolean validateBankAccount(String accountNumber) {
         log.info("Validating bank account number: {} with SOAP API", accountNumber);
         
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
         try {
             // Get the SOAP response
             String soapResponse = sendSoapRequest(accountNumber);
@@ -41,6 +53,7 @@ public class BankAccountService {
             // Check if the response contains account details or an error message
             boolean isValid = soapResponse.contains("<ns4:SHORTTITLE>") && 
                    !soapResponse.contains("No records were found that matched the selection criteria");
+            outcome = isValid ? OUTCOME_FOUND : OUTCOME_NOT_FOUND;
                    
             log.info("Account validation result for {}: {}", accountNumber, isValid ? "Valid" : "Invalid");
             return isValid;
@@ -48,6 +61,8 @@ public class BankAccountService {
         } catch (Exception e) {
             log.error("Error validating bank account {}: {}", accountNumber, e.getMessage(), e);
             return false;
+        } finally {
+            sample.stop(soapTimer("validate", outcome));
         }
     }
     
@@ -60,6 +75,8 @@ public class BankAccountService {
     public BankAccountInfo getAccountInfo(String accountNumber) {
         log.info("Getting bank account info for: {} with SOAP API", accountNumber);
         
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
         try {
             // Get the SOAP response
             String soapResponse = sendSoapRequest(accountNumber);
@@ -69,19 +86,36 @@ public class BankAccountService {
                    !soapResponse.contains("No records were found that matched the selection criteria");
                    
             if (!exists) {
+                outcome = OUTCOME_NOT_FOUND;
                 log.info("Account {} not found in bank system", accountNumber);
                 return null;
             }
             
             // Parse response to extract account information
-            return parseAccountInfoResponse(soapResponse);
+            BankAccountInfo info = parseAccountInfoResponse(soapResponse);
+            outcome = OUTCOME_FOUND;
+            return info;
             
         } catch (Exception e) {
             log.error("Error getting bank account info for {}: {}", accountNumber, e.getMessage(), e);
             return null;
+        } finally {
+            sample.stop(soapTimer("account_info", outcome));
         }
     }
     
+    /**
+     * Latency of bank SOAP calls by operation and outcome, with a histogram for percentiles
+     */
+    private Timer soapTimer(String operation, String outcome) {
+        return Timer.builder("bank.soap.requests")
+                .description("Bank SOAP API call latency")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     /**
      * Send SOAP request to bank API and get response
      */
@@ -0,0 +1,18 @@
+package com.account_sell.feature.order.service;
+
+import com.account_sell.enumation.OrderStatus;
+
+import java.io.Writer;
+import java.time.LocalDate;
+
+/**
+ * Streams orders and order history as CSV straight from a database cursor.
+ */
+public interface OrderExportService {
+
+    // Writes all orders, optionally filtered by status and creation date, returns the number of rows written
+    long exportOrders(OrderStatus status, LocalDate fromDate, LocalDate toDate, Writer writer);
+
+    // Writes all order history entries, optionally filtered by new status and date, returns the number of rows written
+    long exportOrderHistory(OrderStatus status, LocalDate fromDate, LocalDate toDate, Writer writer);
+}
@@ -0,0 +1,16 @@
+package com.account_sell.feature.order.service;
+
+/**
+ * Maintains the monthly range partitions of the order_history table.
+ */
+public interface OrderHistoryPartitionService {
+
+    // Converts a plain order_history table into a table partitioned by month of created_at
+    void ensurePartitionedTable();
+
+    // Creates partitions for the current month and the configured number of months ahead
+    void createUpcomingPartitions();
+
+    // Archives partitions that fall entirely outside the retention window, returns how many were archived
+    int archiveColdPartitions();
+}
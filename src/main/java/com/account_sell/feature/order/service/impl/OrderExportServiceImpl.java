@@ -0,0 +1,108 @@
+package com.account_sell.feature.order.service.impl;
+
+import com.account_sell.enumation.OrderStatus;
+import com.account_sell.feature.order.service.OrderExportService;
+import com.account_sell.utils.CsvUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@Slf4j
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final String ORDERS_SQL =
+            "SELECT o.id, o.account_number, o.account_type, o.filter_type, o.price, o.status, " +
+            "o.customer_name, o.phone_number, o.id_number, o.created_at, o.updated_at " +
+            "FROM account_orders o";
+
+    private static final String HISTORY_SQL =
+            "SELECT h.id, h.order_id, o.account_number, h.old_status, h.new_status, h.remarks, h.created_at " +
+            "FROM order_history h JOIN account_orders o ON o.id = h.order_id";
+
+    // Rows flushed to the client at a time so the response is sent in chunks while the cursor advances
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final JdbcTemplate cursorJdbcTemplate;
+
+    public OrderExportServiceImpl(DataSource dataSource,
+                                  @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        // The PostgreSQL driver only streams with a positive fetch size inside a transaction,
+        // otherwise it buffers the whole result set in memory
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportOrders(OrderStatus status, LocalDate fromDate, LocalDate toDate, Writer writer) {
+        List<Object> params = new ArrayList<>();
+        String sql = ORDERS_SQL + where("o.status", "o.created_at", status, fromDate, toDate, params) + " ORDER BY o.id";
+        return stream(sql, params, writer);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportOrderHistory(OrderStatus status, LocalDate fromDate, LocalDate toDate, Writer writer) {
+        List<Object> params = new ArrayList<>();
+        String sql = HISTORY_SQL + where("h.new_status", "h.created_at", status, fromDate, toDate, params) +
+                " ORDER BY h.created_at, h.id";
+        return stream(sql, params, writer);
+    }
+
+    private long stream(String sql, List<Object> params, Writer writer) {
+        Long rows = cursorJdbcTemplate.query(sql, (ResultSetExtractor<Long>) resultSet -> {
+            CsvUtil.writeSpreadsheetHeader(resultSet, writer);
+            long count = 0;
+            while (resultSet.next()) {
+                CsvUtil.writeSpreadsheetRow(resultSet, writer);
+                if (++count % FLUSH_EVERY_ROWS == 0) {
+                    flush(writer);
+                }
+            }
+            flush(writer);
+            return count;
+        }, params.toArray());
+
+        log.info("Exported {} rows", rows);
+        return rows != null ? rows : 0;
+    }
+
+    private void flush(Writer writer) {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String where(String statusColumn, String createdAtColumn, OrderStatus status,
+                         LocalDate fromDate, LocalDate toDate, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (status != null) {
+            conditions.add(statusColumn + " = ?");
+            params.add(status.name());
+        }
+        if (fromDate != null) {
+            conditions.add(createdAtColumn + " >= ?");
+            params.add(Timestamp.valueOf(fromDate.atStartOfDay()));
+        }
+        if (toDate != null) {
+            conditions.add(createdAtColumn + " < ?");
+            params.add(Timestamp.valueOf(toDate.plusDays(1).atStartOfDay()));
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+}
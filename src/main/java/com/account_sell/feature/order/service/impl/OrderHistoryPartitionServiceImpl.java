@@ -0,0 +1,213 @@
+package com.account_sell.feature.order.service.impl;
+
+import com.account_sell.feature.order.service.OrderHistoryPartitionService;
+import com.account_sell.utils.CsvUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderHistoryPartitionServiceImpl implements OrderHistoryPartitionService {
+
+    private static final String TABLE = "order_history";
+    private static final String LEGACY_TABLE = "order_history_legacy";
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARTITION_PREFIX + "(\\d{4})(\\d{2})");
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.order-history.partitioning.premake-months:2}")
+    private int premakeMonths;
+
+    @Value("${app.order-history.archive.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${app.order-history.archive.directory:archive/order_history}")
+    private String archiveDirectory;
+
+    @Value("${app.order-history.archive.tablespace:}")
+    private String archiveTablespace;
+
+    @Override
+    @Transactional
+    public void ensurePartitionedTable() {
+        if (isPartitioned()) {
+            log.debug("{} is already partitioned", TABLE);
+            return;
+        }
+
+        log.info("Converting {} into a monthly range-partitioned table", TABLE);
+
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + LEGACY_TABLE);
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " (LIKE " + LEGACY_TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS) " +
+                "PARTITION BY RANGE (created_at)");
+        // The partition key has to be part of the primary key
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD PRIMARY KEY (id, created_at)");
+
+        // Keep the foreign key names Hibernate generated so schema update does not add them again
+        List<String> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT 'ADD CONSTRAINT ' || quote_ident(conname) || ' ' || pg_get_constraintdef(oid) " +
+                        "FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'f'",
+                String.class, LEGACY_TABLE);
+        for (String foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " " + foreignKey);
+        }
+
+        // Create a partition for every month that already has history, plus the months ahead
+        LocalDate oldest = jdbcTemplate.queryForObject(
+                "SELECT CAST(MIN(created_at) AS date) FROM " + LEGACY_TABLE, LocalDate.class);
+        YearMonth from = oldest != null ? YearMonth.from(oldest) : YearMonth.now();
+        YearMonth to = YearMonth.now().plusMonths(premakeMonths);
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            createPartition(month);
+        }
+        // Rows outside every monthly range (clock skew, far-future dates) land here instead of failing the insert
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + "_default PARTITION OF " + TABLE + " DEFAULT");
+
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_order_history_created_at ON " + TABLE + " (created_at DESC)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_order_history_order_created ON " + TABLE + " (order_id, created_at DESC)");
+
+        int copied = jdbcTemplate.update("INSERT INTO " + TABLE + " SELECT * FROM " + LEGACY_TABLE);
+
+        // Hand the id sequence over to the new table before dropping the old one
+        String sequence = jdbcTemplate.queryForObject(
+                "SELECT pg_get_serial_sequence(?, 'id')", String.class, LEGACY_TABLE);
+        if (sequence != null) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " OWNED BY " + TABLE + ".id");
+        }
+        jdbcTemplate.execute("DROP TABLE " + LEGACY_TABLE);
+
+        log.info("{} converted to partitioned table, {} rows copied into partitions {} to {}",
+                TABLE, copied, from, to);
+    }
+
+    @Override
+    @Transactional
+    public void createUpcomingPartitions() {
+        if (!isPartitioned()) {
+            log.warn("{} is not partitioned, skipping partition creation", TABLE);
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= premakeMonths; i++) {
+            createPartition(current.plusMonths(i));
+        }
+    }
+
+    @Override
+    public int archiveColdPartitions() {
+        if (!isPartitioned()) {
+            log.warn("{} is not partitioned, skipping archival", TABLE);
+            return 0;
+        }
+
+        YearMonth oldestRetained = YearMonth.now().minusMonths(retentionMonths);
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = to_regclass(?) ORDER BY c.relname",
+                String.class, TABLE);
+
+        int archived = 0;
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(oldestRetained)) {
+                continue;
+            }
+
+            try {
+                archivePartition(partition);
+                archived++;
+            } catch (Exception e) {
+                log.error("Error archiving partition {}: {}", partition, e.getMessage(), e);
+            }
+        }
+
+        log.info("Archived {} order history partitions older than {}", archived, oldestRetained);
+        return archived;
+    }
+
+    private void archivePartition(String partition) {
+        if (!archiveTablespace.isEmpty()) {
+            if (!IDENTIFIER.matcher(archiveTablespace).matches()) {
+                throw new IllegalStateException("Invalid archive tablespace name: " + archiveTablespace);
+            }
+            // Keep the data queryable as a standalone table on the archive tablespace
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+            jdbcTemplate.execute("ALTER TABLE " + partition + " SET TABLESPACE " + archiveTablespace);
+            log.info("Detached partition {} and moved it to tablespace {}", partition, archiveTablespace);
+            return;
+        }
+
+        Path file = exportPartition(partition);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+        log.info("Exported partition {} to {} and dropped it", partition, file);
+    }
+
+    /**
+     * Writes every row of the partition to a gzip-compressed CSV file.
+     */
+    private Path exportPartition(String partition) {
+        try {
+            Path directory = Paths.get(archiveDirectory);
+            Files.createDirectories(directory);
+            Path file = directory.resolve(partition + ".csv.gz");
+
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8))) {
+                jdbcTemplate.query("SELECT * FROM " + partition + " ORDER BY id", resultSet -> {
+                    if (resultSet.getRow() == 1) {
+                        CsvUtil.writeHeader(resultSet, writer);
+                    }
+                    CsvUtil.writeRow(resultSet, writer);
+                });
+            }
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not export partition " + partition, e);
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = PARTITION_PREFIX + month.format(SUFFIX_FORMAT);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + TABLE +
+                " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = to_regclass(?)",
+                Integer.class, TABLE);
+        return count != null && count > 0;
+    }
+}
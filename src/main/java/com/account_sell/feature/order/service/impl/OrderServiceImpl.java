@@ -16,22 +16,27 @@ import com.account_sell.feature.order.dto.response.ValidateAccountNumberResponse
 import com.account_sell.feature.order.mapper.OrderMapper;
 import com.account_sell.feature.order.models.OrderEntity;
 import com.account_sell.feature.order.models.OrderHistoryEntity;
+import com.account_sell.feature.order.repository.OrderBookingRepository;
 import com.account_sell.feature.order.repository.OrderHistoryRepository;
 import com.account_sell.feature.order.repository.OrderRepository;
 import com.account_sell.feature.order.service.BankAccountService;
 import com.account_sell.feature.order.service.OrderService;
+import com.account_sell.feature.statistics.service.OrderStatisticsService;
 import com.account_sell.utils.PatternUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -42,8 +47,13 @@ public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
     private final OrderHistoryRepository orderHistoryRepository;
+    private final OrderBookingRepository orderBookingRepository;
     private final OrderMapper orderMapper;
     private final BankAccountService bankAccountService;
+    private final OrderStatisticsService orderStatisticsService;
+
+    @Value("${app.order-history.query-window-months:12}")
+    private int historyQueryWindowMonths;
 
     @Override
     public ValidateAccountNumberResponse validateAccountNumber(ValidateAccountNumberRequest request) {
@@ -64,6 +74,13 @@ public class OrderServiceImpl implements OrderService {
                     .build();
         }
 
+        return validateWithBank(accountNumber);
+    }
+
+    /**
+     * Checks the account number against the bank's system and prices it
+     */
+    private ValidateAccountNumberResponse validateWithBank(String accountNumber) {
         // Validate with bank's system via SOAP
         boolean existsInBankSystem = bankAccountService.validateBankAccount(accountNumber);
 
@@ -91,24 +108,23 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    @Transactional
     public OrderResponse createOrder(CreateOrderRequest request) {
         log.info("Creating order for account number: {}", request.getAccountNumber());
 
-        // Validate account number first
-        ValidateAccountNumberRequest validateRequest = new ValidateAccountNumberRequest(request.getAccountNumber());
-        ValidateAccountNumberResponse validation = validateAccountNumber(validateRequest);
+        // Cheap read to fail fast before the SOAP call; the booking insert below is the real guard
+        if (orderRepository.existsByAccountNumberAndStatus(request.getAccountNumber(), OrderStatus.BOOKED)) {
+            log.error("Account number already exists: {}", request.getAccountNumber());
+            throw new DuplicateNameException("Account number is already booked");
+        }
+
+        // Validate with the bank first, no database connection is held during the SOAP call
+        ValidateAccountNumberResponse validation = validateWithBank(request.getAccountNumber());
 
         if (!validation.isValid()) {
             log.error("Invalid account number format: {}", request.getAccountNumber());
             throw new BadRequestException("Invalid account number: " + validation.getMessage());
         }
 
-        if (!validation.isAvailable()) {
-            log.error("Account number already exists: {}", request.getAccountNumber());
-            throw new DuplicateNameException("Account number is already booked");
-        }
-
         // Create new order
         OrderEntity order = OrderEntity.builder()
                 .accountNumber(request.getAccountNumber())
@@ -121,26 +137,23 @@ public class OrderServiceImpl implements OrderService {
                 .status(OrderStatus.BOOKED)
                 .build();
 
-        // Save order
-        OrderEntity savedOrder = orderRepository.save(order);
-        log.info("Order created successfully with ID: {}", savedOrder.getId());
-
-        // Create initial history record
-        OrderHistoryEntity history = OrderHistoryEntity.builder()
-                .order(savedOrder)
-                .oldStatus(null)
-                .newStatus(OrderStatus.BOOKED)
-                .remarks("Initial order creation")
-                .build();
+        // Book the number and write the initial history in one atomic statement,
+        // the partial unique index decides the winner when several customers race for it
+        OrderEntity savedOrder = orderBookingRepository.bookIfAvailable(order, "Initial order creation")
+                .orElseThrow(() -> {
+                    log.error("Account number already exists: {}", request.getAccountNumber());
+                    return new DuplicateNameException("Account number is already booked");
+                });
+        log.info("Order created successfully with ID: {} and initial history recorded", savedOrder.getId());
 
-        orderHistoryRepository.save(history);
-        log.info("Initial order history created for order ID: {}", savedOrder.getId());
+        orderStatisticsService.recordOrderCreated(savedOrder);
 
         // Map to response
         return orderMapper.toOrderResponse(savedOrder);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long id) {
         log.info("Fetching order with ID: {}", id);
 
@@ -186,7 +199,15 @@ public class OrderServiceImpl implements OrderService {
         // Update order status
         OrderStatus oldStatus = order.getStatus();
         order.setStatus(request.getNewStatus());
-        OrderEntity updatedOrder = orderRepository.save(order);
+        OrderEntity updatedOrder;
+        try {
+            // Flush now so a second BOOKED order for the same number fails here rather than at commit
+            updatedOrder = orderRepository.saveAndFlush(order);
+        } catch (DataIntegrityViolationException e) {
+            log.error("Account number {} is already booked by another order", order.getAccountNumber());
+            throw new DuplicateNameException("Account number is already booked");
+        }
+        orderStatisticsService.recordStatusChange(updatedOrder, oldStatus, request.getNewStatus());
 
         log.info("Order status updated from {} to {} for order ID: {}",
                 oldStatus, request.getNewStatus(), id);
@@ -195,6 +216,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OrderListResponse<OrderResponse> getBookedOrders(OrderFilterRequest request) {
         log.info("Fetching BOOKED orders with filter - page: {}, size: {}, search: {}",
                 request.getPageNo(), request.getPageSize(), request.getSearch());
@@ -220,6 +242,7 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public OrderListResponse<OrderHistoryResponse> getOrderHistory(OrderFilterRequest request) {
         log.info("Fetching order history with filter - page: {}, size: {}, status: {}, search: {}",
                 request.getPageNo(), request.getPageSize(), request.getStatus(), request.getSearch());
@@ -227,12 +250,19 @@ public class OrderServiceImpl implements OrderService {
         // Create pageable (history is always sorted by createdAt DESC)
         Pageable pageable = PageRequest.of(request.getPageNo(), request.getPageSize());
 
-        Page<OrderHistoryEntity> historyPage;
-
+        // Always bound the date range so only the matching monthly partitions are scanned
+        LocalDateTime fromDate = request.getFromDate() != null
+                ? request.getFromDate().atStartOfDay()
+                : LocalDate.now().withDayOfMonth(1).minusMonths(historyQueryWindowMonths).atStartOfDay();
+        LocalDateTime toDate = request.getToDate() != null
+                ? request.getToDate().plusDays(1).atStartOfDay()
+                : LocalDate.now().plusDays(1).atStartOfDay();
 
-        historyPage = orderHistoryRepository.searchOrderHistory(
+        Page<OrderHistoryEntity> historyPage = orderHistoryRepository.searchOrderHistory(
                 request.getStatus(),
                 request.getSearch(),
+                fromDate,
+                toDate,
                 pageable);
 
 
@@ -241,7 +271,11 @@ public class OrderServiceImpl implements OrderService {
         // Convert to response
         List<OrderHistoryResponse> historyResponses = orderMapper.toOrderHistoryResponseList(historyPage.getContent());
 
-        return orderMapper.toListResponse(historyPage, historyResponses);
+        // Tell the caller which dates were searched, since a missing fromDate falls back to the query window
+        OrderListResponse<OrderHistoryResponse> response = orderMapper.toListResponse(historyPage, historyResponses);
+        response.setFromDate(fromDate.toLocalDate());
+        response.setToDate(toDate.toLocalDate().minusDays(1));
+        return response;
     }
 
     /**
@@ -278,6 +312,7 @@ public class OrderServiceImpl implements OrderService {
                 // Update order status to EXPIRED
                 order.setStatus(OrderStatus.EXPIRED);
                 orderRepository.save(order);
+                orderStatisticsService.recordStatusChange(order, OrderStatus.BOOKED, OrderStatus.EXPIRED);
 
                 log.info("Successfully expired order ID: {} for account number: {}",
                         order.getId(), order.getAccountNumber());
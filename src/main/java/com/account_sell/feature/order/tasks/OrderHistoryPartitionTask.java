@@ -0,0 +1,54 @@
+package com.account_sell.feature.order.tasks;
+
+import com.account_sell.feature.order.service.OrderHistoryPartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(prefix = "app.order-history.partitioning", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OrderHistoryPartitionTask {
+
+    private final OrderHistoryPartitionService partitionService;
+
+    @Value("${app.order-history.archive.enabled:true}")
+    private boolean archiveEnabled;
+
+    /**
+     * Make sure order_history is partitioned once Hibernate has created or updated the schema
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preparePartitions() {
+        try {
+            partitionService.ensurePartitionedTable();
+            partitionService.createUpcomingPartitions();
+        } catch (Exception e) {
+            log.error("Error preparing order history partitions: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Scheduled task to create upcoming monthly partitions and archive cold ones
+     * Runs at 01:30 AM every day
+     */
+    @Scheduled(cron = "${app.order-history.archive.cron:0 30 1 * * ?}")
+    public void maintainPartitions() {
+        log.info("Starting scheduled order history partition maintenance");
+        try {
+            partitionService.createUpcomingPartitions();
+            if (archiveEnabled) {
+                partitionService.archiveColdPartitions();
+            }
+            log.info("Order history partition maintenance completed successfully");
+        } catch (Exception e) {
+            log.error("Error during order history partition maintenance: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.account_sell.feature.pricing.controller;
+
+import com.account_sell.config.RequiresRole;
+import com.account_sell.exceptions.response.ApiResponse;
+import com.account_sell.feature.pricing.dto.request.ExplainPriceRequest;
+import com.account_sell.feature.pricing.dto.request.ExplainPricesRequest;
+import com.account_sell.feature.pricing.dto.response.PriceExplanationResponse;
+import com.account_sell.feature.pricing.dto.response.PricingRulesResponse;
+import com.account_sell.feature.pricing.service.PricingRuleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/pricing")
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class PricingController {
+
+    private final PricingRuleService pricingRuleService;
+
+    @PostMapping("/rules")
+    @RequiresRole(value = {"ADMIN", "DEVELOPER"}, anyRole = true)
+    public ApiResponse<PricingRulesResponse> getPricingRules() {
+        log.info("Received request to get pricing rules");
+
+        PricingRulesResponse response = pricingRuleService.getActiveRules();
+
+        return new ApiResponse<>("success", "Pricing rules retrieved successfully", response);
+    }
+
+    @PostMapping("/rules/reload")
+    @RequiresRole(value = {"ADMIN", "DEVELOPER"}, anyRole = true)
+    public ApiResponse<PricingRulesResponse> reloadPricingRules() {
+        log.info("Received request to reload pricing rules");
+
+        PricingRulesResponse response = pricingRuleService.reload();
+
+        log.info("Pricing rules reloaded from {}", response.getSource());
+
+        return new ApiResponse<>("success", "Pricing rules reloaded successfully", response);
+    }
+
+    /**
+     * Explain why an account number costs what it does: the deciding rule and the patterns found
+     */
+    @PostMapping("/explain")
+    @RequiresRole(value = {"ADMIN", "DEVELOPER"}, anyRole = true)
+    public ApiResponse<PriceExplanationResponse> explainPrice(@RequestBody @Valid ExplainPriceRequest request) {
+        log.info("Received request to explain price of account number: {}", request.getAccountNumber());
+
+        PriceExplanationResponse response = pricingRuleService.explain(request.getAccountNumber());
+
+        return new ApiResponse<>("success", "Price explained successfully", response);
+    }
+
+    @PostMapping("/explain/bulk")
+    @RequiresRole(value = {"ADMIN", "DEVELOPER"}, anyRole = true)
+    public ApiResponse<List<PriceExplanationResponse>> explainPrices(@RequestBody @Valid ExplainPricesRequest request) {
+        log.info("Received request to explain prices of {} account numbers", request.getAccountNumbers().size());
+
+        List<PriceExplanationResponse> response = pricingRuleService.explain(request.getAccountNumbers());
+
+        return new ApiResponse<>("success", "Prices explained successfully", response);
+    }
+}
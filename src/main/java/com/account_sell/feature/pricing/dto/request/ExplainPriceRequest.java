@@ -0,0 +1,17 @@
+package com.account_sell.feature.pricing.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExplainPriceRequest {
+    @NotBlank(message = "Account number is required")
+    @Pattern(regexp = "\\d{1,12}", message = "Account number must be 1 to 12 digits")
+    private String accountNumber;
+}
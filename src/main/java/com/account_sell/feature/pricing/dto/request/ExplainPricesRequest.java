@@ -0,0 +1,19 @@
+package com.account_sell.feature.pricing.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExplainPricesRequest {
+    @NotEmpty(message = "At least one account number is required")
+    @Size(max = 1000, message = "At most 1000 account numbers can be explained at once")
+    private List<@Pattern(regexp = "\\d{1,12}", message = "Account number must be 1 to 12 digits") String> accountNumbers;
+}
@@ -0,0 +1,56 @@
+package com.account_sell.feature.pricing.dto.response;
+
+import com.account_sell.enumation.PriceRange;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceExplanationResponse {
+    private String accountNumber;
+    // NONE when no rule matched and the default price applies
+    private String ruleId;
+    private PriceRange tier;
+    private double price;
+    private String priceRange;
+    private List<String> conditions;
+    private Features features;
+
+    /**
+     * What the pricing scan found in the number, positions are 0-based
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Features {
+        // Runs of 2 or more of the same digit
+        private List<Run> runs;
+        private int longestRun;
+        private int longestSequence;
+        private int sequenceStart;
+        private int pairChain;
+        // Null when there are no adjacent pairs
+        private Integer pairChainStart;
+        // Null when the number does not contain 168
+        private Integer position168;
+        // Aligned 3-digit groups (0 = digits 0-2) made of one repeated digit
+        private List<Integer> sameDigitGroups;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Run {
+        private int start;
+        private int length;
+        private int digit;
+    }
+}
@@ -0,0 +1,34 @@
+package com.account_sell.feature.pricing.dto.response;
+
+import com.account_sell.enumation.PriceRange;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PricingRulesResponse {
+    private String source;
+    private LocalDateTime loadedAt;
+    private Map<PriceRange, Double> tierPrices;
+    // In evaluation order, the last entry is the default for numbers matching no rule
+    private List<RuleDetails> rules;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RuleDetails {
+        private String id;
+        private PriceRange tier;
+        private double price;
+        private List<String> conditions;
+    }
+}
@@ -0,0 +1,22 @@
+package com.account_sell.feature.pricing.service;
+
+import com.account_sell.feature.pricing.dto.response.PriceExplanationResponse;
+import com.account_sell.feature.pricing.dto.response.PricingRulesResponse;
+
+import java.util.List;
+
+/**
+ * Loads the pricing rule file and swaps it into the static pricing utilities.
+ */
+public interface PricingRuleService {
+
+    PricingRulesResponse getActiveRules();
+
+    // Compile the rule file again and activate it; the current rules stay active if it is invalid
+    PricingRulesResponse reload();
+
+    // The rule deciding the price and the features found, from one scan of the number
+    PriceExplanationResponse explain(String accountNumber);
+
+    List<PriceExplanationResponse> explain(List<String> accountNumbers);
+}
@@ -0,0 +1,183 @@
+package com.account_sell.feature.pricing.service.impl;
+
+import com.account_sell.exceptions.error.BadRequestException;
+import com.account_sell.feature.pricing.dto.response.PriceExplanationResponse;
+import com.account_sell.feature.pricing.dto.response.PricingRulesResponse;
+import com.account_sell.feature.pricing.service.PricingRuleService;
+import com.account_sell.utils.PatternUtil;
+import com.account_sell.utils.pricing.DigitFeatures;
+import com.account_sell.utils.pricing.PricingRuleSet;
+import com.account_sell.utils.pricing.PricingRules;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PricingRuleServiceImpl implements PricingRuleService {
+
+    private final ResourceLoader resourceLoader;
+
+    @Value("${app.pricing.rules-location:classpath:" + PricingRules.DEFAULT_LOCATION + "}")
+    private String rulesLocation;
+
+    private volatile LocalDateTime loadedAt = LocalDateTime.now();
+    // Modification time of the file behind the active rules, 0 when it is not a plain file
+    private long lastModified;
+
+    @PostConstruct
+    public void init() {
+        // The bundled rules are active from class loading; a configured file replaces them at startup
+        try {
+            activate(load());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid pricing rules at " + rulesLocation + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public PricingRulesResponse getActiveRules() {
+        PricingRuleSet rules = PricingRules.active();
+        return PricingRulesResponse.builder()
+                .source(rules.getSource())
+                .loadedAt(loadedAt)
+                .tierPrices(rules.getTierPrices())
+                .rules(rules.getRules().stream()
+                        .map(rule -> PricingRulesResponse.RuleDetails.builder()
+                                .id(rule.getId())
+                                .tier(rule.getTier())
+                                .price(rule.getPrice())
+                                .conditions(rule.getConditions())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    @Override
+    public synchronized PricingRulesResponse reload() {
+        try {
+            activate(load());
+        } catch (IllegalArgumentException e) {
+            log.error("Pricing rules at {} are invalid, keeping the current rules: {}", rulesLocation, e.getMessage());
+            throw new BadRequestException("Pricing rules are invalid: " + e.getMessage());
+        }
+        return getActiveRules();
+    }
+
+    @Override
+    public PriceExplanationResponse explain(String accountNumber) {
+        return explain(PricingRules.active(), accountNumber);
+    }
+
+    @Override
+    public List<PriceExplanationResponse> explain(List<String> accountNumbers) {
+        // One rule set for the whole batch so a reload cannot mix two versions in one grid
+        PricingRuleSet rules = PricingRules.active();
+        List<PriceExplanationResponse> explanations = new ArrayList<>(accountNumbers.size());
+        for (String accountNumber : accountNumbers) {
+            explanations.add(explain(rules, accountNumber));
+        }
+        return explanations;
+    }
+
+    private PriceExplanationResponse explain(PricingRuleSet rules, String accountNumber) {
+        DigitFeatures features = DigitFeatures.of(accountNumber);
+        PricingRuleSet.Rule rule = rules.match(features);
+
+        List<PriceExplanationResponse.Run> runs = new ArrayList<>();
+        for (int run = 0; run < features.getRunCount(); run++) {
+            if (features.getRunLength(run) >= 2) {
+                runs.add(PriceExplanationResponse.Run.builder()
+                        .start(features.getRunStart(run))
+                        .length(features.getRunLength(run))
+                        .digit(features.getRunDigit(run))
+                        .build());
+            }
+        }
+        List<Integer> sameDigitGroups = new ArrayList<>();
+        for (int group = 0; group < features.getGroupCount(); group++) {
+            if (features.isSameDigitGroup(group)) {
+                sameDigitGroups.add(group);
+            }
+        }
+
+        return PriceExplanationResponse.builder()
+                .accountNumber(accountNumber)
+                .ruleId(rule.getId())
+                .tier(rule.getTier())
+                .price(rule.getPrice())
+                .priceRange(PatternUtil.getPriceRangeDescription(rule.getPrice()))
+                .conditions(rule.getConditions())
+                .features(PriceExplanationResponse.Features.builder()
+                        .runs(runs)
+                        .longestRun(features.getLongestRun())
+                        .longestSequence(features.getLongestSequence())
+                        .sequenceStart(features.getSequenceStart())
+                        .pairChain(features.getLongestPairChain())
+                        .pairChainStart(features.getPairChainStart() >= 0 ? features.getPairChainStart() : null)
+                        .position168(features.getPosition168() >= 0 ? features.getPosition168() : null)
+                        .sameDigitGroups(sameDigitGroups)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Reload the rule file when it has changed on disk.
+     * Runs every 10 seconds by default; classpath rules only change with a deployment.
+     */
+    @Scheduled(fixedDelayString = "${app.pricing.reload-check-ms:10000}")
+    public synchronized void reloadIfChanged() {
+        try {
+            Resource resource = resourceLoader.getResource(rulesLocation);
+            if (resource.isFile() && resource.lastModified() != lastModified) {
+                log.info("Pricing rules at {} changed, reloading", rulesLocation);
+                activate(load());
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("Pricing rules at {} are invalid, keeping the current rules: {}", rulesLocation, e.getMessage());
+            // Do not retry the same broken file every cycle
+            lastModified = modifiedTime(resourceLoader.getResource(rulesLocation));
+        } catch (Exception e) {
+            log.error("Error checking pricing rules: {}", e.getMessage(), e);
+        }
+    }
+
+    private PricingRuleSet load() {
+        Resource resource = resourceLoader.getResource(rulesLocation);
+        long modified = modifiedTime(resource);
+        try (InputStream input = resource.getInputStream()) {
+            PricingRuleSet rules = PricingRuleSet.load(input, rulesLocation);
+            lastModified = modified;
+            return rules;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read " + rulesLocation + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void activate(PricingRuleSet rules) {
+        PricingRules.activate(rules);
+        loadedAt = LocalDateTime.now();
+        log.info("Activated {} pricing rules from {}", rules.getRules().size() - 1, rules.getSource());
+    }
+
+    private static long modifiedTime(Resource resource) {
+        try {
+            return resource.isFile() ? resource.lastModified() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
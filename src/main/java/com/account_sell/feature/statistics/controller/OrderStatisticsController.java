@@ -0,0 +1,30 @@
+package com.account_sell.feature.statistics.controller;
+
+import com.account_sell.config.RequiresRole;
+import com.account_sell.exceptions.response.ApiResponse;
+import com.account_sell.feature.statistics.dto.response.OrderStatisticsResponse;
+import com.account_sell.feature.statistics.service.OrderStatisticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/statistics")
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatisticsController {
+
+    private final OrderStatisticsService orderStatisticsService;
+
+    @PostMapping("/orders")
+    @RequiresRole(value = {"ADMIN", "DEVELOPER"}, anyRole = true)
+    public ApiResponse<OrderStatisticsResponse> getOrderStatistics() {
+        log.info("Received request to get order statistics");
+
+        OrderStatisticsResponse response = orderStatisticsService.getStatistics();
+
+        return new ApiResponse<>("success", "Order statistics retrieved successfully", response);
+    }
+}
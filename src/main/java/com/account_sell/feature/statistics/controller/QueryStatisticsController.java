@@ -0,0 +1,42 @@
+package com.account_sell.feature.statistics.controller;
+
+import com.account_sell.config.RequiresRole;
+import com.account_sell.exceptions.response.ApiResponse;
+import com.account_sell.feature.statistics.dto.response.QueryStatisticsResponse;
+import com.account_sell.feature.statistics.service.QueryStatisticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin/statistics/queries")
+@RequiredArgsConstructor
+@Slf4j
+public class QueryStatisticsController {
+
+    private final QueryStatisticsService queryStatisticsService;
+
+    @PostMapping()
+    @RequiresRole(value = {"ADMIN", "DEVELOPER"}, anyRole = true)
+    public ApiResponse<QueryStatisticsResponse> getQueryStatistics(
+            @RequestParam(value = "limit", defaultValue = "50", required = false) int limit) {
+        log.info("Received request to get query statistics, limit: {}", limit);
+
+        QueryStatisticsResponse response = queryStatisticsService.getStatistics(limit <= 0 ? 50 : limit);
+
+        return new ApiResponse<>("success", "Query statistics retrieved successfully", response);
+    }
+
+    @PostMapping("/reset")
+    @RequiresRole(value = {"ADMIN", "DEVELOPER"}, anyRole = true)
+    public ApiResponse<Boolean> resetQueryStatistics() {
+        log.info("Received request to reset query statistics");
+
+        queryStatisticsService.reset();
+
+        return new ApiResponse<>("success", "Query statistics reset successfully", true);
+    }
+}
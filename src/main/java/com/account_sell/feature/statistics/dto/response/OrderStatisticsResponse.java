@@ -0,0 +1,39 @@
+package com.account_sell.feature.statistics.dto.response;
+
+import com.account_sell.enumation.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatisticsResponse {
+    private long totalOrders;
+    private Map<OrderStatus, Long> ordersByStatus;
+    private BigDecimal totalRevenue;
+    private List<RevenueBreakdown> revenueByPriceRange;
+    private List<RevenueBreakdown> revenueByAccountType;
+    private Map<LocalDate, Long> bookingsPerDay;
+    private double averageBookingsPerDay;
+    private LocalDateTime lastSyncedAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RevenueBreakdown {
+        private String key;
+        private String displayName;
+        private long orders;
+        private BigDecimal revenue;
+    }
+}
@@ -0,0 +1,50 @@
+package com.account_sell.feature.statistics.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryStatisticsResponse {
+    private LocalDateTime since;
+    private long totalStatements;
+    private long slowThresholdMs;
+    // Statement shapes ordered by total time spent, highest first
+    private List<StatementStatistics> statements;
+    // Most recent slow statements, newest first
+    private List<SlowQuery> slowQueries;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatementStatistics {
+        private String sql;
+        private long count;
+        private double totalMs;
+        private double meanMs;
+        private double maxMs;
+        private double p50Ms;
+        private double p95Ms;
+        private double p99Ms;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SlowQuery {
+        private String sql;
+        // Types of the bind parameters, never their values
+        private String parameterTypes;
+        private double durationMs;
+        private LocalDateTime executedAt;
+    }
+}
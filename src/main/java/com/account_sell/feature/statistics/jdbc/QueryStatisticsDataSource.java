@@ -0,0 +1,139 @@
+package com.account_sell.feature.statistics.jdbc;
+
+import com.account_sell.feature.statistics.service.QueryStatisticsService;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times every statement executed through the wrapped DataSource and reports it to {@link QueryStatisticsService}.
+ * <p>
+ * Connections and statements are wrapped in JDK proxies. Only execution is timed, not reading the result set,
+ * so streamed exports do not show up as slow queries. Bind parameters are tracked by type only.
+ */
+public class QueryStatisticsDataSource extends DelegatingDataSource {
+
+    private final QueryStatisticsService queryStatisticsService;
+
+    public QueryStatisticsDataSource(DataSource targetDataSource, QueryStatisticsService queryStatisticsService) {
+        super(targetDataSource);
+        this.queryStatisticsService = queryStatisticsService;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "createStatement":
+                    return wrapStatement(Statement.class, QueryStatisticsDataSource.invoke(target, method, args), null);
+                case "prepareStatement":
+                    return wrapStatement(PreparedStatement.class, QueryStatisticsDataSource.invoke(target, method, args), (String) args[0]);
+                case "prepareCall":
+                    return wrapStatement(CallableStatement.class, QueryStatisticsDataSource.invoke(target, method, args), (String) args[0]);
+                default:
+                    return QueryStatisticsDataSource.invoke(target, method, args);
+            }
+        }
+
+        private Object wrapStatement(Class<?> type, Object statement, String sql) {
+            return Proxy.newProxyInstance(QueryStatisticsDataSource.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(statement, sql == null ? null : queryStatisticsService.shapeOf(sql)));
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Object target;
+        // Known up front for prepared statements, taken from each execute call otherwise
+        private final String preparedShape;
+        private List<String> parameterTypes;
+
+        private StatementHandler(Object target, String preparedShape) {
+            this.target = target;
+            this.preparedShape = preparedShape;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String shape = preparedShape;
+                if (args != null && args.length > 0 && args[0] instanceof String) {
+                    shape = queryStatisticsService.shapeOf((String) args[0]);
+                }
+                long start = System.nanoTime();
+                try {
+                    return QueryStatisticsDataSource.invoke(target, method, args);
+                } finally {
+                    if (shape != null) {
+                        queryStatisticsService.record(shape, System.nanoTime() - start, parameterTypes);
+                    }
+                }
+            }
+            if (preparedShape != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                recordParameterType((Integer) args[0], name.equals("setNull") || args[1] == null
+                        ? "null" : args[1].getClass().getSimpleName());
+            } else if (name.equals("clearParameters")) {
+                parameterTypes = null;
+            } else if (name.equals("equals")) {
+                return proxy == args[0];
+            } else if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            return QueryStatisticsDataSource.invoke(target, method, args);
+        }
+
+        private void recordParameterType(int index, String type) {
+            if (parameterTypes == null) {
+                parameterTypes = new ArrayList<>();
+            }
+            while (parameterTypes.size() < index) {
+                parameterTypes.add("?");
+            }
+            parameterTypes.set(index - 1, type);
+        }
+    }
+}
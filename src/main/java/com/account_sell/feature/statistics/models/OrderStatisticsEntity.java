@@ -0,0 +1,26 @@
+package com.account_sell.feature.statistics.models;
+
+import com.account_sell.feature.auth.models.BaseEntity;
+import lombok.*;
+
+import javax.persistence.*;
+
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "order_statistics")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatisticsEntity extends BaseEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "stat_key", nullable = false, unique = true, length = 100)
+    private String statKey;
+
+    // Counts, or amounts in cents for revenue keys
+    @Column(name = "stat_value", nullable = false)
+    private long statValue;
+}
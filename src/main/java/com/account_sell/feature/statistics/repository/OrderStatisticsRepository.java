@@ -0,0 +1,35 @@
+package com.account_sell.feature.statistics.repository;
+
+import com.account_sell.feature.statistics.models.OrderStatisticsEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OrderStatisticsRepository extends JpaRepository<OrderStatisticsEntity, Long> {
+
+    Optional<OrderStatisticsEntity> findByStatKey(String statKey);
+
+    // Add a delta to a counter, creating it when missing
+    @Modifying
+    @Query(value = "INSERT INTO order_statistics (stat_key, stat_value, created_at) VALUES (:key, :delta, now()) " +
+            "ON CONFLICT (stat_key) DO UPDATE SET stat_value = order_statistics.stat_value + EXCLUDED.stat_value, " +
+            "updated_at = now()", nativeQuery = true)
+    void addToValue(@Param("key") String key, @Param("delta") long delta);
+
+    // Seed a counter only if no other instance has created it yet
+    @Modifying
+    @Query(value = "INSERT INTO order_statistics (stat_key, stat_value, created_at) VALUES (:key, :value, now()) " +
+            "ON CONFLICT (stat_key) DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(@Param("key") String key, @Param("value") long value);
+
+    // Drop per-day counters older than the given key (ISO dates compare lexically)
+    @Modifying
+    @Query(value = "DELETE FROM order_statistics WHERE stat_key LIKE :prefix || '%' AND stat_key < :cutoffKey",
+            nativeQuery = true)
+    int deleteOlderThan(@Param("prefix") String prefix, @Param("cutoffKey") String cutoffKey);
+}
@@ -0,0 +1,22 @@
+package com.account_sell.feature.statistics.service;
+
+import com.account_sell.enumation.OrderStatus;
+import com.account_sell.feature.order.models.OrderEntity;
+import com.account_sell.feature.statistics.dto.response.OrderStatisticsResponse;
+
+/**
+ * Keeps running order counters so dashboard statistics never scan the orders table.
+ */
+public interface OrderStatisticsService {
+
+    // Count a newly booked order once its transaction commits
+    void recordOrderCreated(OrderEntity order);
+
+    // Move an order between status (and revenue) buckets once its transaction commits
+    void recordStatusChange(OrderEntity order, OrderStatus oldStatus, OrderStatus newStatus);
+
+    OrderStatisticsResponse getStatistics();
+
+    // Persist local deltas to the summary table and pick up other instances' changes
+    void flush();
+}
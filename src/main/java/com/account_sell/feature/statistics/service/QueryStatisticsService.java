@@ -0,0 +1,22 @@
+package com.account_sell.feature.statistics.service;
+
+import com.account_sell.feature.statistics.dto.response.QueryStatisticsResponse;
+
+import java.util.List;
+
+/**
+ * Per-statement counts and latencies for every SQL statement the application runs,
+ * plus a ring buffer of the most recent slow statements.
+ */
+public interface QueryStatisticsService {
+
+    // The statement with literals and whitespace normalised, so executions of the same query share one entry
+    String shapeOf(String sql);
+
+    // Record one execution of a statement shape; parameterTypes may be null for plain statements
+    void record(String shape, long elapsedNanos, List<String> parameterTypes);
+
+    QueryStatisticsResponse getStatistics(int limit);
+
+    void reset();
+}
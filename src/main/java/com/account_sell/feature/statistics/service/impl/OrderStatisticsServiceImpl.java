@@ -0,0 +1,309 @@
+package com.account_sell.feature.statistics.service.impl;
+
+import com.account_sell.enumation.AccountType;
+import com.account_sell.enumation.OrderStatus;
+import com.account_sell.enumation.PriceRange;
+import com.account_sell.feature.order.models.OrderEntity;
+import com.account_sell.feature.order.repository.OrderRepository;
+import com.account_sell.feature.statistics.dto.response.OrderStatisticsResponse;
+import com.account_sell.feature.statistics.models.OrderStatisticsEntity;
+import com.account_sell.feature.statistics.repository.OrderStatisticsRepository;
+import com.account_sell.feature.statistics.service.OrderStatisticsService;
+import com.account_sell.utils.pricing.PricingRules;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order statistics kept as running counters.
+ * <p>
+ * Every order transition adds to local counters once its transaction commits. A scheduled
+ * flush adds those deltas to the order_statistics table and reloads the table as the new baseline,
+ * so several instances can share the same totals. Reads combine baseline and local deltas and never
+ * touch the orders table; it is scanned only once, to seed an empty summary table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatisticsServiceImpl implements OrderStatisticsService {
+
+    // Orders in these statuses count as sold
+    private static final Set<OrderStatus> REVENUE_STATUSES = EnumSet.of(OrderStatus.ACCEPTED, OrderStatus.COMPLETED);
+
+    private static final String STATUS_PREFIX = "status.";
+    private static final String RANGE_PREFIX = "range.";
+    private static final String TYPE_PREFIX = "type.";
+    private static final String BOOKINGS_PREFIX = "bookings.";
+    private static final String ORDERS_SUFFIX = ".orders";
+    private static final String REVENUE_SUFFIX = ".revenue";
+    private static final String BOOTSTRAP_KEY = "meta.bootstrapped";
+
+    private final OrderStatisticsRepository statisticsRepository;
+    private final OrderRepository orderRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.statistics.daily-window-days:30}")
+    private int dailyWindowDays;
+
+    // Deltas recorded locally since the last flush; getAndSet hands them over without losing concurrent adds
+    private final Map<String, AtomicLong> pending = new ConcurrentHashMap<>();
+
+    // Guards baseline swaps so readers never see flushed deltas counted twice or not at all
+    private final Object flushLock = new Object();
+    private Map<String, Long> baseline = Collections.emptyMap();
+    private LocalDateTime lastSyncedAt;
+
+    @PostConstruct
+    public void init() {
+        // Runs before the web server starts, so no order can slip between the seed scan and live counting
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!statisticsRepository.findByStatKey(BOOTSTRAP_KEY).isPresent()) {
+                bootstrap();
+            }
+            synchronized (flushLock) {
+                baseline = loadBaseline();
+                lastSyncedAt = LocalDateTime.now();
+            }
+        });
+        log.info("Order statistics loaded with {} counters", baseline.size());
+    }
+
+    @Override
+    public void recordOrderCreated(OrderEntity order) {
+        afterCommit(() -> {
+            applyTransition(order, null, OrderStatus.BOOKED);
+            LocalDate day = order.getCreatedAt() != null ? order.getCreatedAt().toLocalDate() : LocalDate.now();
+            add(BOOKINGS_PREFIX + day, 1);
+        });
+    }
+
+    @Override
+    public void recordStatusChange(OrderEntity order, OrderStatus oldStatus, OrderStatus newStatus) {
+        afterCommit(() -> applyTransition(order, oldStatus, newStatus));
+    }
+
+    @Override
+    public OrderStatisticsResponse getStatistics() {
+        synchronized (flushLock) {
+            Map<OrderStatus, Long> byStatus = new EnumMap<>(OrderStatus.class);
+            long totalOrders = 0;
+            for (OrderStatus status : OrderStatus.values()) {
+                long count = value(STATUS_PREFIX + status);
+                byStatus.put(status, count);
+                totalOrders += count;
+            }
+
+            List<OrderStatisticsResponse.RevenueBreakdown> byRange = new ArrayList<>();
+            long totalRevenueCents = 0;
+            for (PriceRange range : PriceRange.values()) {
+                OrderStatisticsResponse.RevenueBreakdown breakdown =
+                        breakdown(RANGE_PREFIX + range, range.name(), range.getRangeDescription());
+                byRange.add(breakdown);
+                totalRevenueCents += value(RANGE_PREFIX + range + REVENUE_SUFFIX);
+            }
+
+            List<OrderStatisticsResponse.RevenueBreakdown> byType = new ArrayList<>();
+            for (AccountType type : AccountType.values()) {
+                byType.add(breakdown(TYPE_PREFIX + type, type.name(), type.getDisplayName()));
+            }
+
+            Map<LocalDate, Long> perDay = new LinkedHashMap<>();
+            long windowBookings = 0;
+            LocalDate today = LocalDate.now();
+            for (int i = dailyWindowDays - 1; i >= 0; i--) {
+                LocalDate day = today.minusDays(i);
+                long count = value(BOOKINGS_PREFIX + day);
+                perDay.put(day, count);
+                windowBookings += count;
+            }
+
+            return OrderStatisticsResponse.builder()
+                    .totalOrders(totalOrders)
+                    .ordersByStatus(byStatus)
+                    .totalRevenue(fromCents(totalRevenueCents))
+                    .revenueByPriceRange(byRange)
+                    .revenueByAccountType(byType)
+                    .bookingsPerDay(perDay)
+                    .averageBookingsPerDay(dailyWindowDays > 0 ? (double) windowBookings / dailyWindowDays : 0)
+                    .lastSyncedAt(lastSyncedAt)
+                    .build();
+        }
+    }
+
+    /**
+     * Scheduled task to push local deltas to the summary table
+     * Runs every minute by default
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.flush-interval-ms:60000}")
+    @Override
+    public void flush() {
+        synchronized (flushLock) {
+            Map<String, Long> deltas = new HashMap<>();
+            for (Map.Entry<String, AtomicLong> entry : pending.entrySet()) {
+                long delta = entry.getValue().getAndSet(0);
+                if (delta != 0) {
+                    deltas.put(entry.getKey(), delta);
+                }
+            }
+
+            String cutoffKey = BOOKINGS_PREFIX + LocalDate.now().minusDays(dailyWindowDays);
+            try {
+                baseline = new TransactionTemplate(transactionManager).execute(status -> {
+                    for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+                        statisticsRepository.addToValue(delta.getKey(), delta.getValue());
+                    }
+                    statisticsRepository.deleteOlderThan(BOOKINGS_PREFIX, cutoffKey);
+                    return loadBaseline();
+                });
+                lastSyncedAt = LocalDateTime.now();
+                log.debug("Flushed {} order statistics deltas", deltas.size());
+            } catch (Exception e) {
+                // Put the deltas back so the next flush retries them
+                deltas.forEach(this::add);
+                log.error("Error flushing order statistics: {}", e.getMessage(), e);
+            }
+
+            // Forget local day counters that fell out of the window
+            pending.keySet().removeIf(key -> key.startsWith(BOOKINGS_PREFIX) && key.compareTo(cutoffKey) < 0);
+        }
+    }
+
+    private void applyTransition(OrderEntity order, OrderStatus oldStatus, OrderStatus newStatus) {
+        if (oldStatus != null) {
+            add(STATUS_PREFIX + oldStatus, -1);
+        }
+        add(STATUS_PREFIX + newStatus, 1);
+
+        boolean wasSold = oldStatus != null && REVENUE_STATUSES.contains(oldStatus);
+        boolean isSold = REVENUE_STATUSES.contains(newStatus);
+        if (wasSold != isSold) {
+            long sign = isSold ? 1 : -1;
+            long cents = toCents(order.getPrice());
+            String rangeKey = RANGE_PREFIX + priceRange(order.getPrice());
+            String typeKey = TYPE_PREFIX + accountType(order.getAccountType());
+            add(rangeKey + ORDERS_SUFFIX, sign);
+            add(rangeKey + REVENUE_SUFFIX, sign * cents);
+            add(typeKey + ORDERS_SUFFIX, sign);
+            add(typeKey + REVENUE_SUFFIX, sign * cents);
+        }
+    }
+
+    /**
+     * Seeds the summary table from the orders table. Inserts are no-ops for keys another
+     * instance has already seeded.
+     */
+    private void bootstrap() {
+        log.info("Seeding order statistics from account_orders");
+        Map<String, Long> seed = new HashMap<>();
+
+        for (Object[] row : orderRepository.countGroupByStatus()) {
+            seed.merge(STATUS_PREFIX + row[0], ((Number) row[1]).longValue(), Long::sum);
+        }
+
+        for (Object[] row : orderRepository.sumPriceGroupByTypeAndPrice(REVENUE_STATUSES)) {
+            BigDecimal price = (BigDecimal) row[1];
+            long orders = ((Number) row[2]).longValue();
+            long cents = toCents((BigDecimal) row[3]);
+            String rangeKey = RANGE_PREFIX + priceRange(price);
+            String typeKey = TYPE_PREFIX + accountType((AccountType) row[0]);
+            seed.merge(rangeKey + ORDERS_SUFFIX, orders, Long::sum);
+            seed.merge(rangeKey + REVENUE_SUFFIX, cents, Long::sum);
+            seed.merge(typeKey + ORDERS_SUFFIX, orders, Long::sum);
+            seed.merge(typeKey + REVENUE_SUFFIX, cents, Long::sum);
+        }
+
+        LocalDateTime from = LocalDate.now().minusDays(dailyWindowDays).atStartOfDay();
+        for (Object[] row : orderRepository.countCreatedPerDaySince(from)) {
+            seed.merge(BOOKINGS_PREFIX + ((Date) row[0]).toLocalDate(), ((Number) row[1]).longValue(), Long::sum);
+        }
+
+        seed.forEach(statisticsRepository::insertIfAbsent);
+        statisticsRepository.insertIfAbsent(BOOTSTRAP_KEY, 1);
+        log.info("Seeded {} order statistics counters", seed.size());
+    }
+
+    private Map<String, Long> loadBaseline() {
+        Map<String, Long> values = new HashMap<>();
+        for (OrderStatisticsEntity entity : statisticsRepository.findAll()) {
+            values.put(entity.getStatKey(), entity.getStatValue());
+        }
+        return values;
+    }
+
+    private OrderStatisticsResponse.RevenueBreakdown breakdown(String prefix, String key, String displayName) {
+        return OrderStatisticsResponse.RevenueBreakdown.builder()
+                .key(key)
+                .displayName(displayName)
+                .orders(value(prefix + ORDERS_SUFFIX))
+                .revenue(fromCents(value(prefix + REVENUE_SUFFIX)))
+                .build();
+    }
+
+    private long value(String key) {
+        AtomicLong delta = pending.get(key);
+        return baseline.getOrDefault(key, 0L) + (delta != null ? delta.get() : 0);
+    }
+
+    private void add(String key, long delta) {
+        pending.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    // Counters must only move for committed changes, a rolled back order never happened
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * The tier a price belongs to under the active rules, falling back to the built-in tier prices for
+     * orders priced before the rules changed
+     */
+    private static PriceRange priceRange(BigDecimal price) {
+        double value = price != null ? price.doubleValue() : 0;
+        PriceRange tier = PricingRules.active().tierOf(value);
+        return tier != null ? tier : PriceRange.fromPrice(value);
+    }
+
+    private static AccountType accountType(AccountType type) {
+        return type != null ? type : AccountType.NORMAL;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount != null ? amount.movePointRight(2).longValue() : 0;
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
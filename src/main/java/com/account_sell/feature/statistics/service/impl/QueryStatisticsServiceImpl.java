@@ -0,0 +1,228 @@
+package com.account_sell.feature.statistics.service.impl;
+
+import com.account_sell.feature.statistics.dto.response.QueryStatisticsResponse;
+import com.account_sell.feature.statistics.service.QueryStatisticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory statement statistics.
+ * <p>
+ * Latencies go into a fixed histogram per statement shape (buckets growing by a factor of sqrt 2
+ * from 50 microseconds), so percentiles cost no allocation on the hot path. The number of shapes is
+ * capped; once full, new shapes are counted together under {@link #OTHER_SHAPE}. Slow statements are
+ * kept in a ring buffer that overwrites the oldest entry.
+ */
+@Service
+@Slf4j
+public class QueryStatisticsServiceImpl implements QueryStatisticsService {
+
+    private static final String OTHER_SHAPE = "(other statements)";
+
+    private static final int BUCKETS = 48;
+    private static final double FIRST_BUCKET_NANOS = 50_000;
+    private static final double BUCKET_GROWTH = Math.sqrt(2);
+    private static final long[] BUCKET_UPPER_NANOS = new long[BUCKETS];
+
+    static {
+        double bound = FIRST_BUCKET_NANOS;
+        for (int i = 0; i < BUCKETS; i++) {
+            BUCKET_UPPER_NANOS[i] = (long) bound;
+            bound *= BUCKET_GROWTH;
+        }
+    }
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Value("${app.sql-stats.slow-threshold-ms:200}")
+    private long slowThresholdMs;
+
+    @Value("${app.sql-stats.slow-log-size:100}")
+    private int slowLogSize;
+
+    @Value("${app.sql-stats.max-statements:1000}")
+    private int maxStatements;
+
+    private final Map<String, String> shapeCache = new ConcurrentHashMap<>();
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+
+    private long slowThresholdNanos;
+    private AtomicReferenceArray<QueryStatisticsResponse.SlowQuery> slowQueries;
+    private final AtomicLong slowQueryCursor = new AtomicLong();
+    private volatile LocalDateTime since = LocalDateTime.now();
+
+    @PostConstruct
+    public void init() {
+        slowThresholdNanos = slowThresholdMs * 1_000_000;
+        slowQueries = new AtomicReferenceArray<>(Math.max(1, slowLogSize));
+    }
+
+    @Override
+    public String shapeOf(String sql) {
+        String shape = shapeCache.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            // Statements with inlined literals would grow the cache without bound
+            if (shapeCache.size() < maxStatements * 2) {
+                shapeCache.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    @Override
+    public void record(String shape, long elapsedNanos, List<String> parameterTypes) {
+        StatementStats stats = statements.get(shape);
+        if (stats == null) {
+            stats = statements.size() < maxStatements
+                    ? statements.computeIfAbsent(shape, key -> new StatementStats())
+                    : statements.computeIfAbsent(OTHER_SHAPE, key -> new StatementStats());
+        }
+        stats.add(elapsedNanos);
+
+        if (elapsedNanos >= slowThresholdNanos) {
+            int slot = (int) (slowQueryCursor.getAndIncrement() % slowQueries.length());
+            slowQueries.set(slot, QueryStatisticsResponse.SlowQuery.builder()
+                    .sql(shape)
+                    .parameterTypes(parameterTypes == null ? null : String.join(", ", parameterTypes))
+                    .durationMs(toMillis(elapsedNanos))
+                    .executedAt(LocalDateTime.now())
+                    .build());
+            log.debug("Slow statement ({} ms): {}", elapsedNanos / 1_000_000, shape);
+        }
+    }
+
+    @Override
+    public QueryStatisticsResponse getStatistics(int limit) {
+        List<QueryStatisticsResponse.StatementStatistics> top = statements.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingDouble(QueryStatisticsResponse.StatementStatistics::getTotalMs).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+
+        List<QueryStatisticsResponse.SlowQuery> slow = new ArrayList<>();
+        long cursor = slowQueryCursor.get();
+        for (long i = cursor - 1; i >= 0 && i >= cursor - slowQueries.length(); i--) {
+            QueryStatisticsResponse.SlowQuery query = slowQueries.get((int) (i % slowQueries.length()));
+            if (query != null) {
+                slow.add(query);
+            }
+        }
+
+        long total = 0;
+        for (StatementStats stats : statements.values()) {
+            total += stats.count.sum();
+        }
+
+        return QueryStatisticsResponse.builder()
+                .since(since)
+                .totalStatements(total)
+                .slowThresholdMs(slowThresholdMs)
+                .statements(top)
+                .slowQueries(slow)
+                .build();
+    }
+
+    @Override
+    public void reset() {
+        statements.clear();
+        for (int i = 0; i < slowQueries.length(); i++) {
+            slowQueries.set(i, null);
+        }
+        slowQueryCursor.set(0);
+        since = LocalDateTime.now();
+        log.info("Query statistics reset");
+    }
+
+    private static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        // IN lists of any length share one shape
+        return PARAMETER_LIST.matcher(shape).replaceAll("(?...)");
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static final class StatementStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        private void add(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            histogram.incrementAndGet(bucketOf(nanos));
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        private QueryStatisticsResponse.StatementStatistics snapshot(String sql) {
+            long[] buckets = new long[BUCKETS];
+            long counted = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = histogram.get(i);
+                counted += buckets[i];
+            }
+            long n = count.sum();
+            long total = totalNanos.sum();
+            return QueryStatisticsResponse.StatementStatistics.builder()
+                    .sql(sql)
+                    .count(n)
+                    .totalMs(toMillis(total))
+                    .meanMs(n == 0 ? 0 : toMillis(total / n))
+                    .maxMs(toMillis(maxNanos.get()))
+                    .p50Ms(toMillis(percentile(buckets, counted, 0.50)))
+                    .p95Ms(toMillis(percentile(buckets, counted, 0.95)))
+                    .p99Ms(toMillis(percentile(buckets, counted, 0.99)))
+                    .build();
+        }
+
+        // Upper bound of the bucket holding the percentile, so the value is never understated
+        private static long percentile(long[] buckets, long counted, double percentile) {
+            if (counted == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * counted);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return BUCKET_UPPER_NANOS[i];
+                }
+            }
+            return BUCKET_UPPER_NANOS[BUCKETS - 1];
+        }
+
+        private static int bucketOf(long nanos) {
+            if (nanos <= FIRST_BUCKET_NANOS) {
+                return 0;
+            }
+            int bucket = (int) Math.ceil(Math.log(nanos / FIRST_BUCKET_NANOS) / Math.log(BUCKET_GROWTH));
+            return Math.min(bucket, BUCKETS - 1);
+        }
+    }
+}
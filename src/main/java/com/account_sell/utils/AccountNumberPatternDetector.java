@@ -1,17 +1,22 @@
 package com.account_sell.utils;
 
+import com.account_sell.utils.pricing.DigitChunks;
 import lombok.experimental.UtilityClass;
 
-import java.util.regex.Pattern;
-
 @UtilityClass
 public class AccountNumberPatternDetector {
 
     // Detect patterns in account numbers (helper methods for PatternUtil)
-    
+
+    // Score for the longest run of one digit, and for the longest ascending/descending sequence, by length
+    private static final int[] RUN_SCORE = {0, 0, 0, 2, 4, 6, 7, 8, 9, 10};
+    private static final int[] SEQUENCE_SCORE = {0, 0, 0, 2, 2, 4, 4, 6, 6, 8};
+    private static final int LUCKY_SCORE = 3;
+    private static final int MAX_SCORE = 10;
+
     /**
      * Detects if the account number has repeating consecutive digits
-     * 
+     *
      * @param accountNumber the account number to check
      * @param repetitions the number of consecutive repetitions to look for
      * @return true if the pattern is found
@@ -20,15 +25,25 @@ public class AccountNumberPatternDetector {
         if (accountNumber == null || accountNumber.length() < repetitions) {
             return false;
         }
-        
-        // Create regex pattern for N consecutive identical digits
-        String regex = "(\\d)\\1{" + (repetitions - 1) + "}";
-        return Pattern.compile(regex).matcher(accountNumber).find();
+
+        int length = 0;
+        for (int i = 0; i < accountNumber.length(); i++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                length = 0;
+                continue;
+            }
+            length = length > 0 && c == accountNumber.charAt(i - 1) ? length + 1 : 1;
+            if (length >= repetitions) {
+                return true;
+            }
+        }
+        return false;
     }
-    
+
     /**
      * Detects if the account number has sequential digits
-     * 
+     *
      * @param accountNumber the account number to check
      * @param length the length of the sequence to look for
      * @return true if a sequential pattern is found
@@ -37,7 +52,7 @@ public class AccountNumberPatternDetector {
         if (accountNumber == null || accountNumber.length() < length) {
             return false;
         }
-        
+
         // Check for ascending sequences like "123", "234", etc.
         for (int i = 0; i <= accountNumber.length() - length; i++) {
             boolean isAscending = true;
@@ -49,7 +64,7 @@ public class AccountNumberPatternDetector {
             }
             if (isAscending) return true;
         }
-        
+
         // Check for descending sequences like "987", "876", etc.
         for (int i = 0; i <= accountNumber.length() - length; i++) {
             boolean isDescending = true;
@@ -61,31 +76,61 @@ public class AccountNumberPatternDetector {
             }
             if (isDescending) return true;
         }
-        
+
         return false;
     }
-    
+
     /**
      * Detects if the account number contains specific lucky number patterns
-     * 
+     *
      * @param accountNumber the account number to check
      * @return true if a lucky pattern is found
      */
     public boolean hasLuckyPattern(String accountNumber) {
-        return accountNumber.contains("168") || 
-               accountNumber.contains("888") || 
+        return accountNumber.contains("168") ||
+               accountNumber.contains("888") ||
                accountNumber.contains("999");
     }
-    
+
     /**
      * Calculates a rarity score for the account number from 1-10
-     * 
+     * <p>
+     * Numbers of up to 9 digits are scored from the chunk tables, anything else with the predicates above.
+     *
      * @param accountNumber the account number to check
      * @return a rarity score from 1-10
      */
     public int calculateRarityScore(String accountNumber) {
+        int length = accountNumber.length();
+        if (length == 0 || length > 9) {
+            return calculateRarityScoreByScan(accountNumber);
+        }
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return calculateRarityScoreByScan(accountNumber);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return calculateRarityScore(value, length);
+    }
+
+    /**
+     * Rarity of a number given as an int, zero-padded to {@code width} digits (at most 9),
+     * from the 3-digit chunk tables in {@link DigitChunks}
+     */
+    public int calculateRarityScore(int value, int width) {
+        int summary = DigitChunks.summary(value, width);
+        int score = RUN_SCORE[DigitChunks.longestRun(summary)]
+                + SEQUENCE_SCORE[DigitChunks.longestSequence(summary)]
+                + (DigitChunks.hasLuckyPattern(summary) ? LUCKY_SCORE : 0);
+        return Math.min(score, MAX_SCORE);
+    }
+
+    private int calculateRarityScoreByScan(String accountNumber) {
         int score = 0;
-        
+
         // Score for consecutive repeats
         if (hasConsecutiveRepeats(accountNumber, 9)) score += 10;
         else if (hasConsecutiveRepeats(accountNumber, 8)) score += 9;
@@ -94,17 +139,17 @@ public class AccountNumberPatternDetector {
         else if (hasConsecutiveRepeats(accountNumber, 5)) score += 6;
         else if (hasConsecutiveRepeats(accountNumber, 4)) score += 4;
         else if (hasConsecutiveRepeats(accountNumber, 3)) score += 2;
-        
+
         // Score for sequential digits
         if (hasSequentialDigits(accountNumber, 9)) score += 8;
         else if (hasSequentialDigits(accountNumber, 7)) score += 6;
         else if (hasSequentialDigits(accountNumber, 5)) score += 4;
         else if (hasSequentialDigits(accountNumber, 3)) score += 2;
-        
+
         // Score for lucky patterns
         if (hasLuckyPattern(accountNumber)) score += 3;
-        
+
         // Cap score at 10
         return Math.min(score, 10);
     }
-}
\ No newline at end of file
+}
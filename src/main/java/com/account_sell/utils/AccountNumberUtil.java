@@ -1,6 +1,16 @@
 package com.account_sell.utils;
 
 import com.account_sell.enumation.AccountType;
+import com.account_sell.enumation.FilterType;
+import com.account_sell.enumation.PriceRange;
+import com.account_sell.utils.pricing.AccountPattern;
+import com.account_sell.utils.pricing.DigitPatternMatcher;
+import com.account_sell.utils.pricing.PricingRuleSet;
+import com.account_sell.utils.pricing.PricingRules;
+import com.account_sell.utils.pricing.RegionLayout;
+import com.account_sell.utils.pricing.SeededWalk;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
 import lombok.experimental.UtilityClass;
 
 import java.util.*;
@@ -10,6 +20,14 @@ public class AccountNumberUtil {
 
     private final Random RANDOM = new Random();
 
+    // Pattern spaces up to this size are priced in full so the most valuable matches come first
+    private final int MAX_RANKED_PATTERN_SPACE = 1 << 20;
+    // Larger spaces are read in lexicographic order, a block at a time, up to a bounded number of candidates
+    private final int PATTERN_BLOCK = 1 << 14;
+    private final int MAX_PATTERN_SCAN = 1 << 22;
+    // Candidates priced together in a batch sweep
+    private final int BATCH_BLOCK = 1 << 12;
+
     /**
      * Generates a list of account numbers based on the input pattern and filter type
      *
@@ -57,6 +75,30 @@ public class AccountNumberUtil {
         }
     }
 
+    /**
+     * Leading digits the generators put before the pattern for each account type
+     *
+     * @return the leading digit strings, all of the same length ("" for none), or null for types whose
+     * numbers are derived from the input rather than searched
+     */
+    public List<String> leadingDigits(AccountType accountType) {
+        switch (accountType) {
+            case CASA:
+                return Arrays.asList("000", "001");
+            case LOAN:
+                return Collections.singletonList("4");
+            case FD_RD:
+                return Collections.singletonList("8");
+            case NORMAL:
+                return Collections.singletonList("");
+            case DOB:
+            case PHONE:
+            default:
+                // Built from the date or phone number itself, the generated numbers are all there is
+                return null;
+        }
+    }
+
     /**
      * Generate CASA accounts with proper constraints
      */
@@ -201,11 +243,11 @@ public class AccountNumberUtil {
                         }
                     }
                 }
+                recordAttempts(AccountType.CASA, filterType, attempts, result.size(), count);
             }
         }
 
-        // Sort by price in descending order
-        result.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+        sortByPriceAndRarity(result);
 
         return result;
     }
@@ -337,10 +379,10 @@ public class AccountNumberUtil {
                     }
                 }
             }
+            recordAttempts(AccountType.LOAN, filterType, attempts, result.size(), count);
         }
 
-        // Sort by price in descending order
-        result.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+        sortByPriceAndRarity(result);
 
         return result;
     }
@@ -473,10 +515,10 @@ public class AccountNumberUtil {
                     }
                 }
             }
+            recordAttempts(AccountType.FD_RD, filterType, attempts, result.size(), count);
         }
 
-        // Sort by price in descending order
-        result.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+        sortByPriceAndRarity(result);
 
         return result;
     }
@@ -595,10 +637,10 @@ public class AccountNumberUtil {
                     }
                 }
             }
+            recordAttempts(AccountType.DOB, filterType, attempts, result.size(), count);
         }
 
-        // Sort by price in descending order
-        result.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+        sortByPriceAndRarity(result);
 
         return result;
     }
@@ -708,13 +750,238 @@ public class AccountNumberUtil {
                 }
             }
         }
+        recordAttempts(AccountType.NORMAL, filterType, attempts, result.size(), count);
+
+        sortByPriceAndRarity(result);
+
+        return result;
+    }
+
+    /**
+     * Generates account numbers matching a wildcard pattern by enumerating the pattern directly.
+     * <p>
+     * When the pattern matches at most {@value #MAX_RANKED_PATTERN_SPACE} numbers they are all priced and
+     * the most expensive ones in the price range are returned. Larger patterns are walked in lexicographic
+     * order until {@code count} numbers are in range or {@value #MAX_PATTERN_SCAN} have been priced.
+     *
+     * @param pattern compiled pattern, already limited to the leading digits of the account type
+     * @param count the number of account numbers to generate
+     * @param minPrice minimum price for filtering
+     * @param maxPrice maximum price for filtering
+     * @param accountType the account type, for metrics
+     * @return a list of account numbers with prices, most expensive and rarest first
+     */
+    public List<Map.Entry<String, Double>> generateFromPattern(
+            AccountPattern pattern, int count, double minPrice, double maxPrice, AccountType accountType) {
+
+        // One snapshot of the rules prices the whole request
+        PricingRuleSet rules = PricingRules.active();
+        PriceRange[] tiers = PriceRange.values();
+        double[] prices = new double[tiers.length];
+        for (PriceRange tier : tiers) {
+            prices[tier.ordinal()] = rules.priceOf(tier);
+        }
+
+        List<Map.Entry<String, Double>> result = new ArrayList<>();
+        long scanned;
+        if (pattern.size() <= MAX_RANKED_PATTERN_SPACE) {
+            int[] numbers = new int[(int) pattern.size()];
+            pattern.fill(0, numbers);
+            byte[] matched = rules.matchTiers(numbers, AccountPattern.LENGTH);
+
+            // Take whole tiers from the most expensive down, each in lexicographic order
+            Integer[] byPrice = new Integer[tiers.length];
+            for (int t = 0; t < byPrice.length; t++) {
+                byPrice[t] = t;
+            }
+            Arrays.sort(byPrice, (a, b) -> Double.compare(prices[b], prices[a]));
+            for (int tier : byPrice) {
+                if (prices[tier] < minPrice || prices[tier] > maxPrice) {
+                    continue;
+                }
+                for (int i = 0; i < numbers.length && result.size() < count; i++) {
+                    if (matched[i] == tier) {
+                        result.add(new AbstractMap.SimpleEntry<>(RegionLayout.toAccountNumber(numbers[i]), prices[tier]));
+                    }
+                }
+            }
+            scanned = numbers.length;
+        } else {
+            int[] block = new int[PATTERN_BLOCK];
+            long index = 0;
+            while (result.size() < count && index < pattern.size() && index < MAX_PATTERN_SCAN) {
+                int n = pattern.fill(index, block);
+                byte[] matched = rules.matchTiers(n == block.length ? block : Arrays.copyOf(block, n),
+                        AccountPattern.LENGTH);
+                for (int i = 0; i < n && result.size() < count; i++) {
+                    double price = prices[matched[i]];
+                    if (price >= minPrice && price <= maxPrice) {
+                        result.add(new AbstractMap.SimpleEntry<>(RegionLayout.toAccountNumber(block[i]), price));
+                    }
+                }
+                index += n;
+            }
+            scanned = index;
+        }
+        recordAttempts(accountType, FilterType.PATTERN.name(), (int) scanned, result.size(), count);
+
+        sortByPriceAndRarity(result);
+
+        return result;
+    }
 
-        // Sort by price in descending order
-        result.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+    /**
+     * Generates the next page of a seeded walk, which is left positioned at the start of the page after
+     *
+     * @param walk the walk over the numbers of the search
+     * @param count the number of account numbers to generate
+     * @param minPrice minimum price for filtering
+     * @param maxPrice maximum price for filtering
+     * @param accountType the account type, for metrics
+     * @return a list of account numbers with prices, most expensive and rarest first
+     */
+    public List<Map.Entry<String, Double>> generatePage(
+            SeededWalk walk, int count, double minPrice, double maxPrice, AccountType accountType) {
+
+        long start = walk.getPosition();
+        List<Map.Entry<String, Double>> result = walk.next(count, minPrice, maxPrice);
+        recordAttempts(accountType, "PAGED", (int) (walk.getPosition() - start), result.size(), count);
+
+        sortByPriceAndRarity(result);
 
         return result;
     }
 
+    /**
+     * Generates account numbers for several digit patterns of one account type in a shared sweep.
+     * <p>
+     * Each round draws candidates for every pattern still short of {@code count}, placed the way its
+     * filter requires, and prices the whole round at once. Each candidate is priced a single time and
+     * matched against all patterns in one Aho-Corasick pass, then kept for every pattern it carries whose
+     * price range it is in, so overlapping patterns (168 and 8168, 888 and 8888) fill each other.
+     *
+     * @param patterns digit patterns, at most {@value DigitPatternMatcher#MAX_PATTERNS}
+     * @param filters where each pattern goes (CONTAIN, START_WITH, END_WITH)
+     * @param minPrices minimum price of each pattern
+     * @param maxPrices maximum price of each pattern
+     * @param count the number of account numbers to generate per pattern
+     * @param leads leading digits of the account type, all of the same length ("" for none)
+     * @param accountType the account type, for metrics
+     * @return one list per pattern, most expensive and rarest first
+     */
+    public List<List<Map.Entry<String, Double>>> generateAccountNumbersBatch(
+            List<String> patterns, List<FilterType> filters, double[] minPrices, double[] maxPrices,
+            int count, List<String> leads, AccountType accountType) {
+
+        RegionLayout layout = new RegionLayout(leads);
+        List<String> fitted = new ArrayList<>(patterns.size());
+        int[] patternValues = new int[patterns.size()];
+        for (int s = 0; s < patterns.size(); s++) {
+            fitted.add(layout.fit(patterns.get(s), filters.get(s)));
+            patternValues[s] = Integer.parseInt(fitted.get(s));
+        }
+        DigitPatternMatcher matcher = new DigitPatternMatcher(fitted, filters, layout.leadLength());
+
+        // One snapshot of the rules prices the whole sweep
+        PricingRuleSet rules = PricingRules.active();
+        double[] prices = new double[PriceRange.values().length];
+        for (PriceRange tier : PriceRange.values()) {
+            prices[tier.ordinal()] = rules.priceOf(tier);
+        }
+
+        List<List<Map.Entry<String, Double>>> results = new ArrayList<>(patterns.size());
+        for (int s = 0; s < patterns.size(); s++) {
+            results.add(new ArrayList<>());
+        }
+        // Patterns still short of count
+        long pending = count > 0 ? -1L >>> (Long.SIZE - patterns.size()) : 0;
+        Set<Integer> seen = new HashSet<>();
+        int[] block = new int[BATCH_BLOCK];
+        int attempts = 0;
+        int maxAttempts = count * 20 * patterns.size(); // Limit attempts to avoid infinite loop
+        int accepted = 0;
+
+        while (pending != 0 && attempts < maxAttempts) {
+            int n = 0;
+            int size = Math.min(block.length, maxAttempts - attempts);
+            while (n < size) {
+                for (long remaining = pending; remaining != 0 && n < size; remaining &= remaining - 1) {
+                    int s = Long.numberOfTrailingZeros(remaining);
+                    block[n++] = layout.randomPlacement(patternValues[s], fitted.get(s).length(), filters.get(s), RANDOM);
+                }
+            }
+            attempts += n;
+
+            int[] candidates = n == block.length ? block : Arrays.copyOf(block, n);
+            byte[] tiers = rules.matchTiers(candidates, AccountPattern.LENGTH);
+            for (int i = 0; i < n && pending != 0; i++) {
+                if (!seen.add(candidates[i])) {
+                    continue;
+                }
+                double price = prices[tiers[i]];
+                String accountNumber = null;
+                for (long carried = matcher.match(candidates[i], AccountPattern.LENGTH) & pending;
+                     carried != 0; carried &= carried - 1) {
+                    int s = Long.numberOfTrailingZeros(carried);
+                    if (price < minPrices[s] || price > maxPrices[s]) {
+                        continue;
+                    }
+                    if (accountNumber == null) {
+                        accountNumber = RegionLayout.toAccountNumber(candidates[i]);
+                    }
+                    results.get(s).add(new AbstractMap.SimpleEntry<>(accountNumber, price));
+                    accepted++;
+                    if (results.get(s).size() == count) {
+                        pending &= ~(1L << s);
+                    }
+                }
+            }
+        }
+        recordAttempts(accountType, "BATCH", attempts, accepted, count * patterns.size());
+
+        for (List<Map.Entry<String, Double>> result : results) {
+            sortByPriceAndRarity(result);
+        }
+        return results;
+    }
+
+    /**
+     * Sorts by price in descending order, and numbers of the same price by rarity, rarest first.
+     * Rarity is scored once per number and looked up while sorting.
+     */
+    private void sortByPriceAndRarity(List<Map.Entry<String, Double>> accounts) {
+        int[] rarity = new int[accounts.size()];
+        Integer[] order = new Integer[accounts.size()];
+        for (int i = 0; i < order.length; i++) {
+            rarity[i] = AccountNumberPatternDetector.calculateRarityScore(accounts.get(i).getKey());
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byPrice = Double.compare(accounts.get(b).getValue(), accounts.get(a).getValue());
+            return byPrice != 0 ? byPrice : Integer.compare(rarity[b], rarity[a]);
+        });
+
+        List<Map.Entry<String, Double>> sorted = new ArrayList<>(order.length);
+        for (int i : order) {
+            sorted.add(accounts.get(i));
+        }
+        accounts.clear();
+        accounts.addAll(sorted);
+    }
+
+    /**
+     * Records candidates tried and accepted by an attempt-limited generation loop,
+     * and whether it ran out of attempts before reaching the requested count
+     */
+    private void recordAttempts(AccountType accountType, String filterType, int attempts, int accepted, int count) {
+        Tags tags = Tags.of("account_type", accountType.name(), "filter_type", filterType);
+        Metrics.counter("generation.attempts", tags).increment(attempts);
+        Metrics.counter("generation.accepted", tags).increment(accepted);
+        if (accepted < count) {
+            Metrics.counter("generation.exhausted", tags).increment();
+        }
+    }
+
     /**
      * Generates account numbers starting with the specified input.
      *
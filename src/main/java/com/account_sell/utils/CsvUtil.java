@@ -0,0 +1,111 @@
+package com.account_sell.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+@UtilityClass
+public class CsvUtil {
+
+    /**
+     * Quotes a value when it contains a separator, quote or line break (RFC 4180).
+     * The value reads back unchanged, for files other programs load.
+     * @param value raw value, may be null
+     * @return value safe to write as a CSV field
+     */
+    public String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Like {@link #escape(String)}, for files people open in a spreadsheet.
+     * A value a spreadsheet would read as a formula (starting with = + - @, tab or carriage return)
+     * is prefixed with a single quote and quoted, so it opens as text.
+     * @param value raw value, may be null
+     * @return value safe to write as a CSV field
+     */
+    public String escapeForSpreadsheet(String value) {
+        if (value != null && startsFormula(value)) {
+            return "\"'" + value.replace("\"", "\"\"") + "\"";
+        }
+        return escape(value);
+    }
+
+    private boolean startsFormula(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        char first = value.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+
+    /**
+     * Writes the column labels of a result set as the header line
+     */
+    public void writeHeader(ResultSet resultSet, Writer writer) throws SQLException {
+        writeHeader(resultSet, writer, false);
+    }
+
+    /**
+     * Writes the current row of a result set as one CSV line
+     */
+    public void writeRow(ResultSet resultSet, Writer writer) throws SQLException {
+        writeRow(resultSet, writer, false);
+    }
+
+    /**
+     * Writes the column labels of a result set as the header line, escaped for a spreadsheet
+     */
+    public void writeSpreadsheetHeader(ResultSet resultSet, Writer writer) throws SQLException {
+        writeHeader(resultSet, writer, true);
+    }
+
+    /**
+     * Writes the current row of a result set as one CSV line, escaped for a spreadsheet
+     */
+    public void writeSpreadsheetRow(ResultSet resultSet, Writer writer) throws SQLException {
+        writeRow(resultSet, writer, true);
+    }
+
+    private void writeHeader(ResultSet resultSet, Writer writer, boolean spreadsheet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columns = metaData.getColumnCount();
+        try {
+            for (int i = 1; i <= columns; i++) {
+                writer.write(i > 1 ? "," : "");
+                writer.write(escape(metaData.getColumnLabel(i), spreadsheet));
+            }
+            writer.write("\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeRow(ResultSet resultSet, Writer writer, boolean spreadsheet) throws SQLException {
+        int columns = resultSet.getMetaData().getColumnCount();
+        try {
+            for (int i = 1; i <= columns; i++) {
+                writer.write(i > 1 ? "," : "");
+                writer.write(escape(resultSet.getString(i), spreadsheet));
+            }
+            writer.write("\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String escape(String value, boolean spreadsheet) {
+        return spreadsheet ? escapeForSpreadsheet(value) : escape(value);
+    }
+}
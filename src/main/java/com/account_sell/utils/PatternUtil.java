@@ -1,6 +1,8 @@
 package com.account_sell.utils;
 
 import com.account_sell.enumation.PriceRange;
+import com.account_sell.utils.pricing.PricingRuleSet;
+import com.account_sell.utils.pricing.PricingRules;
 import lombok.experimental.UtilityClass;
 
 import java.util.HashMap;
@@ -17,79 +19,33 @@ public class PatternUtil {
      * @return price based on the pattern
      */
     public double calculatePrice(String accountNumber) {
-        // Check for "5 same digits plus 168" pattern first to give it priority
-        if (containsSame5DigitsPlus168(accountNumber)) {
-            return PriceRange.PREMIUM_5000.getPrice();
-        }
-
-        // Check patterns in order of price (highest to lowest)
-        // $10,000 patterns
-        if (containsSame8or9Digits(accountNumber) ||
-                contains3SetsOfSame3DigitsInOrder(accountNumber) ||
-                containsSame5DigitsPlus2SetsOf2Digits(accountNumber) ||
-                containsSame7DigitsGreaterOrEqualTo8(accountNumber)) {
-            return PriceRange.PREMIUM_10000.getPrice();
-        }
-
-        // $5,000 patterns (excluding the one we already checked)
-        if (containsSame6DigitsPlus168(accountNumber) ||
-                contains4PairsInOrder(accountNumber) ||
-                containsSame6DigitsPlus3SameDigits(accountNumber) ||
-                containsSame7DigitsLessThan8(accountNumber) ||
-                containsSame4DigitsInMiddle(accountNumber)) {
-            return PriceRange.PREMIUM_5000.getPrice();
-        }
-
-        // $3,000 patterns
-        if (contains9NumbersInOrder(accountNumber) ||
-                containsSame5DigitsPlus3SameDigits(accountNumber) ||
-                containsSame5DigitsPlus4SameDigits(accountNumber) ||
-                containsSame6DigitsAtStartOrEnd(accountNumber)) {
-            return PriceRange.HIGH_3000.getPrice();
-        }
-
-        // $2,500 patterns
-        if (contains3SetsOfSame3DigitsNotInOrder(accountNumber) ||
-                containsSame4DigitsPlus168(accountNumber)) {
-            return PriceRange.HIGH_2500.getPrice();
-        }
-
-        // $1,500 patterns
-        if (contains7to8NumbersInOrder(accountNumber) ||
-                contains3PairsInOrder(accountNumber)) {
-            return PriceRange.HIGH_1500.getPrice();
-        }
-
-        // $1,000 patterns
-        if (containsSame4DigitsPlus5NumbersInOrder(accountNumber) ||
-                containsSame5DigitsAtStartOrEnd(accountNumber)) {
-            return PriceRange.HIGH_1000.getPrice();
-        }
-
-        // $500 patterns
-        if (contains2SetsOfSame3Digits(accountNumber)) {
-            return PriceRange.MID_500.getPrice();
-        }
-
-        // $100 patterns
-        if (contains6NumbersInOrder(accountNumber) ||
-                containsSame5DigitsInMiddle(accountNumber)) {
-            return PriceRange.MID_100.getPrice();
-        }
-
-        // $50 patterns
-        if (containsSame4DigitsAtStartOrEnd(accountNumber)) {
-            return PriceRange.MID_50.getPrice();
-        }
+        PricingRuleSet.Rule rule = matchRule(accountNumber);
+        rule.recordHit();
+        return rule.getPrice();
+    }
 
-        // $20 patterns
-        if (containsSame3Digits(accountNumber) ||
-                contains168(accountNumber)) {
-            return PriceRange.LOW_20.getPrice();
-        }
+    /**
+     * Finds the rule that decides the price of the account number.
+     * Rules are defined in pricing-rules.yml and evaluated against a single scan of the digits.
+     * @param accountNumber 9-digit account number
+     * @return the first matching rule, or the NONE rule for the default tier
+     */
+    public PricingRuleSet.Rule matchRule(String accountNumber) {
+        return PricingRules.active().match(accountNumber);
+    }
 
-        // Default price
-        return PriceRange.DEFAULT.getPrice();
+    /**
+     * Prices many account numbers at once, for generators and anything building tables or pools.
+     * Numbers are given as ints zero-padded to {@code width} digits, and the result holds
+     * {@link PriceRange} ordinals ({@code PriceRange.values()[tiers[i]]}). The whole batch is priced
+     * with the rules active at the call, large arrays are split into chunks priced in parallel.
+     * @param numbers account numbers
+     * @param width number of digits, 9 for a special account number
+     * @return tier ordinal of each number
+     * @throws IllegalArgumentException if a number is negative or has more than {@code width} digits
+     */
+    public byte[] calculateTiers(int[] numbers, int width) {
+        return PricingRules.active().matchTiers(numbers, width);
     }
 
     /**
@@ -99,7 +55,9 @@ public class PatternUtil {
      * @return price range description
      */
     public String getPriceRangeDescription(double price) {
-        return PriceRange.fromPrice(price).getRangeDescription();
+        // Tier prices can be changed in the rule file, so map the price back through the active rules
+        PriceRange tier = PricingRules.active().tierOf(price);
+        return (tier != null ? tier : PriceRange.fromPrice(price)).getRangeDescription();
     }
 
     // Pattern to check if a number contains the same 3 digits
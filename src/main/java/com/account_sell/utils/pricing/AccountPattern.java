@@ -0,0 +1,261 @@
+package com.account_sell.utils.pricing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A compiled positional pattern over the 9 digits of an account number.
+ * <p>
+ * Each position is one token:
+ * <pre>
+ * 0-9       that digit
+ * ?         any digit
+ * [1-5]     a digit class: digits and ranges, [^0] for all but the listed ones
+ * {k}       the same digit as position k (1-based, an earlier position)
+ * </pre>
+ * For example {@code 8??888???} or {@code [1-9]{1}{1}?????{1}}. The pattern compiles to an automaton with
+ * one state per position: each position either allows a set of digits or copies an earlier position.
+ * Matching numbers are numbered in lexicographic order, so the space can be sized, enumerated from any
+ * index and sampled without trial and error.
+ */
+public final class AccountPattern {
+
+    public static final int LENGTH = 9;
+
+    private static final int ALL_DIGITS = (1 << 10) - 1;
+
+    private final String source;
+    // Allowed digits per position as a 10-bit mask; unused for positions that copy another
+    private final int[] masks;
+    // Position whose digit is copied, or -1 for a free position
+    private final int[] sameAs;
+    // Digits of each free position in ascending order, and the free positions left to right
+    private final int[][] choices;
+    private final int[] freePositions;
+    // Numbers matching the positions after each free position, for index arithmetic
+    private final long[] weights;
+    private final long size;
+
+    private AccountPattern(String source, int[] masks, int[] sameAs) {
+        this.source = source;
+        this.masks = masks;
+        this.sameAs = sameAs;
+        this.choices = new int[LENGTH][];
+
+        List<Integer> free = new ArrayList<>();
+        for (int p = 0; p < LENGTH; p++) {
+            if (sameAs[p] < 0) {
+                free.add(p);
+                choices[p] = new int[Integer.bitCount(masks[p])];
+                for (int d = 0, n = 0; d < 10; d++) {
+                    if ((masks[p] & (1 << d)) != 0) {
+                        choices[p][n++] = d;
+                    }
+                }
+            }
+        }
+        this.freePositions = free.stream().mapToInt(Integer::intValue).toArray();
+        this.weights = new long[freePositions.length];
+        long total = 1;
+        for (int f = freePositions.length - 1; f >= 0; f--) {
+            weights[f] = total;
+            total *= choices[freePositions[f]].length;
+        }
+        this.size = total;
+    }
+
+    /**
+     * @throws IllegalArgumentException with a message for the customer when the pattern is invalid
+     */
+    public static AccountPattern compile(String pattern) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("Pattern is required");
+        }
+        int[] masks = new int[LENGTH];
+        int[] sameAs = new int[LENGTH];
+        int position = 0;
+        int i = 0;
+        while (i < pattern.length()) {
+            if (position == LENGTH) {
+                throw new IllegalArgumentException("Pattern must describe exactly " + LENGTH + " digits");
+            }
+            char c = pattern.charAt(i);
+            sameAs[position] = -1;
+            if (c >= '0' && c <= '9') {
+                masks[position] = 1 << (c - '0');
+                i++;
+            } else if (c == '?') {
+                masks[position] = ALL_DIGITS;
+                i++;
+            } else if (c == '[') {
+                int end = pattern.indexOf(']', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed [ at position " + (position + 1));
+                }
+                masks[position] = digitClass(pattern.substring(i + 1, end), position);
+                i = end + 1;
+            } else if (c == '{') {
+                int end = pattern.indexOf('}', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed { at position " + (position + 1));
+                }
+                int reference = backReference(pattern.substring(i + 1, end), position);
+                // Copy from the free position at the end of the chain, so a copy never points at a copy
+                sameAs[position] = sameAs[reference] >= 0 ? sameAs[reference] : reference;
+                i = end + 1;
+            } else {
+                throw new IllegalArgumentException("Unexpected '" + c + "' at position " + (position + 1));
+            }
+            position++;
+        }
+        if (position != LENGTH) {
+            throw new IllegalArgumentException("Pattern must describe exactly " + LENGTH + " digits");
+        }
+        return new AccountPattern(pattern, masks, sameAs);
+    }
+
+    private static int digitClass(String body, int position) {
+        boolean negated = body.startsWith("^");
+        String items = negated ? body.substring(1) : body;
+        int mask = 0;
+        for (int i = 0; i < items.length(); i++) {
+            char from = items.charAt(i);
+            char to = from;
+            if (i + 2 < items.length() && items.charAt(i + 1) == '-') {
+                to = items.charAt(i + 2);
+                i += 2;
+            }
+            if (from < '0' || from > '9' || to < '0' || to > '9' || to < from) {
+                throw new IllegalArgumentException("Invalid digit class [" + body + "] at position " + (position + 1));
+            }
+            for (char d = from; d <= to; d++) {
+                mask |= 1 << (d - '0');
+            }
+        }
+        mask = negated ? ALL_DIGITS & ~mask : mask;
+        if (mask == 0) {
+            throw new IllegalArgumentException("Digit class [" + body + "] at position " + (position + 1)
+                    + " matches no digit");
+        }
+        return mask;
+    }
+
+    private static int backReference(String body, int position) {
+        int reference;
+        try {
+            reference = Integer.parseInt(body.trim()) - 1;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid reference {" + body + "} at position " + (position + 1));
+        }
+        if (reference < 0 || reference >= position) {
+            throw new IllegalArgumentException("Reference {" + body + "} at position " + (position + 1)
+                    + " must point to an earlier position");
+        }
+        return reference;
+    }
+
+    /**
+     * The same pattern limited to numbers starting with one of the given digit strings, for account
+     * types with fixed leading digits. Leading strings are combined position by position.
+     */
+    public AccountPattern restrictLeading(List<String> leads) {
+        int[] restricted = masks.clone();
+        for (int p = 0; p < LENGTH; p++) {
+            int allowed = 0;
+            boolean constrained = false;
+            for (String lead : leads) {
+                if (p < lead.length()) {
+                    allowed |= 1 << (lead.charAt(p) - '0');
+                    constrained = true;
+                }
+            }
+            if (constrained) {
+                // A copied position restricts the position it copies
+                int target = sameAs[p] >= 0 ? sameAs[p] : p;
+                restricted[target] &= allowed;
+                if (restricted[target] == 0) {
+                    throw new IllegalArgumentException("Pattern " + source + " cannot match the leading digits "
+                            + String.join(" or ", leads));
+                }
+            }
+        }
+        return new AccountPattern(source, restricted, sameAs.clone());
+    }
+
+    /**
+     * Number of distinct account numbers matching the pattern
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * The matching number at a lexicographic index between 0 and {@link #size()}
+     */
+    public int numberAt(long index) {
+        return toNumber(choiceIndices(index));
+    }
+
+    /**
+     * Fills {@code out} with the matching numbers from a lexicographic index on
+     *
+     * @return how many were written, fewer than {@code out.length} at the end of the space
+     */
+    public int fill(long fromIndex, int[] out) {
+        int n = (int) Math.max(0, Math.min(out.length, size - fromIndex));
+        if (n == 0) {
+            return 0;
+        }
+        // Step the free positions like an odometer instead of decoding every index
+        int[] chosen = choiceIndices(fromIndex);
+        for (int i = 0; ; i++) {
+            out[i] = toNumber(chosen);
+            if (i == n - 1) {
+                return n;
+            }
+            for (int f = freePositions.length - 1; f >= 0; f--) {
+                int p = freePositions[f];
+                if (++chosen[p] < choices[p].length) {
+                    break;
+                }
+                chosen[p] = 0;
+            }
+        }
+    }
+
+    // Index into choices of each free position for a lexicographic index
+    private int[] choiceIndices(long index) {
+        int[] chosen = new int[LENGTH];
+        for (int f = 0; f < freePositions.length; f++) {
+            chosen[freePositions[f]] = (int) (index / weights[f]);
+            index %= weights[f];
+        }
+        return chosen;
+    }
+
+    private int toNumber(int[] chosen) {
+        int number = 0;
+        for (int p = 0; p < LENGTH; p++) {
+            int free = sameAs[p] >= 0 ? sameAs[p] : p;
+            number = number * 10 + choices[free][chosen[free]];
+        }
+        return number;
+    }
+
+    /**
+     * A matching number drawn uniformly
+     */
+    public int randomNumber(Random random) {
+        return numberAt((long) (random.nextDouble() * size));
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
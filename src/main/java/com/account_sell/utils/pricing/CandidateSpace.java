@@ -0,0 +1,112 @@
+package com.account_sell.utils.pricing;
+
+import com.account_sell.enumation.FilterType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Every account number a search can return, numbered from 0 to {@link #size()} so it can be walked in
+ * any order and resumed from any index.
+ * <p>
+ * The space is a sequence of compiled {@link AccountPattern}s: a wildcard search is one pattern, and a
+ * digit search is one pattern per place the digits can go after the leading digits of the account type.
+ * A number where a CONTAIN search's digits occur more than once is reachable from several places; it
+ * belongs to the first one only and the other indexes are empty slots.
+ */
+public final class CandidateSpace {
+
+    private final List<AccountPattern> parts;
+    // Index of the first number of each part
+    private final long[] offsets;
+    private final long size;
+    // For CONTAIN searches: the layout, the digits, their length and where each part places them in the region
+    private final RegionLayout layout;
+    private final int literal;
+    private final int literalLength;
+    private final int[] placements;
+
+    private CandidateSpace(List<AccountPattern> parts, RegionLayout layout, int literal, int literalLength,
+                           int[] placements) {
+        this.parts = parts;
+        this.offsets = new long[parts.size()];
+        long total = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            offsets[i] = total;
+            total += parts.get(i).size();
+        }
+        this.size = total;
+        this.layout = layout;
+        this.literal = literal;
+        this.literalLength = literalLength;
+        this.placements = placements;
+    }
+
+    /**
+     * The numbers matching a compiled wildcard pattern
+     */
+    public static CandidateSpace of(AccountPattern pattern) {
+        return new CandidateSpace(Collections.singletonList(pattern), null, 0, 0, null);
+    }
+
+    /**
+     * The numbers carrying a digit pattern after the leading digits, placed as the filter requires
+     *
+     * @param leads   leading digits of the account type, all of the same length ("" for none)
+     * @param pattern digits, cut to the space left after the leading digits
+     */
+    public static CandidateSpace of(List<String> leads, String pattern, FilterType filter) {
+        RegionLayout layout = new RegionLayout(leads);
+        String digits = layout.fit(pattern, filter);
+        int leadLength = layout.leadLength();
+        int free = layout.regionLength() - digits.length();
+
+        int first = layout.firstPosition(filter, digits.length());
+        int last = layout.lastPosition(filter, digits.length());
+        List<AccountPattern> parts = new ArrayList<>();
+        int[] placements = new int[last - first + 1];
+        for (int position = first; position <= last; position++) {
+            String source = repeat('?', leadLength + position) + digits + repeat('?', free - position);
+            parts.add(AccountPattern.compile(source).restrictLeading(leads));
+            placements[position - first] = position;
+        }
+
+        // Only CONTAIN has several places, where a number can be reached more than once
+        boolean contain = filter != FilterType.START_WITH && filter != FilterType.END_WITH;
+        return contain
+                ? new CandidateSpace(parts, layout, Integer.parseInt(digits), digits.length(), placements)
+                : new CandidateSpace(parts, null, 0, 0, null);
+    }
+
+    private static String repeat(char c, int times) {
+        StringBuilder sb = new StringBuilder(times);
+        for (int i = 0; i < times; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Number of indexes, counting the empty slots of numbers reachable from several places
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the number at the index, or -1 for an empty slot
+     */
+    public int numberAt(long index) {
+        int part = parts.size() - 1;
+        while (offsets[part] > index) {
+            part--;
+        }
+        int number = parts.get(part).numberAt(index - offsets[part]);
+        if (placements != null
+                && layout.firstOccurrence(layout.region(number), literal, literalLength) != placements[part]) {
+            return -1;
+        }
+        return number;
+    }
+}
@@ -0,0 +1,208 @@
+package com.account_sell.utils.pricing;
+
+/**
+ * Precomputed features of every 3-digit chunk, combined to summarize a whole number with three lookups.
+ * <p>
+ * Each table entry packs, for one chunk: the leading, trailing and longest run of one digit, the same for
+ * ascending and descending sequences, the adjacent equal digits, whether it is one repeated digit, whether
+ * it contains 168 (or 888/999) and its first and last digit. Entries are indexed by width * 1000 + value
+ * so the leading chunk of a number whose length is not a multiple of 3 can be 1 or 2 digits wide; the
+ * 4000 ints fit in L1 cache.
+ * <p>
+ * {@link #summary(int, int)} joins the chunks arithmetically: a run or sequence ending one chunk continues
+ * into the next when the boundary digits agree, and the 3-digit windows across a boundary are read from
+ * the number itself.
+ */
+public final class DigitChunks {
+
+    // Every summary is below 1 << SUMMARY_BITS, so summaries can index a table
+    public static final int SUMMARY_BITS = 17;
+
+    private static final int CHUNK = 1000;
+    private static final int[] POW10 = {1, 10, 100, 1_000};
+
+    // Chunk entry layout: 2-bit lengths, then flags, then the boundary digits
+    private static final int RUN = 0;
+    private static final int ASCENDING = 6;
+    private static final int DESCENDING = 12;
+    private static final int PREFIX = 0;
+    private static final int SUFFIX = 2;
+    private static final int MAX = 4;
+    private static final int EQUAL_ADJACENT = 18;
+    private static final int SAME_DIGIT_BIT = 1 << 20;
+    private static final int CONTAINS_168_BIT = 1 << 21;
+    private static final int LUCKY_BIT = 1 << 22;
+    private static final int FIRST_DIGIT = 23;
+
+    // Summary layout
+    private static final int LONGEST_RUN = 0;
+    private static final int LONGEST_SEQUENCE = 4;
+    private static final int ADJACENT_PAIRS = 8;
+    private static final int SAME_DIGIT_GROUPS = 12;
+    private static final int HAS_168_BIT = 1 << 15;
+    private static final int HAS_LUCKY_BIT = 1 << 16;
+
+    private static final int[] ENTRIES = new int[4 * CHUNK];
+    private static final boolean[] LUCKY = new boolean[CHUNK];
+
+    static {
+        LUCKY[168] = true;
+        LUCKY[888] = true;
+        LUCKY[999] = true;
+
+        for (int width = 1; width <= 3; width++) {
+            for (int value = 0; value < POW10[width]; value++) {
+                int[] digits = new int[width];
+                for (int i = width - 1, v = value; i >= 0; i--, v /= 10) {
+                    digits[i] = v % 10;
+                }
+                int equalAdjacent = 0;
+                for (int i = 1; i < width; i++) {
+                    equalAdjacent += digits[i] == digits[i - 1] ? 1 : 0;
+                }
+
+                int entry = stretches(digits, 0) << RUN
+                        | stretches(digits, 1) << ASCENDING
+                        | stretches(digits, -1) << DESCENDING
+                        | equalAdjacent << EQUAL_ADJACENT
+                        | digits[0] << FIRST_DIGIT;
+                if (equalAdjacent == width - 1) {
+                    entry |= SAME_DIGIT_BIT;
+                }
+                if (width == 3 && value == 168) {
+                    entry |= CONTAINS_168_BIT;
+                }
+                if (width == 3 && LUCKY[value]) {
+                    entry |= LUCKY_BIT;
+                }
+                ENTRIES[width * CHUNK + value] = entry;
+            }
+        }
+    }
+
+    private DigitChunks() {
+    }
+
+    /**
+     * Prefix, suffix and longest length of the stretches where each digit is the previous one plus
+     * {@code step}, packed in 2 bits each
+     */
+    private static int stretches(int[] digits, int step) {
+        int length = 1;
+        int longest = 1;
+        int prefix = 1;
+        for (int i = 1; i < digits.length; i++) {
+            length = digits[i] == digits[i - 1] + step ? length + 1 : 1;
+            longest = Math.max(longest, length);
+            if (length == i + 1) {
+                prefix = length;
+            }
+        }
+        return prefix << PREFIX | length << SUFFIX | longest << MAX;
+    }
+
+    private static int field(int packed, int shift) {
+        return (packed >>> shift) & 3;
+    }
+
+    /**
+     * Summary of a number given as an int, zero-padded to {@code width} digits (1 to 9)
+     */
+    public static int summary(int value, int width) {
+        // Split with constant divisors, which compile to multiplications
+        int low = value % CHUNK;
+        int middle = value / CHUNK % CHUNK;
+        int high = value / (CHUNK * CHUNK);
+        int chunks = (width + 2) / 3;
+
+        int longestRun = 0;
+        int longestSequence = 0;
+        int adjacentPairs = 0;
+        int sameDigitGroups = 0;
+        boolean has168 = false;
+        boolean lucky = false;
+
+        int run = 0;
+        int ascending = 0;
+        int descending = 0;
+        int previous = -1;
+        int previousWidth = 0;
+
+        for (int k = 3 - chunks; k < 3; k++) {
+            int chunk = k == 0 ? high : k == 1 ? middle : low;
+            int chunkWidth = previousWidth == 0 ? width - 3 * (chunks - 1) : 3;
+            int entry = ENTRIES[chunkWidth * CHUNK + chunk];
+            int first = entry >>> FIRST_DIGIT;
+            int last = previous % 10;
+
+            int joined = (previous >= 0 && first == last ? run : 0) + field(entry, RUN + PREFIX);
+            longestRun = Math.max(longestRun, Math.max(joined, field(entry, RUN + MAX)));
+            run = field(entry, RUN + PREFIX) == chunkWidth ? joined : field(entry, RUN + SUFFIX);
+
+            joined = (previous >= 0 && first == last + 1 ? ascending : 0) + field(entry, ASCENDING + PREFIX);
+            longestSequence = Math.max(longestSequence, Math.max(joined, field(entry, ASCENDING + MAX)));
+            ascending = field(entry, ASCENDING + PREFIX) == chunkWidth ? joined : field(entry, ASCENDING + SUFFIX);
+
+            joined = (previous >= 0 && first == last - 1 ? descending : 0) + field(entry, DESCENDING + PREFIX);
+            longestSequence = Math.max(longestSequence, Math.max(joined, field(entry, DESCENDING + MAX)));
+            descending = field(entry, DESCENDING + PREFIX) == chunkWidth ? joined : field(entry, DESCENDING + SUFFIX);
+
+            adjacentPairs += field(entry, EQUAL_ADJACENT) + (previous >= 0 && first == last ? 1 : 0);
+            has168 |= (entry & CONTAINS_168_BIT) != 0;
+            lucky |= (entry & LUCKY_BIT) != 0;
+
+            // The two 3-digit windows across the boundary with the previous chunk
+            if (previous >= 0) {
+                int window = (previous % 10) * 100 + chunk / 10;
+                has168 |= window == 168;
+                lucky |= LUCKY[window];
+                if (previousWidth >= 2) {
+                    window = (previous % 100) * 10 + chunk / 100;
+                    has168 |= window == 168;
+                    lucky |= LUCKY[window];
+                }
+            }
+
+            if (width % 3 == 0 && (entry & SAME_DIGIT_BIT) != 0) {
+                sameDigitGroups |= 1 << (k - (3 - chunks));
+            }
+            previous = chunk;
+            previousWidth = chunkWidth;
+        }
+
+        return longestRun << LONGEST_RUN
+                | longestSequence << LONGEST_SEQUENCE
+                | adjacentPairs << ADJACENT_PAIRS
+                | sameDigitGroups << SAME_DIGIT_GROUPS
+                | (has168 ? HAS_168_BIT : 0)
+                | (lucky ? HAS_LUCKY_BIT : 0);
+    }
+
+    public static int longestRun(int summary) {
+        return (summary >>> LONGEST_RUN) & 0xF;
+    }
+
+    // Longest ascending or descending sequence stepping by one
+    public static int longestSequence(int summary) {
+        return (summary >>> LONGEST_SEQUENCE) & 0xF;
+    }
+
+    // Positions where a digit equals the next one, an upper bound for any chain of pairs
+    public static int adjacentPairs(int summary) {
+        return (summary >>> ADJACENT_PAIRS) & 0xF;
+    }
+
+    // Bit k set when aligned group k is one repeated digit; only filled when the width is a multiple of 3
+    public static int sameDigitGroups(int summary) {
+        return (summary >>> SAME_DIGIT_GROUPS) & 0x7;
+    }
+
+    public static boolean has168(int summary) {
+        return (summary & HAS_168_BIT) != 0;
+    }
+
+    // Contains 168, 888 or 999
+    public static boolean hasLuckyPattern(int summary) {
+        return (summary & HAS_LUCKY_BIT) != 0;
+    }
+}
@@ -0,0 +1,236 @@
+package com.account_sell.utils.pricing;
+
+/**
+ * Everything the pricing rules look at, collected in one left-to-right pass over the digits:
+ * maximal runs of the same digit, the longest ascending/descending sequence, the longest chain
+ * of adjacent pairs (112233...), the first "168" and the same-digit 3-digit groups.
+ */
+public final class DigitFeatures {
+
+    private static final int[] LUCKY_168 = {1, 6, 8};
+
+    // Built on demand when the features were read from an int
+    private String number;
+    private final int[] digits;
+    private int length;
+
+    // Maximal runs of one digit, left to right
+    private final int[] runStart;
+    private final int[] runLength;
+    private final int[] runDigit;
+    private int runCount;
+    private int longestRun;
+
+    private int longestSequence;
+    private int sequenceStart;
+    private int longestPairChain;
+    private int pairChainStart;
+    private int position168;
+
+    // Aligned groups of 3 digits (positions 0-2, 3-5, 6-8); bit k set when group k is one digit repeated
+    private int groupCount;
+    private int sameDigitGroups;
+
+    private DigitFeatures(int capacity) {
+        this.digits = new int[capacity];
+        this.runStart = new int[capacity];
+        this.runLength = new int[capacity];
+        this.runDigit = new int[capacity];
+    }
+
+    public static DigitFeatures of(String number) {
+        DigitFeatures features = new DigitFeatures(number.length());
+        features.number = number;
+        features.length = number.length();
+        for (int i = 0; i < features.length; i++) {
+            features.digits[i] = number.charAt(i) - '0';
+        }
+        features.scan();
+        return features;
+    }
+
+    /**
+     * A reusable instance for {@link #load(int, int)}, so bulk pricing scans numbers without allocating
+     */
+    static DigitFeatures reusable(int width) {
+        return new DigitFeatures(width);
+    }
+
+    /**
+     * Rescans this instance for a number given as an int, zero-padded to {@code width} digits
+     */
+    DigitFeatures load(int value, int width) {
+        number = null;
+        length = width;
+        // Fixed trip count and no data-dependent branches, so the JIT can unroll it
+        for (int i = width - 1; i >= 0; i--) {
+            digits[i] = value % 10;
+            value /= 10;
+        }
+        scan();
+        return this;
+    }
+
+    private void scan() {
+        runCount = 0;
+        longestRun = 0;
+        longestSequence = 0;
+        sequenceStart = 0;
+        longestPairChain = 0;
+        pairChainStart = -1;
+        position168 = -1;
+        groupCount = length / 3;
+        sameDigitGroups = 0;
+
+        int ascending = 0;
+        int descending = 0;
+        // Pair chains ending at the previous two positions
+        int pairsBefore = 0;
+        int pairsTwoBefore = 0;
+
+        for (int i = 0; i < length; i++) {
+            int d = digits[i];
+
+            // Runs of the same digit
+            if (i > 0 && d == digits[i - 1]) {
+                runLength[runCount - 1]++;
+            } else {
+                runStart[runCount] = i;
+                runLength[runCount] = 1;
+                runDigit[runCount] = d;
+                runCount++;
+            }
+            longestRun = Math.max(longestRun, runLength[runCount - 1]);
+
+            // Sequences stepping by one in either direction
+            ascending = i > 0 && d == digits[i - 1] + 1 ? ascending + 1 : 1;
+            descending = i > 0 && d == digits[i - 1] - 1 ? descending + 1 : 1;
+            int sequence = Math.max(ascending, descending);
+            if (sequence > longestSequence) {
+                longestSequence = sequence;
+                sequenceStart = i - sequence + 1;
+            }
+
+            // Adjacent pairs chained back to back, the pair (i-1, i) extends a chain ending at i-2
+            int pairs = i > 0 && d == digits[i - 1] ? pairsTwoBefore + 1 : 0;
+            if (pairs > longestPairChain) {
+                longestPairChain = pairs;
+                pairChainStart = i + 1 - 2 * pairs;
+            }
+            pairsTwoBefore = pairsBefore;
+            pairsBefore = pairs;
+
+            if (position168 < 0 && i >= 2 && digits[i - 2] == LUCKY_168[0]
+                    && digits[i - 1] == LUCKY_168[1] && d == LUCKY_168[2]) {
+                position168 = i - 2;
+            }
+
+            if (i % 3 == 2 && i / 3 < groupCount && d == digits[i - 1] && d == digits[i - 2]) {
+                sameDigitGroups |= 1 << (i / 3);
+            }
+        }
+    }
+
+    public String getNumber() {
+        if (number == null) {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = (char) ('0' + digits[i]);
+            }
+            number = new String(chars);
+        }
+        return number;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int digitAt(int position) {
+        return digits[position];
+    }
+
+    public int getRunCount() {
+        return runCount;
+    }
+
+    public int getRunStart(int run) {
+        return runStart[run];
+    }
+
+    public int getRunLength(int run) {
+        return runLength[run];
+    }
+
+    public int getRunDigit(int run) {
+        return runDigit[run];
+    }
+
+    public int getLongestRun() {
+        return longestRun;
+    }
+
+    public int getLongestSequence() {
+        return longestSequence;
+    }
+
+    public int getSequenceStart() {
+        return sequenceStart;
+    }
+
+    public int getLongestPairChain() {
+        return longestPairChain;
+    }
+
+    // -1 when there are no adjacent pairs
+    public int getPairChainStart() {
+        return pairChainStart;
+    }
+
+    // -1 when the number does not contain 168
+    public int getPosition168() {
+        return position168;
+    }
+
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    public boolean isSameDigitGroup(int group) {
+        return (sameDigitGroups & (1 << group)) != 0;
+    }
+
+    public int getGroupDigit(int group) {
+        return digits[group * 3];
+    }
+
+    /**
+     * First position of a digit string, reusing the scanned position for "168"
+     */
+    public int indexOf(String literal) {
+        if ("168".equals(literal)) {
+            return position168;
+        }
+        for (int i = 0; i + literal.length() <= length; i++) {
+            if (regionMatches(i, literal)) {
+                return i;
+            }
+        }
+        return literal.isEmpty() ? 0 : -1;
+    }
+
+    /**
+     * Whether the digit string appears at the position, compared on the scanned digits
+     */
+    public boolean regionMatches(int position, String literal) {
+        if (position < 0 || position + literal.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (digits[position + i] != literal.charAt(i) - '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
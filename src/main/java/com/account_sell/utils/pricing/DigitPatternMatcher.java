@@ -0,0 +1,137 @@
+package com.account_sell.utils.pricing;
+
+import com.account_sell.enumation.FilterType;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over digits that finds, in one left-to-right pass over a number, every one of
+ * up to {@value #MAX_PATTERNS} digit patterns it carries.
+ * <p>
+ * Each pattern has a filter that places it in the region after the leading digits of the account type:
+ * CONTAIN anywhere in the region, START_WITH at its start and END_WITH at the end of the number.
+ * The goto function is completed over the failure links, so every digit is a single table lookup, and
+ * each state keeps the patterns ending there as a bit mask.
+ */
+public final class DigitPatternMatcher {
+
+    public static final int MAX_PATTERNS = Long.SIZE;
+
+    private final int[] lengths;
+    private final FilterType[] filters;
+    private final int regionStart;
+    // next[state * 10 + digit]; state 0 is the root
+    private final int[] next;
+    // Patterns ending at each state, including those reached through failure links
+    private final long[] output;
+
+    /**
+     * @param patterns    digit strings, at most {@value #MAX_PATTERNS}
+     * @param filters     where each pattern must be placed
+     * @param regionStart number of leading digits before the region the patterns are placed in
+     */
+    public DigitPatternMatcher(List<String> patterns, List<FilterType> filters, int regionStart) {
+        if (patterns.size() > MAX_PATTERNS || patterns.size() != filters.size()) {
+            throw new IllegalArgumentException("Expected up to " + MAX_PATTERNS + " patterns, each with a filter");
+        }
+        this.lengths = new int[patterns.size()];
+        this.filters = filters.toArray(new FilterType[0]);
+        this.regionStart = regionStart;
+
+        int maxStates = 1;
+        for (String pattern : patterns) {
+            maxStates += pattern.length();
+        }
+        int[] trie = new int[maxStates * 10];
+        Arrays.fill(trie, -1);
+        long[] ends = new long[maxStates];
+        int states = 1;
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            if (pattern.isEmpty() || !pattern.chars().allMatch(Character::isDigit)) {
+                throw new IllegalArgumentException("Pattern must contain only digits: " + pattern);
+            }
+            lengths[p] = pattern.length();
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int slot = state * 10 + (pattern.charAt(i) - '0');
+                if (trie[slot] < 0) {
+                    trie[slot] = states++;
+                }
+                state = trie[slot];
+            }
+            ends[state] |= 1L << p;
+        }
+
+        // Breadth-first, so the failure state of every state is complete before it is used
+        this.next = Arrays.copyOf(trie, states * 10);
+        this.output = Arrays.copyOf(ends, states);
+        int[] failure = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int d = 0; d < 10; d++) {
+            if (next[d] < 0) {
+                next[d] = 0;
+            } else {
+                queue.add(next[d]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            output[state] |= output[failure[state]];
+            for (int d = 0; d < 10; d++) {
+                int child = next[state * 10 + d];
+                if (child < 0) {
+                    next[state * 10 + d] = next[failure[state] * 10 + d];
+                } else {
+                    failure[child] = next[failure[state] * 10 + d];
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Patterns carried by a number in the place their filter requires
+     *
+     * @param number the number, zero-padded to {@code width} digits
+     * @return bit p set when pattern p matches
+     */
+    public long match(int number, int width) {
+        int[] digits = new int[width];
+        for (int i = width - 1; i >= 0; i--, number /= 10) {
+            digits[i] = number % 10;
+        }
+
+        long matched = 0;
+        int state = 0;
+        for (int i = 0; i < width; i++) {
+            state = next[state * 10 + digits[i]];
+            long candidates = output[state] & ~matched;
+            while (candidates != 0) {
+                int p = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                if (placed(p, i - lengths[p] + 1, i == width - 1)) {
+                    matched |= 1L << p;
+                }
+            }
+        }
+        return matched;
+    }
+
+    private boolean placed(int pattern, int start, boolean atEnd) {
+        if (start < regionStart) {
+            return false;
+        }
+        switch (filters[pattern]) {
+            case START_WITH:
+                return start == regionStart;
+            case END_WITH:
+                return atEnd;
+            default:
+                return true;
+        }
+    }
+}
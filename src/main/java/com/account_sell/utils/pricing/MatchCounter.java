@@ -0,0 +1,291 @@
+package com.account_sell.utils.pricing;
+
+import com.account_sell.enumation.FilterType;
+import com.account_sell.enumation.PriceRange;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Counts the 9-digit account numbers that carry a pattern, per price tier, so one count answers any
+ * price range.
+ * <p>
+ * A number is one of the fixed leading digits of its account type followed by a region holding the
+ * pattern at the start, at the end, or anywhere (counted once however often it occurs). The number of
+ * such numbers comes from a digit DP over the pattern's KMP automaton. When it takes at most
+ * {@code maxExact} candidates to list them they are all priced in blocks and the histogram is exact;
+ * above that, the share of each tier is measured on a uniform sample of {@value #SAMPLE_SIZE}.
+ * Wildcard patterns ({@link AccountPattern}) are sized the same way from their compiled positions.
+ */
+public final class MatchCounter {
+
+    // Cheap enough to count in full on a request thread, a few milliseconds of pricing
+    public static final long CHEAP_EXACT_CANDIDATES = 1 << 16;
+    // Up to half a minute of single-core pricing, only done off the request thread; covers every pattern
+    // of two digits or more, single digits leave too many numbers and are always sampled
+    public static final long MAX_EXACT_CANDIDATES = 1 << 27;
+    // Keeps the estimated share within about half a percent
+    static final int SAMPLE_SIZE = 1 << 16;
+
+    private static final int BLOCK = 1 << 14;
+
+    private MatchCounter() {
+    }
+
+    /**
+     * @param leads    leading digits of the account type, all of the same length ("" for none)
+     * @param pattern  digits to place, cut to the space left after the leading digits
+     * @param filter   where the pattern goes in the region after the leading digits
+     * @param maxExact most candidates to price for an exact count, a sample is priced above it
+     */
+    public static Histogram histogram(List<String> leads, String pattern, FilterType filter, long maxExact) {
+        PricingRuleSet rules = PricingRules.active();
+        RegionLayout layout = new RegionLayout(leads);
+        Space space = new Space(layout, layout.fit(pattern, filter), filter);
+
+        long candidates = space.size();
+        long listed = candidates == 0 ? 0 : space.placements() * (long) space.freeValues * layout.leadCount();
+        Histogram histogram = new Histogram(candidates, listed, listed <= maxExact, rules);
+        if (histogram.exact) {
+            space.enumerate(histogram);
+        } else {
+            int[] numbers = space.sample(SAMPLE_SIZE);
+            histogram.add(numbers, numbers.length);
+        }
+        return histogram;
+    }
+
+    /**
+     * Counts the numbers matching a wildcard pattern, per price tier
+     *
+     * @param maxExact most candidates to price for an exact count, a sample is priced above it
+     */
+    public static Histogram histogram(AccountPattern pattern, long maxExact) {
+        PricingRuleSet rules = PricingRules.active();
+        long candidates = pattern.size();
+        Histogram histogram = new Histogram(candidates, candidates, candidates <= maxExact, rules);
+
+        if (histogram.exact) {
+            int[] block = new int[(int) Math.min(BLOCK, candidates)];
+            for (long index = 0; index < candidates; ) {
+                int n = pattern.fill(index, block);
+                histogram.add(block, n);
+                index += n;
+            }
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int[] numbers = new int[SAMPLE_SIZE];
+            for (int i = 0; i < numbers.length; i++) {
+                numbers[i] = pattern.randomNumber(random);
+            }
+            histogram.add(numbers, numbers.length);
+        }
+        return histogram;
+    }
+
+    /**
+     * The numbers with the pattern placed in the region after one of the leading digit strings
+     */
+    private static final class Space {
+        private final RegionLayout layout;
+        private final int pattern;
+        private final int patternLength;
+        private final int freeValues;
+        private final int firstPosition;
+        private final int lastPosition;
+        private final boolean firstOccurrenceOnly;
+
+        private Space(RegionLayout layout, String pattern, FilterType filter) {
+            this.layout = layout;
+            this.pattern = Integer.parseInt(pattern);
+            this.patternLength = pattern.length();
+            this.freeValues = layout.freeValues(patternLength);
+            this.firstPosition = layout.firstPosition(filter, patternLength);
+            this.lastPosition = layout.lastPosition(filter, patternLength);
+            // Only CONTAIN has several placements; a number is taken at the first one it matches
+            this.firstOccurrenceOnly = filter != FilterType.START_WITH && filter != FilterType.END_WITH;
+        }
+
+        private int placements() {
+            return lastPosition - firstPosition + 1;
+        }
+
+        /**
+         * Exact number of distinct numbers in the space
+         */
+        private long size() {
+            long perLead = firstOccurrenceOnly ? regionsContaining() : freeValues;
+            return perLead * layout.leadCount();
+        }
+
+        /**
+         * Digit DP over the KMP automaton of the pattern: regions of this length that avoid it,
+         * subtracted from all regions
+         */
+        private long regionsContaining() {
+            int[] digits = new int[patternLength];
+            for (int i = patternLength - 1, value = pattern; i >= 0; i--, value /= 10) {
+                digits[i] = value % 10;
+            }
+            int[] failure = new int[patternLength];
+            for (int i = 1, k = 0; i < patternLength; i++) {
+                while (k > 0 && digits[i] != digits[k]) {
+                    k = failure[k - 1];
+                }
+                if (digits[i] == digits[k]) {
+                    k++;
+                }
+                failure[i] = k;
+            }
+            // next[state][digit], where state is the length of the pattern prefix matched so far
+            int[][] next = new int[patternLength][10];
+            for (int state = 0; state < patternLength; state++) {
+                for (int d = 0; d < 10; d++) {
+                    int k = state;
+                    while (k > 0 && digits[k] != d) {
+                        k = failure[k - 1];
+                    }
+                    next[state][d] = digits[k] == d ? k + 1 : 0;
+                }
+            }
+
+            long[] ways = new long[patternLength];
+            ways[0] = 1;
+            for (int position = 0; position < layout.regionLength(); position++) {
+                long[] after = new long[patternLength];
+                for (int state = 0; state < patternLength; state++) {
+                    if (ways[state] == 0) {
+                        continue;
+                    }
+                    for (int d = 0; d < 10; d++) {
+                        int target = next[state][d];
+                        // Reaching the full pattern leaves the avoiding set
+                        if (target < patternLength) {
+                            after[target] += ways[state];
+                        }
+                    }
+                }
+                ways = after;
+            }
+            long avoiding = 0;
+            for (long count : ways) {
+                avoiding += count;
+            }
+            return (long) layout.freeValues(0) - avoiding;
+        }
+
+        /**
+         * Prices every number of the space into the histogram, a block at a time
+         */
+        private void enumerate(Histogram histogram) {
+            int[] block = new int[BLOCK];
+            int n = 0;
+            for (int l = 0; l < layout.leadCount(); l++) {
+                for (int position = firstPosition; position <= lastPosition; position++) {
+                    for (int value = 0; value < freeValues; value++) {
+                        int region = layout.place(pattern, patternLength, position, value);
+                        if (isCounted(region, position)) {
+                            block[n++] = layout.number(layout.lead(l), region);
+                            if (n == block.length) {
+                                histogram.add(block, n);
+                                n = 0;
+                            }
+                        }
+                    }
+                }
+            }
+            histogram.add(block, n);
+        }
+
+        /**
+         * Uniform sample with repetition: a placement and free digits are drawn evenly and kept only
+         * when the placement is the first occurrence, so every distinct number is equally likely
+         */
+        private int[] sample(int size) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int[] numbers = new int[size];
+            int n = 0;
+            while (n < size) {
+                int position = firstPosition + random.nextInt(placements());
+                int region = layout.place(pattern, patternLength, position, random.nextInt(freeValues));
+                if (isCounted(region, position)) {
+                    numbers[n++] = layout.number(layout.randomLead(random), region);
+                }
+            }
+            return numbers;
+        }
+
+        private boolean isCounted(int region, int position) {
+            return !firstOccurrenceOnly || layout.firstOccurrence(region, pattern, patternLength) == position;
+        }
+    }
+
+    /**
+     * Numbers with a pattern per price tier, counted in full or on a sample
+     */
+    public static final class Histogram {
+        private final long[] tierCounts = new long[PriceRange.values().length];
+        private final long candidates;
+        private final long listed;
+        private final boolean exact;
+        private final PricingRuleSet rules;
+        // Numbers priced into tierCounts, the sample size when estimated
+        private long priced;
+
+        private Histogram(long candidates, long listed, boolean exact, PricingRuleSet rules) {
+            this.candidates = candidates;
+            this.listed = listed;
+            this.exact = exact;
+            this.rules = rules;
+        }
+
+        private void add(int[] numbers, int n) {
+            if (n == 0) {
+                return;
+            }
+            byte[] tiers = rules.matchTiers(n == numbers.length ? numbers : Arrays.copyOf(numbers, n),
+                    AccountPattern.LENGTH);
+            for (byte tier : tiers) {
+                tierCounts[tier]++;
+            }
+            priced += n;
+        }
+
+        /**
+         * Numbers with the pattern whose price is in the range, summed over the tiers priced in it
+         */
+        public long count(double minPrice, double maxPrice) {
+            long hits = 0;
+            for (PriceRange tier : PriceRange.values()) {
+                double price = rules.priceOf(tier);
+                if (price >= minPrice && price <= maxPrice) {
+                    hits += tierCounts[tier.ordinal()];
+                }
+            }
+            if (exact || priced == 0) {
+                return hits;
+            }
+            return Math.round((double) candidates * hits / priced);
+        }
+
+        // Numbers with the pattern at any price
+        public long getCandidates() {
+            return candidates;
+        }
+
+        // Candidates listed to count in full, more than getCandidates when a number can be placed several ways
+        public long getListed() {
+            return listed;
+        }
+
+        public boolean isExact() {
+            return exact;
+        }
+
+        // The rules the histogram was made with, a reload makes it stale
+        public PricingRuleSet getRules() {
+            return rules;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.account_sell.utils.pricing;
+
+/**
+ * One condition of a pricing rule, evaluated against features that were already scanned.
+ */
+public interface PricingCondition {
+
+    boolean matches(DigitFeatures features);
+
+    /**
+     * Cheap pre-check on a {@link DigitChunks} summary of a number whose width is a multiple of 3.
+     * Returns false only when the condition cannot match, so the full scan can be skipped.
+     */
+    default boolean mayMatch(int summary) {
+        return true;
+    }
+
+    // Readable form for admin listings and price explanations
+    String describe();
+}
@@ -0,0 +1,432 @@
+package com.account_sell.utils.pricing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The condition types that can appear in the pricing rule file, and their parser.
+ * <pre>
+ * run:      { length: 5, at: ANY|START|END|START_OR_END|MIDDLE, minDigit: 0, maxDigit: 9,
+ *             outside: "168", plusRun: 3, plusPairs: 2 }
+ * sequence: { length: 6 }
+ * pairs:    { count: 3 }
+ * literal:  { values: ["168"], at: ANY|START|END|WHOLE }
+ * groups:   { same: 2, identical: true, order: ANY|MONOTONIC|NOT_MONOTONIC }
+ * </pre>
+ */
+final class PricingConditions {
+
+    enum Placement { ANY, START, END, START_OR_END, MIDDLE, WHOLE }
+
+    enum GroupOrder { ANY, MONOTONIC, NOT_MONOTONIC }
+
+    // The one literal the chunk summary tracks directly
+    private static final String LUCKY_168 = "168";
+
+    private PricingConditions() {
+    }
+
+    static PricingCondition parse(String type, Map<?, ?> params) {
+        switch (type) {
+            case "run":
+                return new Run(intParam(params, "length", null),
+                        placement(params, Placement.ANY),
+                        intParam(params, "minDigit", 0),
+                        intParam(params, "maxDigit", 9),
+                        stringParam(params, "outside"),
+                        intParam(params, "plusRun", 0),
+                        intParam(params, "plusPairs", 0));
+            case "sequence":
+                return new Sequence(intParam(params, "length", null));
+            case "pairs":
+                return new Pairs(intParam(params, "count", null));
+            case "literal":
+                return new Literal(stringList(params, "values"), placement(params, Placement.ANY));
+            case "groups":
+                return new Groups(intParam(params, "same", null),
+                        Boolean.TRUE.equals(params.get("identical")),
+                        GroupOrder.valueOf(String.valueOf(params.containsKey("order") ? params.get("order") : "ANY")
+                                .toUpperCase(Locale.ROOT)));
+            default:
+                throw new IllegalArgumentException("Unknown condition type '" + type + "'");
+        }
+    }
+
+    /**
+     * A run of at least {@code length} same digits. With {@code outside}, the run must not overlap the
+     * first occurrence of that literal (which must be present). {@code plusRun} and {@code plusPairs}
+     * look at the first qualifying run: another run of a different digit, or that many adjacent pairs
+     * outside the run, counted greedily from the left.
+     */
+    static final class Run implements PricingCondition {
+        private final int length;
+        private final Placement at;
+        private final int minDigit;
+        private final int maxDigit;
+        private final String outside;
+        private final int plusRun;
+        private final int plusPairs;
+
+        Run(int length, Placement at, int minDigit, int maxDigit, String outside, int plusRun, int plusPairs) {
+            if (length < 1) {
+                throw new IllegalArgumentException("run length must be positive");
+            }
+            if (at == Placement.WHOLE) {
+                throw new IllegalArgumentException("run does not support at: WHOLE");
+            }
+            this.length = length;
+            this.at = at;
+            this.minDigit = minDigit;
+            this.maxDigit = maxDigit;
+            this.outside = outside;
+            this.plusRun = plusRun;
+            this.plusPairs = plusPairs;
+        }
+
+        @Override
+        public boolean matches(DigitFeatures f) {
+            if (f.getLongestRun() < length) {
+                return false;
+            }
+            int outsideStart = -1;
+            if (outside != null) {
+                outsideStart = f.indexOf(outside);
+                if (outsideStart < 0) {
+                    return false;
+                }
+            }
+
+            int n = f.getLength();
+            for (int r = 0; r < f.getRunCount(); r++) {
+                int digit = f.getRunDigit(r);
+                int start = f.getRunStart(r);
+                int runLength = f.getRunLength(r);
+                if (runLength < length || digit < minDigit || digit > maxDigit) {
+                    continue;
+                }
+                for (int i = start; i <= start + runLength - length; i++) {
+                    if (!placed(i, n)) {
+                        continue;
+                    }
+                    if (outside != null && i + length > outsideStart && i < outsideStart + outside.length()) {
+                        continue;
+                    }
+                    // The first qualifying window decides the plus checks
+                    if (plusRun > 0) {
+                        return hasOtherRun(f, digit);
+                    }
+                    if (plusPairs > 0) {
+                        return pairsOutside(f, i) >= plusPairs;
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean placed(int i, int n) {
+            switch (at) {
+                case START:
+                    return i == 0;
+                case END:
+                    return i + length == n;
+                case START_OR_END:
+                    return i == 0 || i + length == n;
+                case MIDDLE:
+                    return i >= 1 && i + length <= n - 1;
+                default:
+                    return true;
+            }
+        }
+
+        private boolean hasOtherRun(DigitFeatures f, int digit) {
+            for (int r = 0; r < f.getRunCount(); r++) {
+                if (f.getRunDigit(r) != digit && f.getRunLength(r) >= plusRun) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int pairsOutside(DigitFeatures f, int runAt) {
+            int pairs = 0;
+            for (int i = 0; i < f.getLength() - 1; i++) {
+                boolean inRun = (i >= runAt && i < runAt + length) || (i + 1 >= runAt && i + 1 < runAt + length);
+                if (!inRun && f.digitAt(i) == f.digitAt(i + 1)) {
+                    pairs++;
+                    i++;
+                }
+            }
+            return pairs;
+        }
+
+        @Override
+        public boolean mayMatch(int summary) {
+            return DigitChunks.longestRun(summary) >= length
+                    && (!LUCKY_168.equals(outside) || DigitChunks.has168(summary));
+        }
+
+        @Override
+        public String describe() {
+            StringBuilder description = new StringBuilder(length + " same digits");
+            if (minDigit > 0 || maxDigit < 9) {
+                description.append(" (digit ").append(minDigit).append('-').append(maxDigit).append(')');
+            }
+            if (at != Placement.ANY) {
+                description.append(" at ").append(at.name().toLowerCase(Locale.ROOT).replace('_', ' '));
+            }
+            if (outside != null) {
+                description.append(" plus ").append(outside);
+            }
+            if (plusRun > 0) {
+                description.append(" plus ").append(plusRun).append(" same digits of another digit");
+            }
+            if (plusPairs > 0) {
+                description.append(" plus ").append(plusPairs).append(" pairs");
+            }
+            return description.toString();
+        }
+    }
+
+    static final class Sequence implements PricingCondition {
+        private final int length;
+
+        Sequence(int length) {
+            this.length = length;
+        }
+
+        @Override
+        public boolean matches(DigitFeatures f) {
+            return f.getLongestSequence() >= length;
+        }
+
+        @Override
+        public boolean mayMatch(int summary) {
+            return DigitChunks.longestSequence(summary) >= length;
+        }
+
+        @Override
+        public String describe() {
+            return length + " numbers in order";
+        }
+    }
+
+    static final class Pairs implements PricingCondition {
+        private final int count;
+
+        Pairs(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public boolean matches(DigitFeatures f) {
+            return f.getLongestPairChain() >= count;
+        }
+
+        @Override
+        public boolean mayMatch(int summary) {
+            // Each pair in a chain is a digit equal to the next one
+            return DigitChunks.adjacentPairs(summary) >= count;
+        }
+
+        @Override
+        public String describe() {
+            return count + " pairs in order";
+        }
+    }
+
+    static final class Literal implements PricingCondition {
+        private final String[] values;
+        private final Placement at;
+        // Per value, what any number containing it must have at least, for the chunk pre-check
+        private final int[] runs;
+        private final int[] sequences;
+        private final int[] pairs;
+        private final boolean[] contains168;
+
+        Literal(List<String> values, Placement at) {
+            if (values.isEmpty()) {
+                throw new IllegalArgumentException("literal needs at least one value");
+            }
+            if (at == Placement.MIDDLE || at == Placement.START_OR_END) {
+                throw new IllegalArgumentException("literal does not support at: " + at);
+            }
+            this.values = values.toArray(new String[0]);
+            this.at = at;
+            this.runs = new int[this.values.length];
+            this.sequences = new int[this.values.length];
+            this.pairs = new int[this.values.length];
+            this.contains168 = new boolean[this.values.length];
+            for (int v = 0; v < this.values.length; v++) {
+                DigitFeatures features = DigitFeatures.of(this.values[v]);
+                runs[v] = features.getLongestRun();
+                sequences[v] = features.getLongestSequence();
+                contains168[v] = features.getPosition168() >= 0;
+                for (int r = 0; r < features.getRunCount(); r++) {
+                    pairs[v] += features.getRunLength(r) - 1;
+                }
+            }
+        }
+
+        @Override
+        public boolean matches(DigitFeatures f) {
+            for (String value : values) {
+                boolean found;
+                switch (at) {
+                    case START:
+                        found = f.regionMatches(0, value);
+                        break;
+                    case END:
+                        found = f.regionMatches(f.getLength() - value.length(), value);
+                        break;
+                    case WHOLE:
+                        found = f.getLength() == value.length() && f.regionMatches(0, value);
+                        break;
+                    default:
+                        found = f.indexOf(value) >= 0;
+                }
+                if (found) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean mayMatch(int summary) {
+            // A number containing the literal contains its runs, sequences, pairs and 168 too
+            for (int v = 0; v < values.length; v++) {
+                if (DigitChunks.longestRun(summary) >= runs[v]
+                        && DigitChunks.longestSequence(summary) >= sequences[v]
+                        && DigitChunks.adjacentPairs(summary) >= pairs[v]
+                        && (!contains168[v] || DigitChunks.has168(summary))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String describe() {
+            String list = String.join(" or ", values);
+            switch (at) {
+                case START:
+                    return "starts with " + list;
+                case END:
+                    return "ends with " + list;
+                case WHOLE:
+                    return "is " + list;
+                default:
+                    return "contains " + list;
+            }
+        }
+    }
+
+    /**
+     * Aligned 3-digit groups made of one repeated digit. {@code identical} requires the groups to share
+     * the digit; an order other than ANY needs exactly {@code same} groups, all of them same-digit groups.
+     */
+    static final class Groups implements PricingCondition {
+        private final int same;
+        private final boolean identical;
+        private final GroupOrder order;
+
+        Groups(int same, boolean identical, GroupOrder order) {
+            this.same = same;
+            this.identical = identical;
+            this.order = order;
+        }
+
+        @Override
+        public boolean matches(DigitFeatures f) {
+            int groups = f.getGroupCount();
+            int sameGroups = 0;
+            int[] perDigit = new int[10];
+            int best = 0;
+            for (int g = 0; g < groups; g++) {
+                if (f.isSameDigitGroup(g)) {
+                    sameGroups++;
+                    best = Math.max(best, ++perDigit[f.getGroupDigit(g)]);
+                }
+            }
+            if ((identical ? best : sameGroups) < same) {
+                return false;
+            }
+            if (order == GroupOrder.ANY) {
+                return true;
+            }
+            if (groups != same || sameGroups != groups) {
+                return false;
+            }
+            return monotonic(f, groups) == (order == GroupOrder.MONOTONIC);
+        }
+
+        private static boolean monotonic(DigitFeatures f, int groups) {
+            boolean ascending = true;
+            boolean descending = true;
+            for (int g = 1; g < groups; g++) {
+                ascending &= f.getGroupDigit(g) > f.getGroupDigit(g - 1);
+                descending &= f.getGroupDigit(g) < f.getGroupDigit(g - 1);
+            }
+            return ascending || descending;
+        }
+
+        @Override
+        public boolean mayMatch(int summary) {
+            return Integer.bitCount(DigitChunks.sameDigitGroups(summary)) >= same;
+        }
+
+        @Override
+        public String describe() {
+            String description = same + (identical ? " identical" : "") + " groups of 3 same digits";
+            switch (order) {
+                case MONOTONIC:
+                    return description + " in order";
+                case NOT_MONOTONIC:
+                    return description + " not in order";
+                default:
+                    return description;
+            }
+        }
+    }
+
+    private static Placement placement(Map<?, ?> params, Placement defaultValue) {
+        Object value = params.get("at");
+        return value == null ? defaultValue : Placement.valueOf(String.valueOf(value).toUpperCase(Locale.ROOT));
+    }
+
+    private static int intParam(Map<?, ?> params, String name, Integer defaultValue) {
+        Object value = params.get(name);
+        if (value == null) {
+            if (defaultValue == null) {
+                throw new IllegalArgumentException("'" + name + "' is required");
+            }
+            return defaultValue;
+        }
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("'" + name + "' must be a number");
+        }
+        return ((Number) value).intValue();
+    }
+
+    private static String stringParam(Map<?, ?> params, String name) {
+        Object value = params.get(name);
+        return value == null ? null : String.valueOf(value);
+    }
+
+    private static List<String> stringList(Map<?, ?> params, String name) {
+        Object value = params.get(name);
+        if (value instanceof Collection) {
+            List<String> values = new ArrayList<>();
+            for (Object item : (Collection<?>) value) {
+                values.add(String.valueOf(item));
+            }
+            return values;
+        }
+        return value == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(String.valueOf(value)));
+    }
+}
@@ -0,0 +1,353 @@
+package com.account_sell.utils.pricing;
+
+import com.account_sell.enumation.PriceRange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * A compiled, immutable set of pricing rules.
+ * <p>
+ * Rules are checked top to bottom against one {@link DigitFeatures} scan and the first match decides
+ * the tier; numbers matching no rule get the DEFAULT tier. Tier prices come from the rule file and
+ * fall back to the {@link PriceRange} defaults.
+ */
+public final class PricingRuleSet {
+
+    public static final String NO_RULE_ID = "NONE";
+
+    // Digits of Integer.MAX_VALUE
+    private static final int MAX_INT_DIGITS = 10;
+    // Below this a batch is cheaper to price on the calling thread than to split
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    // Each chunk is a few milliseconds of work, enough to amortize scheduling
+    private static final int PARALLEL_CHUNK = 1 << 14;
+
+    private final Rule[] rules;
+    private final Rule noRule;
+    private final Map<PriceRange, Double> tierPrices;
+    private final String source;
+    // First rule that may match a chunk summary, filled in on first use: 0 when not known yet, else index + 1
+    private final char[] firstCandidate = new char[1 << DigitChunks.SUMMARY_BITS];
+
+    private PricingRuleSet(List<Rule> rules, Map<PriceRange, Double> tierPrices, String source) {
+        if (rules.size() >= Character.MAX_VALUE) {
+            throw new IllegalArgumentException(source + " has too many rules");
+        }
+        this.rules = rules.toArray(new Rule[0]);
+        this.tierPrices = tierPrices;
+        this.noRule = new Rule(NO_RULE_ID, PriceRange.DEFAULT, tierPrices.get(PriceRange.DEFAULT),
+                Collections.emptyList());
+        this.source = source;
+    }
+
+    /**
+     * Parses and compiles a rule file; nothing is shared with the currently active rules.
+     *
+     * @throws IllegalArgumentException when the file is not a valid rule definition
+     */
+    public static PricingRuleSet load(InputStream input, String source) {
+        Object document;
+        try {
+            document = new Yaml(new SafeConstructor()).load(input);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cannot parse " + source + ": " + e.getMessage(), e);
+        }
+        if (!(document instanceof Map)) {
+            throw new IllegalArgumentException(source + " must contain 'tiers' and 'rules'");
+        }
+        Map<?, ?> root = (Map<?, ?>) document;
+
+        Map<PriceRange, Double> tierPrices = new EnumMap<>(PriceRange.class);
+        for (PriceRange tier : PriceRange.values()) {
+            tierPrices.put(tier, tier.getPrice());
+        }
+        Object tiers = root.get("tiers");
+        if (tiers instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) tiers).entrySet()) {
+                if (!(entry.getValue() instanceof Number)) {
+                    throw new IllegalArgumentException("Price of tier " + entry.getKey() + " must be a number");
+                }
+                tierPrices.put(tier(entry.getKey()), ((Number) entry.getValue()).doubleValue());
+            }
+        }
+
+        Object ruleList = root.get("rules");
+        if (!(ruleList instanceof List)) {
+            throw new IllegalArgumentException(source + " must contain a 'rules' list");
+        }
+        List<Rule> rules = new ArrayList<>();
+        for (Object item : (List<?>) ruleList) {
+            if (!(item instanceof Map)) {
+                throw new IllegalArgumentException("Each rule must have an id, a tier and conditions");
+            }
+            Map<?, ?> definition = (Map<?, ?>) item;
+            String id = String.valueOf(definition.get("id"));
+            try {
+                PriceRange tier = tier(definition.get("tier"));
+                rules.add(new Rule(id, tier, tierPrices.get(tier), conditions(definition.get("when"))));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rule " + id + ": " + e.getMessage(), e);
+            }
+        }
+        return new PricingRuleSet(rules, tierPrices, source);
+    }
+
+    private static List<PricingCondition> conditions(Object when) {
+        if (!(when instanceof List) || ((List<?>) when).isEmpty()) {
+            throw new IllegalArgumentException("'when' must list at least one condition");
+        }
+        List<PricingCondition> conditions = new ArrayList<>();
+        for (Object item : (List<?>) when) {
+            if (!(item instanceof Map) || ((Map<?, ?>) item).size() != 1) {
+                throw new IllegalArgumentException("each condition must be a single 'type: {parameters}' entry");
+            }
+            Map.Entry<?, ?> condition = ((Map<?, ?>) item).entrySet().iterator().next();
+            Map<?, ?> params = condition.getValue() instanceof Map ? (Map<?, ?>) condition.getValue() : Collections.emptyMap();
+            conditions.add(PricingConditions.parse(String.valueOf(condition.getKey()), params));
+        }
+        return conditions;
+    }
+
+    private static PriceRange tier(Object name) {
+        try {
+            return PriceRange.valueOf(String.valueOf(name).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown tier '" + name + "'");
+        }
+    }
+
+    /**
+     * The first rule the number matches, or the no-rule entry for the DEFAULT tier
+     */
+    public Rule match(DigitFeatures features) {
+        for (Rule rule : rules) {
+            if (rule.matches(features)) {
+                return rule;
+            }
+        }
+        return noRule;
+    }
+
+    public Rule match(String accountNumber) {
+        int length = accountNumber.length();
+        if (length == 0 || length > 9 || length % 3 != 0) {
+            return match(DigitFeatures.of(accountNumber));
+        }
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return match(DigitFeatures.of(accountNumber));
+            }
+            value = value * 10 + (c - '0');
+        }
+        return matchChunked(value, length, null);
+    }
+
+    /**
+     * Matching for widths that are a multiple of 3: a {@link DigitChunks} summary from three table
+     * lookups rules out most rules, and the full scan only runs once a rule might match. The first
+     * rule that may match is cached per summary, so most numbers, which match no rule, cost the three
+     * lookups and one array read.
+     *
+     * @param features reusable buffer for the scan, or null to allocate one if needed
+     */
+    private Rule matchChunked(int value, int width, DigitFeatures features) {
+        int summary = DigitChunks.summary(value, width);
+        int first = firstCandidate[summary];
+        if (first == 0) {
+            // Racing threads compute and store the same value
+            first = firstCandidate(summary) + 1;
+            firstCandidate[summary] = (char) first;
+        }
+        if (first > rules.length) {
+            return noRule;
+        }
+
+        features = (features != null ? features : DigitFeatures.reusable(width)).load(value, width);
+        for (int r = first - 1; r < rules.length; r++) {
+            if (rules[r].mayMatch(summary) && rules[r].matches(features)) {
+                return rules[r];
+            }
+        }
+        return noRule;
+    }
+
+    private int firstCandidate(int summary) {
+        for (int r = 0; r < rules.length; r++) {
+            if (rules[r].mayMatch(summary)) {
+                return r;
+            }
+        }
+        return rules.length;
+    }
+
+    /**
+     * Tier ordinals of all numbers, each zero-padded to {@code width} digits. Arrays above
+     * {@value #PARALLEL_THRESHOLD} numbers are split into chunks priced on the common fork-join pool.
+     *
+     * @throws IllegalArgumentException if a number is negative or has more than {@code width} digits
+     */
+    public byte[] matchTiers(int[] numbers, int width) {
+        checkRange(numbers, width, 0, numbers.length);
+        byte[] tiers = new byte[numbers.length];
+        if (numbers.length <= PARALLEL_THRESHOLD) {
+            priceTiers(numbers, width, tiers, 0, numbers.length);
+            return tiers;
+        }
+
+        int chunks = (numbers.length + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * PARALLEL_CHUNK;
+            priceTiers(numbers, width, tiers, from, Math.min(from + PARALLEL_CHUNK, numbers.length));
+        });
+        return tiers;
+    }
+
+    /**
+     * Writes the tier ordinal of {@code numbers[from..to)} into {@code tiers}, each number zero-padded
+     * to {@code width} digits. One features buffer is reused for the whole range, so nothing is
+     * allocated per number. Rule hit counters are not updated, they count numbers actually priced.
+     *
+     * @throws IllegalArgumentException if a number is negative or has more than {@code width} digits
+     */
+    public void matchTiers(int[] numbers, int width, byte[] tiers, int from, int to) {
+        checkRange(numbers, width, from, to);
+        priceTiers(numbers, width, tiers, from, to);
+    }
+
+    private void priceTiers(int[] numbers, int width, byte[] tiers, int from, int to) {
+        DigitFeatures features = DigitFeatures.reusable(width);
+        boolean chunked = width % 3 == 0 && width <= 9;
+        for (int i = from; i < to; i++) {
+            Rule rule = chunked
+                    ? matchChunked(numbers[i], width, features)
+                    : match(features.load(numbers[i], width));
+            tiers[i] = rule.tierOrdinal;
+        }
+    }
+
+    // A number out of range would be priced as some other number, or index past the chunk tables
+    private static void checkRange(int[] numbers, int width, int from, int to) {
+        if (width < 1 || width > MAX_INT_DIGITS) {
+            throw new IllegalArgumentException("Width must be between 1 and " + MAX_INT_DIGITS);
+        }
+        long limit = 1;
+        for (int digit = 0; digit < width; digit++) {
+            limit *= 10;
+        }
+        for (int i = from; i < to; i++) {
+            if (numbers[i] < 0 || numbers[i] >= limit) {
+                throw new IllegalArgumentException("Number " + numbers[i] + " at index " + i
+                        + " does not fit in " + width + " digits");
+            }
+        }
+    }
+
+    public double priceOf(PriceRange tier) {
+        return tierPrices.get(tier);
+    }
+
+    /**
+     * The tier charged at this price, or null if no tier has it
+     */
+    public PriceRange tierOf(double price) {
+        for (Map.Entry<PriceRange, Double> entry : tierPrices.entrySet()) {
+            if (entry.getValue() == price) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    public List<Rule> getRules() {
+        List<Rule> all = new ArrayList<>(rules.length + 1);
+        Collections.addAll(all, rules);
+        all.add(noRule);
+        return all;
+    }
+
+    public Map<PriceRange, Double> getTierPrices() {
+        return Collections.unmodifiableMap(tierPrices);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public static final class Rule {
+        private final String id;
+        private final PriceRange tier;
+        private final double price;
+        private final byte tierOrdinal;
+        private final PricingCondition[] conditions;
+        private final Counter hits;
+
+        private Rule(String id, PriceRange tier, double price, List<PricingCondition> conditions) {
+            this.id = id;
+            this.tier = tier;
+            this.price = price;
+            this.tierOrdinal = (byte) tier.ordinal();
+            this.conditions = conditions.toArray(new PricingCondition[0]);
+            // Same name and tags as before a reload, so the counter carries on
+            this.hits = Counter.builder("pricing.rule.hits")
+                    .description("Account numbers priced, by deciding rule and price tier")
+                    .tag("rule", id)
+                    .tag("tier", tier.name())
+                    .register(Metrics.globalRegistry);
+        }
+
+        private boolean mayMatch(int summary) {
+            for (PricingCondition condition : conditions) {
+                if (!condition.mayMatch(summary)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean matches(DigitFeatures features) {
+            for (PricingCondition condition : conditions) {
+                if (!condition.matches(features)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public void recordHit() {
+            hits.increment();
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public PriceRange getTier() {
+            return tier;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public List<String> getConditions() {
+            List<String> descriptions = new ArrayList<>(conditions.length);
+            for (PricingCondition condition : conditions) {
+                descriptions.add(condition.describe());
+            }
+            return descriptions;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.account_sell.utils.pricing;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Holds the active pricing rules for the static pricing utilities.
+ * <p>
+ * Starts with the rule file bundled on the classpath. A reload compiles the new file completely
+ * and then swaps it in with a single volatile write, so pricing calls never wait and each call sees
+ * either the old or the new rules, never a mix.
+ */
+public final class PricingRules {
+
+    public static final String DEFAULT_LOCATION = "pricing-rules.yml";
+
+    private static volatile PricingRuleSet active = loadDefault();
+
+    private PricingRules() {
+    }
+
+    public static PricingRuleSet active() {
+        return active;
+    }
+
+    public static void activate(PricingRuleSet rules) {
+        active = rules;
+    }
+
+    private static PricingRuleSet loadDefault() {
+        try (InputStream input = PricingRules.class.getClassLoader().getResourceAsStream(DEFAULT_LOCATION)) {
+            if (input == null) {
+                throw new IllegalStateException("Bundled " + DEFAULT_LOCATION + " is missing");
+            }
+            return PricingRuleSet.load(input, "classpath:" + DEFAULT_LOCATION);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read bundled " + DEFAULT_LOCATION, e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.account_sell.utils.pricing;
+
+import com.account_sell.enumation.FilterType;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The layout of an account number as the leading digits of its account type followed by a region, and
+ * where a digit pattern can be placed in that region.
+ * <p>
+ * Numbers are handled as ints of {@value AccountPattern#LENGTH} digits. The counters, the candidate
+ * spaces, the generators and the inventory all place patterns through this class, so they agree on which
+ * numbers a search covers: START_WITH puts the pattern at the start of the region, END_WITH at the end of
+ * the number and CONTAIN anywhere in the region.
+ */
+public final class RegionLayout {
+
+    static final int[] POW10 = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000,
+            1_000_000_000};
+
+    private final int[] leads;
+    private final int leadLength;
+    private final int regionLength;
+
+    /**
+     * @param leads leading digits of the account type, all of the same length ("" for none)
+     */
+    public RegionLayout(List<String> leads) {
+        this.leads = new int[leads.size()];
+        for (int i = 0; i < this.leads.length; i++) {
+            this.leads[i] = leads.get(i).isEmpty() ? 0 : Integer.parseInt(leads.get(i));
+        }
+        this.leadLength = leads.get(0).length();
+        this.regionLength = AccountPattern.LENGTH - leadLength;
+    }
+
+    public int leadLength() {
+        return leadLength;
+    }
+
+    public int regionLength() {
+        return regionLength;
+    }
+
+    public int leadCount() {
+        return leads.length;
+    }
+
+    public int lead(int index) {
+        return leads[index];
+    }
+
+    public int randomLead(Random random) {
+        return leads[random.nextInt(leads.length)];
+    }
+
+    /**
+     * The number made of a lead and the digits of a region
+     */
+    public int number(int lead, int region) {
+        return lead * POW10[regionLength] + region;
+    }
+
+    /**
+     * The region of a number, without its lead
+     */
+    public int region(int number) {
+        return number % POW10[regionLength];
+    }
+
+    /**
+     * The part of a pattern that fits the region: its end for END_WITH, its start otherwise
+     */
+    public String fit(String pattern, FilterType filter) {
+        if (pattern.length() <= regionLength) {
+            return pattern;
+        }
+        return filter == FilterType.END_WITH
+                ? pattern.substring(pattern.length() - regionLength)
+                : pattern.substring(0, regionLength);
+    }
+
+    /**
+     * Number of free digit combinations left around a pattern of this length
+     */
+    public int freeValues(int patternLength) {
+        return POW10[regionLength - patternLength];
+    }
+
+    /**
+     * First position in the region the filter lets a pattern of this length start at
+     */
+    public int firstPosition(FilterType filter, int patternLength) {
+        return filter == FilterType.END_WITH ? regionLength - patternLength : 0;
+    }
+
+    /**
+     * Last position in the region the filter lets a pattern of this length start at
+     */
+    public int lastPosition(FilterType filter, int patternLength) {
+        return filter == FilterType.START_WITH ? 0 : regionLength - patternLength;
+    }
+
+    /**
+     * The region with the pattern at the position and the free digits split around it: the leading
+     * digits of {@code value} before the pattern and the rest after it
+     *
+     * @param value free digits, below {@link #freeValues(int)}
+     */
+    public int place(int pattern, int patternLength, int position, int value) {
+        int after = regionLength - patternLength - position;
+        return (value / POW10[after]) * POW10[regionLength - position]
+                + pattern * POW10[after]
+                + value % POW10[after];
+    }
+
+    /**
+     * A number with a random lead, the pattern placed as the filter requires and random digits elsewhere
+     */
+    public int randomPlacement(int pattern, int patternLength, FilterType filter, Random random) {
+        int first = firstPosition(filter, patternLength);
+        int position = first + random.nextInt(lastPosition(filter, patternLength) - first + 1);
+        int region = place(pattern, patternLength, position, random.nextInt(freeValues(patternLength)));
+        return number(randomLead(random), region);
+    }
+
+    /**
+     * First position in the region where the pattern occurs
+     *
+     * @return the position, or -1 when the region does not carry the pattern
+     */
+    public int firstOccurrence(int region, int pattern, int patternLength) {
+        for (int position = 0; position <= regionLength - patternLength; position++) {
+            if ((region / POW10[regionLength - position - patternLength]) % POW10[patternLength] == pattern) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The number as a zero-padded account number string
+     */
+    public static String toAccountNumber(int number) {
+        char[] digits = new char[AccountPattern.LENGTH];
+        for (int i = digits.length - 1; i >= 0; i--, number /= 10) {
+            digits[i] = (char) ('0' + number % 10);
+        }
+        return new String(digits);
+    }
+}
@@ -0,0 +1,140 @@
+package com.account_sell.utils.pricing;
+
+import com.account_sell.enumation.PriceRange;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * A walk over a {@link CandidateSpace} in an order fixed by a seed, that can be stopped and resumed at
+ * any position.
+ * <p>
+ * The order is a pseudo-random permutation of the indexes: a 4-round Feistel network over the smallest
+ * even number of bits that covers the space, with results outside the space walked through the network
+ * again until they land inside (cycle walking). Any position maps to its index in constant time, so a
+ * later page starts where the previous one stopped without redoing it, and the same seed and position
+ * always give the same numbers.
+ */
+public final class SeededWalk {
+
+    // Bounds the work of one page when few numbers are in the price range
+    public static final int MAX_SCAN_PER_PAGE = 1 << 22;
+
+    private static final int ROUNDS = 4;
+    private static final int BLOCK = 1 << 12;
+
+    private final CandidateSpace space;
+    private final long seed;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] keys = new long[ROUNDS];
+    private long position;
+
+    public SeededWalk(CandidateSpace space, long seed, long position) {
+        this.space = space;
+        this.seed = seed;
+        this.position = position;
+        int bits = Math.max(2, Long.SIZE - Long.numberOfLeadingZeros(Math.max(1, space.size() - 1)));
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int r = 0; r < ROUNDS; r++) {
+            keys[r] = random.nextLong();
+        }
+    }
+
+    /**
+     * Walks on until {@code count} numbers are in the price range, the space is exhausted or
+     * {@value #MAX_SCAN_PER_PAGE} positions have been read
+     *
+     * @return the numbers in range with their prices, in walk order
+     */
+    public List<Map.Entry<String, Double>> next(int count, double minPrice, double maxPrice) {
+        // One snapshot of the rules prices the whole page
+        PricingRuleSet rules = PricingRules.active();
+        double[] prices = new double[PriceRange.values().length];
+        for (PriceRange tier : PriceRange.values()) {
+            prices[tier.ordinal()] = rules.priceOf(tier);
+        }
+
+        List<Map.Entry<String, Double>> result = new ArrayList<>();
+        long scanLimit = Math.min(space.size(), position + MAX_SCAN_PER_PAGE);
+        int[] block = new int[BLOCK];
+        // Offset from the block's first position of each number read
+        int[] offsets = new int[BLOCK];
+        while (result.size() < count && position < scanLimit) {
+            // Read a block of positions, dropping the empty slots
+            int read = (int) Math.min(BLOCK, scanLimit - position);
+            int n = 0;
+            for (int i = 0; i < read; i++) {
+                int number = space.numberAt(indexAt(position + i));
+                if (number >= 0) {
+                    offsets[n] = i;
+                    block[n++] = number;
+                }
+            }
+
+            byte[] tiers = rules.matchTiers(n == BLOCK ? block : Arrays.copyOf(block, n), AccountPattern.LENGTH);
+            int used = read;
+            for (int i = 0; i < n; i++) {
+                double price = prices[tiers[i]];
+                if (price >= minPrice && price <= maxPrice) {
+                    result.add(new AbstractMap.SimpleEntry<>(RegionLayout.toAccountNumber(block[i]), price));
+                    if (result.size() == count) {
+                        // The next page resumes right after the last number taken
+                        used = offsets[i] + 1;
+                        break;
+                    }
+                }
+            }
+            position += used;
+        }
+        return result;
+    }
+
+    /**
+     * Index of the space at a position of the walk
+     */
+    public long indexAt(long position) {
+        long x = position;
+        do {
+            x = permute(x);
+        } while (x >= space.size());
+        return x;
+    }
+
+    private long permute(long x) {
+        long left = x >>> halfBits;
+        long right = x & halfMask;
+        for (long key : keys) {
+            long mixed = left ^ (mix(right ^ key) & halfMask);
+            left = right;
+            right = mixed;
+        }
+        return left << halfBits | right;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Position the next page starts from
+    public long getPosition() {
+        return position;
+    }
+
+    public boolean isExhausted() {
+        return position >= space.size();
+    }
+}
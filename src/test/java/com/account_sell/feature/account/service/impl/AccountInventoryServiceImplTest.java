@@ -0,0 +1,141 @@
+package com.account_sell.feature.account.service.impl;
+
+import com.account_sell.enumation.AccountType;
+import com.account_sell.enumation.PriceRange;
+import com.account_sell.utils.pricing.PricingRuleSet;
+import com.account_sell.utils.pricing.PricingRules;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the inventory on rules made for the test: runs of 3 are MID_50 and HIGH_3000 can never match, so
+ * HIGH_3000 starves on the first pass while MID_50 and DEFAULT fill.
+ */
+class AccountInventoryServiceImplTest {
+
+    private static final int CAPACITY = 100;
+
+    private static final PricingRuleSet RUNS = rules("rules:\n" +
+            "  - id: NEVER\n    tier: HIGH_3000\n    when:\n      - run: { length: 10 }\n" +
+            "  - id: RUN\n    tier: MID_50\n    when:\n      - run: { length: 3 }\n");
+    private static final PricingRuleSet LUCKY = rules("rules:\n" +
+            "  - id: RUN\n    tier: HIGH_3000\n    when:\n      - run: { length: 5 }\n" +
+            "  - id: LUCKY\n    tier: MID_50\n    when:\n      - literal: { values: [\"168\"] }\n");
+
+    private PricingRuleSet original;
+    private SimpleMeterRegistry meterRegistry;
+    private AccountInventoryServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        original = PricingRules.active();
+        PricingRules.activate(RUNS);
+
+        meterRegistry = new SimpleMeterRegistry();
+        service = new AccountInventoryServiceImpl(meterRegistry);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "capacity", CAPACITY);
+        ReflectionTestUtils.setField(service, "lowWaterMark", CAPACITY / 2);
+        ReflectionTestUtils.setField(service, "candidatesPerRefill", 1 << 16);
+        service.init();
+    }
+
+    @AfterEach
+    void restoreRules() {
+        PricingRules.activate(original);
+    }
+
+    @Test
+    void passFillsTheTiersItFindsAndBacksOffTheOthers() {
+        service.replenish();
+
+        assertEquals(CAPACITY, pool(AccountType.NORMAL, PriceRange.MID_50).size());
+        assertEquals(CAPACITY, pool(AccountType.NORMAL, PriceRange.DEFAULT).size());
+        assertFalse(pool(AccountType.NORMAL, PriceRange.MID_50).isStarved());
+
+        InventoryPool never = pool(AccountType.NORMAL, PriceRange.HIGH_3000);
+        assertEquals(0, never.size());
+        assertTrue(never.isStarved());
+        assertTrue(never.isBackingOff(2));
+        assertFalse(never.isBackingOff(3));
+
+        // Pass 2 leaves it alone, pass 3 targets it again and doubles the wait
+        service.replenish();
+        assertFalse(never.isBackingOff(3));
+        service.replenish();
+        assertTrue(never.isBackingOff(6));
+        assertFalse(never.isBackingOff(7));
+    }
+
+    @Test
+    void starvedTierIsNotSearchedLive() {
+        service.replenish();
+        InventoryPool mid = pool(AccountType.NORMAL, PriceRange.MID_50);
+
+        assertPricedAt(PriceRange.MID_50, service.take(AccountType.NORMAL, PriceRange.MID_50, 10));
+        assertEquals(CAPACITY - 10, mid.size());
+
+        // A live search would also have topped up MID_50
+        assertTrue(service.take(AccountType.NORMAL, PriceRange.HIGH_3000, 5).isEmpty());
+        assertEquals(CAPACITY - 10, mid.size());
+        assertEquals(1, meterRegistry.counter("inventory.shortfall",
+                "account_type", "NORMAL", "tier", "HIGH_3000").count());
+
+        // A tier that is only drained is searched live for the rest
+        List<Map.Entry<String, Double>> taken = service.take(AccountType.NORMAL, PriceRange.MID_50, CAPACITY);
+        assertEquals(CAPACITY, taken.size());
+        assertPricedAt(PriceRange.MID_50, taken);
+    }
+
+    @Test
+    void reloadEmptiesThePoolsAndTheirBackoff() {
+        service.replenish();
+        assertEquals(CAPACITY, pool(AccountType.CASA, PriceRange.MID_50).size());
+        assertTrue(pool(AccountType.NORMAL, PriceRange.HIGH_3000).isStarved());
+
+        PricingRules.activate(LUCKY);
+
+        // Numbers pooled under the old rules would be runs of 3, not numbers with 168
+        assertPricedAt(PriceRange.MID_50, service.take(AccountType.NORMAL, PriceRange.MID_50, 20));
+        assertEquals(0, pool(AccountType.CASA, PriceRange.MID_50).size());
+        // No longer starved, so HIGH_3000 is searched live and found under the new rules
+        List<Map.Entry<String, Double>> taken = service.take(AccountType.NORMAL, PriceRange.HIGH_3000, 3);
+        assertEquals(3, taken.size());
+        assertPricedAt(PriceRange.HIGH_3000, taken);
+    }
+
+    private InventoryPool pool(AccountType accountType, PriceRange tier) {
+        @SuppressWarnings("unchecked")
+        Map<AccountType, InventoryPool[]> pools =
+                (Map<AccountType, InventoryPool[]>) ReflectionTestUtils.getField(service, "pools");
+        return pools.get(accountType)[tier.ordinal()];
+    }
+
+    private static void assertPricedAt(PriceRange tier, List<Map.Entry<String, Double>> taken) {
+        PricingRuleSet rules = PricingRules.active();
+        Set<String> distinct = new HashSet<>();
+        for (Map.Entry<String, Double> entry : taken) {
+            assertTrue(distinct.add(entry.getKey()), "Took " + entry.getKey() + " twice");
+            assertEquals(tier, rules.match(entry.getKey()).getTier(), entry.getKey());
+            assertEquals(rules.priceOf(tier), entry.getValue());
+        }
+    }
+
+    private static PricingRuleSet rules(String yaml) {
+        return PricingRuleSet.load(new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8)), "test");
+    }
+}
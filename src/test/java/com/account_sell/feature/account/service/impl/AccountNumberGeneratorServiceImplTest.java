@@ -0,0 +1,162 @@
+package com.account_sell.feature.account.service.impl;
+
+import com.account_sell.enumation.AccountType;
+import com.account_sell.enumation.FilterType;
+import com.account_sell.enumation.PriceRange;
+import com.account_sell.exceptions.error.InvalidInputException;
+import com.account_sell.feature.account.dto.request.GenerateAccountRequest;
+import com.account_sell.feature.account.dto.resposne.GenerateAccountResponse;
+import com.account_sell.feature.account.mapper.SpecialAccountMapperImpl;
+import com.account_sell.feature.account.service.AccountInventoryService;
+import com.account_sell.utils.AccountNumberUtil;
+import com.account_sell.utils.pricing.MatchCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class AccountNumberGeneratorServiceImplTest {
+
+    private static final double MIN_PRICE = 0;
+    private static final double MAX_PRICE = 1_000_000;
+    private static final long COUNT_TIMEOUT_MS = 30_000;
+
+    private AccountNumberGeneratorServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AccountNumberGeneratorServiceImpl(new SpecialAccountMapperImpl(),
+                mock(AccountInventoryService.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void estimatedTotalIsReplacedByTheExactCount() throws InterruptedException {
+        // 600,000 placements: too many for the request thread, few enough to count in the background
+        GenerateAccountRequest request = request(AccountType.NORMAL, FilterType.CONTAIN, "1234");
+        MatchCounter.Histogram exact = MatchCounter.histogram(AccountNumberUtil.leadingDigits(AccountType.NORMAL),
+                "1234", FilterType.CONTAIN, Long.MAX_VALUE);
+
+        GenerateAccountResponse first = service.generateSpecialAccountNumbers(request, 5);
+        assertFalse(first.isTotalCountExact());
+
+        GenerateAccountResponse response = first;
+        long deadline = System.currentTimeMillis() + COUNT_TIMEOUT_MS;
+        while (!response.isTotalCountExact() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            response = service.generateSpecialAccountNumbers(request, 5);
+        }
+        assertTrue(response.isTotalCountExact(), "Exact count did not replace the estimate");
+        assertEquals(exact.count(MIN_PRICE, MAX_PRICE), response.getTotalCount());
+
+        // Other price ranges of the same search are answered from the exact entry without counting again
+        request.setMinPrice(exact.getRules().priceOf(PriceRange.MID_50));
+        GenerateAccountResponse narrowed = service.generateSpecialAccountNumbers(request, 5);
+        assertTrue(narrowed.isTotalCountExact());
+        assertEquals(exact.count(request.getMinPrice(), MAX_PRICE), narrowed.getTotalCount());
+    }
+
+    @Test
+    void cheapSearchesAreCountedExactlyOnTheRequest() {
+        GenerateAccountRequest request = request(AccountType.CASA, FilterType.START_WITH, "1234");
+
+        GenerateAccountResponse response = service.generateSpecialAccountNumbers(request, 5);
+
+        assertTrue(response.isTotalCountExact());
+        assertEquals(MatchCounter.histogram(AccountNumberUtil.leadingDigits(AccountType.CASA), "1234",
+                FilterType.START_WITH, Long.MAX_VALUE).count(MIN_PRICE, MAX_PRICE), response.getTotalCount());
+    }
+
+    @Test
+    void cursorsPageThroughEveryNumberOnce() {
+        // 200 CASA numbers: 000 or 001, then 1234, then two free digits
+        GenerateAccountRequest request = request(AccountType.CASA, FilterType.START_WITH, "1234");
+        request.setSeed(7L);
+
+        Set<String> walked = new HashSet<>();
+        GenerateAccountResponse page = service.generateSpecialAccountNumbers(request, 30);
+        long total = page.getTotalCount();
+        while (true) {
+            assertEquals(7L, page.getSeed());
+            for (GenerateAccountResponse.AccountDetails details : page.getAccountNumberDetails()) {
+                assertTrue(details.getAccountNumber().matches("00[01]1234\\d\\d"), details.getAccountNumber());
+                assertTrue(walked.add(details.getAccountNumber()), "Paged " + details.getAccountNumber() + " twice");
+            }
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            request.setSeed(null);
+            request.setCursor(page.getNextCursor());
+            page = service.generateSpecialAccountNumbers(request, 30);
+        }
+        assertEquals(200, total);
+        assertEquals(total, walked.size());
+    }
+
+    @Test
+    void sameCursorGivesTheSamePage() {
+        GenerateAccountRequest request = request(AccountType.NORMAL, FilterType.CONTAIN, "12345");
+        request.setSeed(11L);
+        String cursor = service.generateSpecialAccountNumbers(request, 20).getNextCursor();
+        assertNotNull(cursor);
+
+        request.setSeed(null);
+        request.setCursor(cursor);
+        GenerateAccountResponse first = service.generateSpecialAccountNumbers(request, 20);
+        GenerateAccountResponse second = service.generateSpecialAccountNumbers(request, 20);
+        assertEquals(first.getAccountNumberDetails(), second.getAccountNumberDetails());
+        assertEquals(first.getNextCursor(), second.getNextCursor());
+    }
+
+    @Test
+    void cursorsFromAnotherSearchAreRejected() {
+        GenerateAccountRequest request = request(AccountType.CASA, FilterType.START_WITH, "1234");
+        request.setSeed(7L);
+        String cursor = service.generateSpecialAccountNumbers(request, 30).getNextCursor();
+        assertNotNull(cursor);
+
+        GenerateAccountRequest otherPattern = request(AccountType.CASA, FilterType.START_WITH, "1235");
+        otherPattern.setCursor(cursor);
+        assertEquals("Cursor does not belong to this search", assertThrows(InvalidInputException.class,
+                () -> service.generateSpecialAccountNumbers(otherPattern, 30)).getMessage());
+
+        GenerateAccountRequest otherPrices = request(AccountType.CASA, FilterType.START_WITH, "1234");
+        otherPrices.setMaxPrice(MAX_PRICE / 2);
+        otherPrices.setCursor(cursor);
+        assertThrows(InvalidInputException.class, () -> service.generateSpecialAccountNumbers(otherPrices, 30));
+
+        GenerateAccountRequest otherType = request(AccountType.LOAN, FilterType.START_WITH, "1234");
+        otherType.setCursor(cursor);
+        assertThrows(InvalidInputException.class, () -> service.generateSpecialAccountNumbers(otherType, 30));
+
+        for (String malformed : new String[]{"not a cursor", "MTIz", "", "LTE6LTE6YQ"}) {
+            GenerateAccountRequest garbled = request(AccountType.CASA, FilterType.START_WITH, "1234");
+            garbled.setCursor(malformed);
+            assertEquals("Invalid cursor", assertThrows(InvalidInputException.class,
+                    () -> service.generateSpecialAccountNumbers(garbled, 30)).getMessage(), malformed);
+        }
+    }
+
+    private static GenerateAccountRequest request(AccountType accountType, FilterType filter, String pattern) {
+        GenerateAccountRequest request = new GenerateAccountRequest();
+        request.setUserInputMinunum4DigitalTo9(pattern);
+        request.setMinPrice(MIN_PRICE);
+        request.setMaxPrice(MAX_PRICE);
+        request.setFilter(filter);
+        request.setAccountType(accountType);
+        return request;
+    }
+}
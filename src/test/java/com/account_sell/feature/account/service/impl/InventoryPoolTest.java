@@ -0,0 +1,79 @@
+package com.account_sell.feature.account.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventoryPoolTest {
+
+    @Test
+    void offersDistinctNumbersUpToCapacity() {
+        InventoryPool pool = new InventoryPool(3);
+
+        assertTrue(pool.offer(1));
+        assertFalse(pool.offer(1));
+        assertTrue(pool.offer(2));
+        assertTrue(pool.offer(3));
+        assertFalse(pool.offer(4));
+        assertEquals(3, pool.size());
+    }
+
+    @Test
+    void pollsOldestFirstAcrossTheEndOfTheBuffer() {
+        InventoryPool pool = new InventoryPool(3);
+        pool.offer(1);
+        pool.offer(2);
+        pool.offer(3);
+        int[] out = new int[5];
+
+        assertEquals(2, pool.poll(out, 0, 2));
+        // A polled number can be pooled again
+        assertTrue(pool.offer(1));
+        assertTrue(pool.offer(4));
+        assertEquals(3, pool.poll(out, 2, 5));
+        assertArrayEquals(new int[]{1, 2, 3, 1, 4}, out);
+        assertEquals(0, pool.size());
+        assertEquals(0, pool.poll(out, 0, 1));
+    }
+
+    @Test
+    void starvedPassesDoubleTheBackoffUpToSixtyFourPasses() {
+        InventoryPool pool = new InventoryPool(1);
+        assertFalse(pool.isStarved());
+        assertFalse(pool.isBackingOff(1));
+
+        long pass = 1;
+        for (long wait : new long[]{2, 4, 8, 16, 32, 64, 64, 64}) {
+            pool.recordPass(pass, false);
+            assertTrue(pool.isStarved());
+            assertTrue(pool.isBackingOff(pass + wait - 1), "Waiting " + wait + " after pass " + pass);
+            assertFalse(pool.isBackingOff(pass + wait), "Waiting " + wait + " after pass " + pass);
+            pass += wait;
+        }
+
+        pool.recordPass(pass, true);
+        assertFalse(pool.isStarved());
+        assertFalse(pool.isBackingOff(pass + 1));
+        // The backoff starts over from two passes
+        pool.recordPass(pass, false);
+        assertFalse(pool.isBackingOff(pass + 2));
+    }
+
+    @Test
+    void clearEmptiesThePoolAndForgetsTheBackoff() {
+        InventoryPool pool = new InventoryPool(2);
+        pool.offer(1);
+        pool.offer(2);
+        pool.recordPass(1, false);
+
+        pool.clear();
+
+        assertEquals(0, pool.size());
+        assertFalse(pool.isStarved());
+        assertFalse(pool.isBackingOff(1));
+        assertTrue(pool.offer(1));
+    }
+}
@@ -0,0 +1,123 @@
+package com.account_sell.feature.auth.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JWTGeneratorTest {
+
+    private static final String SECRET = "test-secret-key-long-enough-for-hs512-test-secret-key-long-enough-for-hs512";
+    private static final int CHECKS = 10_000;
+    private static final int ROUNDS = 5;
+
+    private JWTGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = new JWTGenerator();
+        ReflectionTestUtils.setField(generator, "secretKey", SECRET);
+        ReflectionTestUtils.setField(generator, "jwtExpirationInMinutes", 60L);
+        ReflectionTestUtils.setField(generator, "issuer", "test");
+        ReflectionTestUtils.setField(generator, "verifiedCacheSize", 100);
+        generator.init();
+    }
+
+    @Test
+    void verifiedTokensAreServedFromTheCache() {
+        String token = token("alice", 3);
+
+        Claims first = generator.getValidatedClaims(token);
+        assertEquals("alice", first.getSubject());
+        assertEquals(3, first.get(JWTGenerator.TOKEN_VERSION_CLAIM, Number.class).intValue());
+        assertEquals(Collections.singletonList("ADMIN"), generator.getRolesFromJWT(token));
+        assertSame(first, generator.getValidatedClaims(token));
+    }
+
+    @Test
+    void tamperedAndForeignTokensAreRejectedAfterAValidOneIsCached() {
+        String token = token("alice", 1);
+        generator.getValidatedClaims(token);
+
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + parts[1] + "." + (parts[2].charAt(0) == 'A' ? 'B' : 'A') + parts[2].substring(1);
+        assertThrows(AuthenticationCredentialsNotFoundException.class, () -> generator.getValidatedClaims(tampered));
+
+        JWTGenerator other = new JWTGenerator();
+        ReflectionTestUtils.setField(other, "secretKey", SECRET.replace('t', 'x'));
+        ReflectionTestUtils.setField(other, "jwtExpirationInMinutes", 60L);
+        ReflectionTestUtils.setField(other, "issuer", "test");
+        ReflectionTestUtils.setField(other, "verifiedCacheSize", 100);
+        other.init();
+        assertThrows(AuthenticationCredentialsNotFoundException.class, () -> generator.getValidatedClaims(
+                other.generateToken(authentication("alice"), 1)));
+    }
+
+    @Test
+    void cacheStaysBounded() {
+        for (int i = 0; i < 300; i++) {
+            generator.getValidatedClaims(token("user" + i, 1));
+        }
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(generator, "verifiedTokens")).size() <= 100);
+    }
+
+    /**
+     * The cache replaces parsing the token and checking its HMAC-SHA512 with a SHA-256 of the token and a
+     * map lookup. Every authenticated request checks its token, so the cache has to be clearly cheaper to
+     * be worth the memory; the printed figures are the ones to compare between changes.
+     */
+    @Test
+    void cachedCheckIsCheaperThanVerifyingTheSignature() {
+        String token = token("alice", 1);
+        JwtParser parser = Jwts.parserBuilder()
+                .setSigningKey(new SecretKeySpec(SECRET.getBytes(), SignatureAlgorithm.HS512.getJcaName()))
+                .build();
+
+        double cached = nanosPerCheck(() -> generator.getValidatedClaims(token));
+        double verified = nanosPerCheck(() -> parser.parseClaimsJws(token).getBody());
+        System.out.printf("Token check: %.2f us from the cache, %.2f us verifying the signature%n",
+                cached / 1_000, verified / 1_000);
+
+        assertTrue(cached * 2 < verified, "Cache hit " + cached + " ns against " + verified + " ns to verify");
+    }
+
+    // Best round after warm-up, so a GC pause or JIT compile does not decide the figure
+    private static double nanosPerCheck(Runnable check) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 2 * ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < CHECKS; i++) {
+                check.run();
+            }
+            if (round >= ROUNDS) {
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        return (double) best / CHECKS;
+    }
+
+    private String token(String username, int tokenVersion) {
+        return generator.generateToken(authentication(username), tokenVersion);
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication(String username) {
+        User user = new User(username, "password", Collections.singletonList(new SimpleGrantedAuthority("ADMIN")));
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+}
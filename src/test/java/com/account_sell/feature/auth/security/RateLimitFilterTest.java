@@ -0,0 +1,78 @@
+package com.account_sell.feature.auth.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Client addresses behind proxies: a client exhausts its bucket, then comes back under other addresses.
+ * Only what the trusted proxies wrote may decide the bucket, whatever the client puts to their left.
+ */
+class RateLimitFilterTest {
+
+    private static final int CAPACITY = 3;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void spoofedEntriesLeftOfTheProxyDoNotChangeTheBucket() throws Exception {
+        RateLimitFilter filter = filter(1);
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals(HttpStatus.OK.value(), status(filter, "10.0.0." + i + ", 203.0.113.7"));
+        }
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), status(filter, "203.0.113.7"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), status(filter, "10.9.9.9, 203.0.113.7"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), status(filter, "1.1.1.1,2.2.2.2 , 203.0.113.7 "));
+        assertEquals(HttpStatus.OK.value(), status(filter, "203.0.113.7, 198.51.100.1"));
+    }
+
+    @Test
+    void theClientIsCountedFromTheRightPastEachTrustedProxy() throws Exception {
+        RateLimitFilter filter = filter(2);
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals(HttpStatus.OK.value(), status(filter, "10.0.0." + i + ", 203.0.113.7, 172.16.0." + i));
+        }
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), status(filter, "203.0.113.7, 172.16.0.9"));
+        // Fewer entries than proxies: the request skipped one, its first entry is all there is
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), status(filter, "203.0.113.7"));
+        assertEquals(HttpStatus.OK.value(), status(filter, "203.0.113.7, 198.51.100.1, 172.16.0.1"));
+    }
+
+    @Test
+    void theHeaderIsIgnoredWithoutTrustedProxies() throws Exception {
+        RateLimitFilter filter = filter(0);
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals(HttpStatus.OK.value(), status(filter, "203.0.113." + i));
+        }
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), status(filter, "198.51.100.1"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), status(filter, null));
+    }
+
+    private static RateLimitFilter filter(int trustedProxies) {
+        return new RateLimitFilter(1024, CAPACITY, 0, 100, 1, trustedProxies, new SimpleMeterRegistry());
+    }
+
+    private static int status(RateLimitFilter filter, String forwardedFor) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/special-accounts/generate");
+        request.setRemoteAddr("127.0.0.1");
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
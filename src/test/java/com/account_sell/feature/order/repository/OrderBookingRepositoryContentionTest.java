@@ -0,0 +1,126 @@
+package com.account_sell.feature.order.repository;
+
+import com.account_sell.enumation.AccountType;
+import com.account_sell.feature.order.models.OrderEntity;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Races many connections to book one account number against a real PostgreSQL, where the partial unique
+ * index decides the winner. Runs only when TEST_POSTGRES_URL (and optionally TEST_POSTGRES_USER and
+ * TEST_POSTGRES_PASSWORD) point at a database it may create a scratch schema in.
+ */
+class OrderBookingRepositoryContentionTest {
+
+    private static final int THREADS = 32;
+    private static final long MAX_P99_MS = 1000;
+    private static final String SCHEMA = "booking_contention_" + System.currentTimeMillis();
+
+    private static HikariDataSource dataSource;
+    private static OrderBookingRepository repository;
+
+    @BeforeAll
+    static void createSchema() {
+        String url = System.getenv("TEST_POSTGRES_URL");
+        assumeTrue(url != null && !url.isEmpty(), "TEST_POSTGRES_URL is not set");
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(System.getenv("TEST_POSTGRES_USER"));
+        dataSource.setPassword(System.getenv("TEST_POSTGRES_PASSWORD"));
+        dataSource.setMaximumPoolSize(THREADS);
+        dataSource.setConnectionInitSql("SET search_path TO " + SCHEMA);
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE SCHEMA " + SCHEMA);
+        jdbc.execute("CREATE TABLE " + SCHEMA + ".account_orders (" +
+                "id BIGSERIAL PRIMARY KEY, account_number VARCHAR(255) NOT NULL, price NUMERIC NOT NULL, " +
+                "customer_name VARCHAR(255), phone_number VARCHAR(255), id_number VARCHAR(255), " +
+                "account_type VARCHAR(255), filter_type VARCHAR(255), status VARCHAR(255) NOT NULL, " +
+                "created_at TIMESTAMP, updated_at TIMESTAMP)");
+        jdbc.execute("CREATE UNIQUE INDEX uk_account_orders_booked_account_number ON " + SCHEMA +
+                ".account_orders (account_number) WHERE status = 'BOOKED'");
+        jdbc.execute("CREATE TABLE " + SCHEMA + ".order_history (" +
+                "id BIGSERIAL PRIMARY KEY, order_id BIGINT NOT NULL REFERENCES " + SCHEMA + ".account_orders(id), " +
+                "old_status VARCHAR(255), new_status VARCHAR(255) NOT NULL, remarks VARCHAR(500), " +
+                "created_at TIMESTAMP, updated_at TIMESTAMP)");
+
+        repository = new OrderBookingRepository(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        if (dataSource != null) {
+            new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            dataSource.close();
+        }
+    }
+
+    @Test
+    void concurrentBookingsOfOneNumberHaveExactlyOneWinner() throws Exception {
+        String accountNumber = "987654321";
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<Future<Optional<OrderEntity>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                OrderEntity order = OrderEntity.builder()
+                        .accountNumber(accountNumber)
+                        .price(BigDecimal.valueOf(100))
+                        .customerName("Customer " + i)
+                        .accountType(AccountType.NORMAL)
+                        .build();
+                results.add(executor.submit(() -> {
+                    start.await();
+                    long began = System.nanoTime();
+                    try {
+                        return repository.bookIfAvailable(order, "Initial order creation");
+                    } finally {
+                        latencies.add(System.nanoTime() - began);
+                    }
+                }));
+            }
+            start.countDown();
+
+            int winners = 0;
+            for (Future<Optional<OrderEntity>> result : results) {
+                if (result.get(30, TimeUnit.SECONDS).isPresent()) {
+                    winners++;
+                }
+            }
+
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            assertEquals(1, winners);
+            assertEquals(1, jdbc.queryForObject(
+                    "SELECT count(*) FROM account_orders WHERE account_number = ?", Integer.class, accountNumber));
+            assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM order_history", Integer.class));
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            long p99Ms = TimeUnit.NANOSECONDS.toMillis(sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1));
+            assertTrue(p99Ms < MAX_P99_MS, "p99 booking latency was " + p99Ms + " ms");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
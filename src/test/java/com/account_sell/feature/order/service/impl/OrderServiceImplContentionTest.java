@@ -0,0 +1,143 @@
+package com.account_sell.feature.order.service.impl;
+
+import com.account_sell.enumation.AccountType;
+import com.account_sell.enumation.OrderStatus;
+import com.account_sell.exceptions.error.DuplicateNameException;
+import com.account_sell.feature.order.dto.request.CreateOrderRequest;
+import com.account_sell.feature.order.mapper.OrderMapper;
+import com.account_sell.feature.order.models.OrderEntity;
+import com.account_sell.feature.order.repository.OrderBookingRepository;
+import com.account_sell.feature.order.repository.OrderHistoryRepository;
+import com.account_sell.feature.order.repository.OrderRepository;
+import com.account_sell.feature.order.service.BankAccountService;
+import com.account_sell.feature.statistics.service.OrderStatisticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Many customers racing to book the same account number: exactly one wins, the rest are told the
+ * number is taken. The booking repository stands in for the partial unique index with an atomic set.
+ */
+class OrderServiceImplContentionTest {
+
+    private static final int THREADS = 64;
+    private static final String ACCOUNT_NUMBER = "123456789";
+    // Stands in for the SOAP round trip
+    private static final long BANK_LATENCY_MS = 5;
+    private static final long MAX_P99_MS = 500;
+
+    private final Set<String> booked = ConcurrentHashMap.newKeySet();
+    private final AtomicLong ids = new AtomicLong();
+    private BankAccountService bankAccountService;
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.existsByAccountNumberAndStatus(anyString(), eq(OrderStatus.BOOKED)))
+                .thenAnswer(invocation -> booked.contains(invocation.<String>getArgument(0)));
+
+        OrderBookingRepository orderBookingRepository = mock(OrderBookingRepository.class);
+        when(orderBookingRepository.bookIfAvailable(any(OrderEntity.class), anyString())).thenAnswer(invocation -> {
+            OrderEntity order = invocation.getArgument(0);
+            if (!booked.add(order.getAccountNumber())) {
+                return Optional.empty();
+            }
+            order.setId(ids.incrementAndGet());
+            return Optional.of(order);
+        });
+
+        bankAccountService = mock(BankAccountService.class);
+        when(bankAccountService.validateBankAccount(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(BANK_LATENCY_MS);
+            return false;
+        });
+
+        orderService = new OrderServiceImpl(orderRepository, mock(OrderHistoryRepository.class),
+                orderBookingRepository, mock(OrderMapper.class), bankAccountService,
+                mock(OrderStatisticsService.class));
+    }
+
+    @Test
+    void concurrentBookingsOfOneNumberHaveExactlyOneWinner() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                CreateOrderRequest request = request("Customer " + i);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    long began = System.nanoTime();
+                    try {
+                        orderService.createOrder(request);
+                        return true;
+                    } catch (DuplicateNameException e) {
+                        return false;
+                    } finally {
+                        latencies.add(System.nanoTime() - began);
+                    }
+                }));
+            }
+            start.countDown();
+
+            int winners = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(10, TimeUnit.SECONDS)) {
+                    winners++;
+                }
+            }
+
+            assertEquals(1, winners);
+            assertEquals(1, ids.get());
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            long p99Ms = TimeUnit.NANOSECONDS.toMillis(sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1));
+            assertTrue(p99Ms < MAX_P99_MS, "p99 booking latency was " + p99Ms + " ms");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void bookedNumberIsRejectedBeforeTheBankCall() {
+        booked.add(ACCOUNT_NUMBER);
+
+        assertThrows(DuplicateNameException.class, () -> orderService.createOrder(request("Late customer")));
+        verify(bankAccountService, never()).validateBankAccount(anyString());
+    }
+
+    private static CreateOrderRequest request(String customerName) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setAccountNumber(ACCOUNT_NUMBER);
+        request.setCustomerName(customerName);
+        request.setAccountType(AccountType.NORMAL);
+        return request;
+    }
+}
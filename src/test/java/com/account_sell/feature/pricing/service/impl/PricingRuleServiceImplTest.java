@@ -0,0 +1,98 @@
+package com.account_sell.feature.pricing.service.impl;
+
+import com.account_sell.enumation.PriceRange;
+import com.account_sell.exceptions.error.BadRequestException;
+import com.account_sell.utils.pricing.PricingRuleSet;
+import com.account_sell.utils.pricing.PricingRules;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PricingRuleServiceImplTest {
+
+    private static final String RULES = "rules:\n" +
+            "  - id: ALL_SAME\n    tier: HIGH_3000\n    when:\n      - run: { length: 9 }\n";
+
+    @TempDir
+    Path directory;
+
+    private PricingRuleSet original;
+    private Path file;
+    private PricingRuleServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        original = PricingRules.active();
+        file = directory.resolve("pricing-rules.yml");
+        write("tiers:\n  HIGH_3000: 3500\n" + RULES);
+
+        service = new PricingRuleServiceImpl(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(service, "rulesLocation", file.toUri().toString());
+        service.init();
+    }
+
+    @AfterEach
+    void restoreRules() {
+        PricingRules.activate(original);
+    }
+
+    @Test
+    void startupActivatesTheConfiguredFile() {
+        assertEquals(3500, PricingRules.active().match("777777777").getPrice());
+        assertEquals(PricingRuleSet.NO_RULE_ID, PricingRules.active().match("123456780").getId());
+    }
+
+    @Test
+    void reloadSwapsInTheChangedFile() throws IOException {
+        write("tiers:\n  HIGH_3000: 4000\n" + RULES);
+
+        assertEquals(4000, service.reload().getTierPrices().get(PriceRange.HIGH_3000));
+        assertEquals(4000, PricingRules.active().match("777777777").getPrice());
+    }
+
+    @Test
+    void invalidFileIsRejectedAndTheCurrentRulesStay() throws IOException {
+        PricingRuleSet active = PricingRules.active();
+        write("tiers:\n  HIGH_3000: free\n" + RULES);
+
+        BadRequestException e = assertThrows(BadRequestException.class, () -> service.reload());
+        assertTrue(e.getMessage().contains("HIGH_3000"), e.getMessage());
+        assertSame(active, PricingRules.active());
+    }
+
+    @Test
+    void changedFileIsPickedUpAndBrokenEditsAreSkipped() throws IOException {
+        write("tiers:\n  HIGH_3000: 4500\n" + RULES);
+        touch(1);
+        service.reloadIfChanged();
+        PricingRuleSet reloaded = PricingRules.active();
+        assertEquals(4500, reloaded.match("777777777").getPrice());
+
+        write("rules: [");
+        touch(2);
+        service.reloadIfChanged();
+        assertSame(reloaded, PricingRules.active());
+    }
+
+    private void write(String yaml) throws IOException {
+        Files.write(file, yaml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Filesystem timestamps can be coarser than the test, so move the modification time explicitly
+    private void touch(int step) {
+        assertTrue(file.toFile().setLastModified(file.toFile().lastModified() + step * 10_000L));
+    }
+}
@@ -0,0 +1,96 @@
+package com.account_sell.utils;
+
+import com.account_sell.enumation.AccountType;
+import com.account_sell.enumation.FilterType;
+import com.account_sell.utils.pricing.PricingRuleSet;
+import com.account_sell.utils.pricing.PricingRules;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountNumberUtilTest {
+
+    // Leaves a 4-digit region, so every number a pattern can have is known
+    private static final List<String> LEADS = Collections.singletonList("12345");
+    private static final List<String> PATTERNS = Arrays.asList("168", "8168", "7", "77", "1");
+    private static final List<FilterType> FILTERS = Arrays.asList(
+            FilterType.END_WITH, FilterType.END_WITH, FilterType.START_WITH, FilterType.CONTAIN, FilterType.CONTAIN);
+
+    private final PricingRuleSet rules = PricingRules.active();
+
+    @Test
+    void batchCreditsEachCandidateToEverySpecItSatisfies() {
+        double[] minPrices = new double[PATTERNS.size()];
+        double[] maxPrices = new double[PATTERNS.size()];
+        Arrays.fill(maxPrices, Double.MAX_VALUE);
+        // The 7 spec only takes numbers priced at the default tier
+        double defaultPrice = rules.match("123450000").getPrice();
+        minPrices[2] = defaultPrice;
+        maxPrices[2] = defaultPrice;
+
+        // More than any space holds, so every spec has to end up with its whole space. Numbers are drawn
+        // for one spec at a time and never again, so a spec only gets the numbers drawn for the others
+        // if each candidate is credited to every spec it carries.
+        List<List<Map.Entry<String, Double>>> results = AccountNumberUtil.generateAccountNumbersBatch(
+                PATTERNS, FILTERS, minPrices, maxPrices, 5_000, LEADS, AccountType.NORMAL);
+
+        for (int s = 0; s < PATTERNS.size(); s++) {
+            Set<String> generated = new TreeSet<>();
+            for (Map.Entry<String, Double> entry : results.get(s)) {
+                assertTrue(generated.add(entry.getKey()), "Duplicate " + entry.getKey());
+                assertEquals(rules.match(entry.getKey()).getPrice(), entry.getValue(), entry.getKey());
+            }
+            assertEquals(space(s, minPrices[s], maxPrices[s]), generated, FILTERS.get(s) + " " + PATTERNS.get(s));
+        }
+        // 123458168 carries both 168 and 8168 at the end, and was drawn once
+        assertTrue(results.get(0).stream().anyMatch(entry -> entry.getKey().equals("123458168")));
+    }
+
+    @Test
+    void batchStopsEachSpecAtTheCountMostExpensiveFirst() {
+        double[] minPrices = new double[PATTERNS.size()];
+        double[] maxPrices = new double[PATTERNS.size()];
+        Arrays.fill(maxPrices, Double.MAX_VALUE);
+
+        List<List<Map.Entry<String, Double>>> results = AccountNumberUtil.generateAccountNumbersBatch(
+                PATTERNS, FILTERS, minPrices, maxPrices, 3, LEADS, AccountType.NORMAL);
+
+        for (int s = 0; s < PATTERNS.size(); s++) {
+            List<Map.Entry<String, Double>> result = results.get(s);
+            Set<String> space = space(s, 0, Double.MAX_VALUE);
+            assertEquals(Math.min(3, space.size()), result.size(), PATTERNS.get(s));
+            for (int i = 0; i < result.size(); i++) {
+                assertTrue(space.contains(result.get(i).getKey()), result.get(i).getKey());
+                if (i > 0) {
+                    assertTrue(result.get(i - 1).getValue() >= result.get(i).getValue());
+                }
+            }
+        }
+    }
+
+    // Every number of the spec's space priced in its range
+    private Set<String> space(int spec, double minPrice, double maxPrice) {
+        String pattern = PATTERNS.get(spec);
+        Set<String> numbers = new TreeSet<>();
+        for (int value = 0; value < 10_000; value++) {
+            String region = String.format("%04d", value);
+            boolean placed = FILTERS.get(spec) == FilterType.START_WITH ? region.startsWith(pattern)
+                    : FILTERS.get(spec) == FilterType.END_WITH ? region.endsWith(pattern)
+                    : region.contains(pattern);
+            String number = LEADS.get(0) + region;
+            double price = rules.match(number).getPrice();
+            if (placed && price >= minPrice && price <= maxPrice) {
+                numbers.add(number);
+            }
+        }
+        return numbers;
+    }
+}
@@ -0,0 +1,76 @@
+package com.account_sell.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CsvUtilTest {
+
+    @Test
+    void plainValuesAreWrittenAsIs() {
+        assertEquals("123456789", CsvUtil.escape("123456789"));
+        assertEquals("", CsvUtil.escape(null));
+        assertEquals("", CsvUtil.escape(""));
+    }
+
+    @Test
+    void separatorsQuotesAndLineBreaksAreQuoted() {
+        assertEquals("\"Nguyen, An\"", CsvUtil.escape("Nguyen, An"));
+        assertEquals("\"say \"\"hi\"\"\"", CsvUtil.escape("say \"hi\""));
+        assertEquals("\"a\nb\"", CsvUtil.escape("a\nb"));
+    }
+
+    @Test
+    void formulaTriggersAreNeutralisedForSpreadsheets() {
+        assertEquals("\"'=HYPERLINK(\"\"http://x\"\")\"", CsvUtil.escapeForSpreadsheet("=HYPERLINK(\"http://x\")"));
+        assertEquals("\"'+1+1\"", CsvUtil.escapeForSpreadsheet("+1+1"));
+        assertEquals("\"'-2+3\"", CsvUtil.escapeForSpreadsheet("-2+3"));
+        assertEquals("\"'@SUM(A1:A2)\"", CsvUtil.escapeForSpreadsheet("@SUM(A1:A2)"));
+        assertEquals("\"'\t=1\"", CsvUtil.escapeForSpreadsheet("\t=1"));
+        assertEquals("\"'\r=1\"", CsvUtil.escapeForSpreadsheet("\r=1"));
+        assertEquals("123456789", CsvUtil.escapeForSpreadsheet("123456789"));
+        assertEquals("\"Nguyen, An\"", CsvUtil.escapeForSpreadsheet("Nguyen, An"));
+        assertEquals("", CsvUtil.escapeForSpreadsheet(null));
+    }
+
+    @Test
+    void plainEscapingKeepsValuesAsTheyAre() {
+        // Archives are read back by programs, a negative amount must stay a number
+        assertEquals("-2.5", CsvUtil.escape("-2.5"));
+        assertEquals("+84901234567", CsvUtil.escape("+84901234567"));
+        assertEquals("@user", CsvUtil.escape("@user"));
+        assertEquals("\"=1,2\"", CsvUtil.escape("=1,2"));
+        assertEquals("\"\r=1\"", CsvUtil.escape("\r=1"));
+    }
+
+    @Test
+    void rowsAreEscapedForTheirReader() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(3);
+        when(metaData.getColumnLabel(1)).thenReturn("id");
+        when(metaData.getColumnLabel(2)).thenReturn("note");
+        when(metaData.getColumnLabel(3)).thenReturn("amount");
+        when(resultSet.getString(1)).thenReturn("7");
+        when(resultSet.getString(2)).thenReturn("=cmd");
+        when(resultSet.getString(3)).thenReturn("-20");
+
+        StringWriter archive = new StringWriter();
+        CsvUtil.writeHeader(resultSet, archive);
+        CsvUtil.writeRow(resultSet, archive);
+        assertEquals("id,note,amount\n7,=cmd,-20\n", archive.toString());
+
+        StringWriter export = new StringWriter();
+        CsvUtil.writeSpreadsheetHeader(resultSet, export);
+        CsvUtil.writeSpreadsheetRow(resultSet, export);
+        assertEquals("id,note,amount\n7,\"'=cmd\",\"'-20\"\n", export.toString());
+    }
+}
@@ -0,0 +1,155 @@
+package com.account_sell.utils.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Patterns checked against the same pattern written as a regular expression, one group per position
+ * and {@code {k}} as a back reference, over every number of a range the pattern's fixed digits pin down.
+ */
+class AccountPatternTest {
+
+    private static final List<String> CASA = Arrays.asList("000", "001");
+
+    @Test
+    void matchesTheSameNumbersAsTheRegularExpressionInOrder() {
+        assertSameNumbers("12345????", 123_400_000, 123_500_000);
+        assertSameNumbers("1234[3-57][^0-8]???", 123_400_000, 123_500_000);
+        assertSameNumbers("[1][2]3[4]?[^13579][0-24-6]{6}?", 123_400_000, 123_500_000);
+        // Copies of copies resolve to the free position at the end of the chain
+        assertSameNumbers("1234?{5}{6}{7}{6}", 123_400_000, 123_500_000);
+        assertSameNumbers("168[0-3]{4}?{6}[^9]{4}", 168_000_000, 169_000_000);
+        assertSameNumbers("9{1}{2}?{4}[5-9]{4}{6}{1}", 999_000_000, 1_000_000_000);
+    }
+
+    @Test
+    void restrictLeadingKeepsOnlyTheLeadingDigitsOfTheType() {
+        // CASA numbers start 000 or 001, so they are the numbers below 2,000,000
+        assertSameNumbers("??[0-5]1?{4}???", CASA, 0, 2_000_000);
+        assertSameNumbers("????[^0]{5}???", CASA, 0, 2_000_000);
+        // A copied position restricts the position it copies: 0{1}{1} leaves only 000
+        assertSameNumbers("?{1}{1}??????", CASA, 0, 2_000_000);
+        assertSameNumbers("?{1}[1-9]{3}?????", CASA, 0, 2_000_000);
+
+        assertEquals("Pattern 1???????? cannot match the leading digits 000 or 001",
+                assertThrows(IllegalArgumentException.class,
+                        () -> AccountPattern.compile("1????????").restrictLeading(CASA)).getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> AccountPattern.compile("??[2-9]??????").restrictLeading(CASA));
+        assertThrows(IllegalArgumentException.class,
+                () -> AccountPattern.compile("?{1}5??????").restrictLeading(CASA));
+    }
+
+    @Test
+    void fillContinuesFromAnyIndexLikeNumberAt() {
+        for (String source : new String[]{"1234?{5}[^2-4]??", "?{1}{1}[1-3]{4}????", "9[0-1]{2}7?{5}[^0]{7}?"}) {
+            AccountPattern pattern = AccountPattern.compile(source);
+            long size = pattern.size();
+            for (long from : new long[]{0, 1, 9, 10, 99, 1_000, size / 2, size - 7, size - 1, size}) {
+                int[] out = new int[7];
+                int n = pattern.fill(from, out);
+
+                assertEquals(Math.min(out.length, size - from), n, source + " from " + from);
+                for (int i = 0; i < n; i++) {
+                    assertEquals(pattern.numberAt(from + i), out[i], source + " at " + (from + i));
+                }
+            }
+            assertEquals(0, pattern.fill(size + 5, new int[3]));
+        }
+    }
+
+    @Test
+    void randomNumbersMatchThePattern() {
+        Random random = new Random(47);
+        for (String source : new String[]{"8??888???", "[1-9]{1}{1}?????{1}", "??[^0-8]{3}{3}????"}) {
+            AccountPattern pattern = AccountPattern.compile(source);
+            Pattern regex = toRegex(source);
+            for (int i = 0; i < 10_000; i++) {
+                String number = RegionLayout.toAccountNumber(pattern.randomNumber(random));
+                assertTrue(regex.matcher(number).matches(), source + " drew " + number);
+            }
+        }
+    }
+
+    @Test
+    void invalidPatternsAreRejectedWithTheirPosition() {
+        assertInvalid(null, "Pattern is required");
+        assertInvalid("12345678", "Pattern must describe exactly 9 digits");
+        assertInvalid("1234567890", "Pattern must describe exactly 9 digits");
+        assertInvalid("[1-5????????", "Unclosed [ at position 1");
+        assertInvalid("1{1????????", "Unclosed { at position 2");
+        assertInvalid("12[a]??????", "Invalid digit class [a] at position 3");
+        assertInvalid("12[5-3]??????", "Invalid digit class [5-3] at position 3");
+        assertInvalid("[^0-9]????????", "Digit class [^0-9] at position 1 matches no digit");
+        assertInvalid("{1}????????", "Reference {1} at position 1 must point to an earlier position");
+        assertInvalid("1{3}???????", "Reference {3} at position 2 must point to an earlier position");
+        assertInvalid("1{x}???????", "Invalid reference {x} at position 2");
+        assertInvalid("12x??????", "Unexpected 'x' at position 3");
+    }
+
+    private static void assertSameNumbers(String source, int from, int to) {
+        assertSameNumbers(AccountPattern.compile(source), source, from, to);
+    }
+
+    private static void assertSameNumbers(String source, List<String> leads, int from, int to) {
+        assertSameNumbers(AccountPattern.compile(source).restrictLeading(leads), source, from, to);
+    }
+
+    /**
+     * Every number of the pattern lies in [from, to); the numbers of that range matching the regular
+     * expression, in ascending order, must be exactly the pattern's numbers by index
+     */
+    private static void assertSameNumbers(AccountPattern pattern, String source, int from, int to) {
+        Pattern regex = toRegex(source);
+        List<Integer> expected = new ArrayList<>();
+        for (int number = from; number < to; number++) {
+            if (regex.matcher(RegionLayout.toAccountNumber(number)).matches()) {
+                expected.add(number);
+            }
+        }
+
+        assertEquals(expected.size(), pattern.size(), source);
+        int[] all = new int[expected.size()];
+        assertEquals(all.length, pattern.fill(0, all), source);
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), all, source);
+        for (int index = 0; index < all.length; index += 1 + all.length / 100) {
+            assertEquals(all[index], pattern.numberAt(index), source + " at " + index);
+        }
+    }
+
+    private static Pattern toRegex(String source) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '?') {
+                regex.append("(\\d)");
+            } else if (c == '[') {
+                int end = source.indexOf(']', i);
+                regex.append('(').append(source, i, end + 1).append(')');
+                i = end;
+            } else if (c == '{') {
+                int end = source.indexOf('}', i);
+                regex.append("(\\").append(source, i + 1, end).append(')');
+                i = end;
+            } else {
+                regex.append('(').append(c).append(')');
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static void assertInvalid(String source, String message) {
+        assertEquals(message, assertThrows(IllegalArgumentException.class,
+                () -> AccountPattern.compile(source)).getMessage());
+    }
+}
@@ -0,0 +1,125 @@
+package com.account_sell.utils.pricing;
+
+import com.account_sell.enumation.FilterType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The automaton checked against String.contains/startsWith/endsWith on the region after the leading digits
+ */
+class DigitPatternMatcherTest {
+
+    // Overlapping patterns, where a missing failure link or a match counted before the region shows
+    private static final List<String> PATTERNS = Arrays.asList(
+            "168", "8168", "68", "1", "8", "888", "8888", "0", "00", "1681", "6816", "81681", "16816");
+    private static final FilterType[] FILTERS = {FilterType.CONTAIN, FilterType.START_WITH, FilterType.END_WITH};
+
+    @Test
+    void matchesLikeStringSearchOnEveryNumberOfASmallAlphabet() {
+        for (FilterType filter : FILTERS) {
+            List<FilterType> filters = Collections.nCopies(PATTERNS.size(), filter);
+            for (int regionStart : new int[]{0, 1, 3, 5}) {
+                DigitPatternMatcher matcher = new DigitPatternMatcher(PATTERNS, filters, regionStart);
+                // Every 9-digit number over 0, 1, 6 and 8
+                char[] alphabet = {'0', '1', '6', '8'};
+                char[] digits = new char[AccountPattern.LENGTH];
+                for (int n = 0; n < 1 << (2 * digits.length); n++) {
+                    for (int i = 0; i < digits.length; i++) {
+                        digits[i] = alphabet[(n >> (2 * i)) & 3];
+                    }
+                    String number = new String(digits);
+                    assertEquals(expected(number, PATTERNS, filters, regionStart),
+                            matcher.match(Integer.parseInt(number), digits.length),
+                            filter + " from " + regionStart + ": " + number);
+                }
+            }
+        }
+    }
+
+    @Test
+    void mixedFiltersMatchLikeStringSearchOnRandomNumbers() {
+        Random random = new Random(48);
+        for (int round = 0; round < 200; round++) {
+            List<String> patterns = new ArrayList<>();
+            List<FilterType> filters = new ArrayList<>();
+            int count = 1 + random.nextInt(DigitPatternMatcher.MAX_PATTERNS);
+            for (int p = 0; p < count; p++) {
+                patterns.add(randomDigits(random, 1 + random.nextInt(5)));
+                filters.add(FILTERS[random.nextInt(FILTERS.length)]);
+            }
+            int regionStart = random.nextInt(6);
+            DigitPatternMatcher matcher = new DigitPatternMatcher(patterns, filters, regionStart);
+
+            for (int i = 0; i < 2_000; i++) {
+                String number = randomDigits(random, AccountPattern.LENGTH);
+                assertEquals(expected(number, patterns, filters, regionStart),
+                        matcher.match(Integer.parseInt(number), AccountPattern.LENGTH), patterns + " " + number);
+            }
+        }
+    }
+
+    @Test
+    void patternsArePlacedRelativeToTheRegion() {
+        List<String> patterns = Arrays.asList("168", "8168", "000");
+        List<FilterType> filters = Arrays.asList(FilterType.START_WITH, FilterType.CONTAIN, FilterType.END_WITH);
+        DigitPatternMatcher matcher = new DigitPatternMatcher(patterns, filters, 3);
+
+        assertEquals(0b101, match(matcher, "123168000"));
+        assertEquals(0b011, match(matcher, "123168168"));
+        assertEquals(0b010, match(matcher, "123816899"));
+        assertEquals(0b100, match(matcher, "123456000"));
+        // Occurrences starting in the leading digits do not count, even when they end in the region
+        assertEquals(0b000, match(matcher, "168123456"));
+        assertEquals(0b000, match(matcher, "816899999"));
+        assertEquals(0b000, match(matcher, "000123456"));
+    }
+
+    @Test
+    void invalidPatternsAreRejected() {
+        List<String> tooMany = Collections.nCopies(DigitPatternMatcher.MAX_PATTERNS + 1, "1");
+        assertThrows(IllegalArgumentException.class, () -> new DigitPatternMatcher(tooMany,
+                Collections.nCopies(tooMany.size(), FilterType.CONTAIN), 0));
+        assertThrows(IllegalArgumentException.class, () -> new DigitPatternMatcher(Arrays.asList("1", "2"),
+                Collections.singletonList(FilterType.CONTAIN), 0));
+        assertThrows(IllegalArgumentException.class, () -> new DigitPatternMatcher(Collections.singletonList("1a"),
+                Collections.singletonList(FilterType.CONTAIN), 0));
+        assertThrows(IllegalArgumentException.class, () -> new DigitPatternMatcher(Collections.singletonList(""),
+                Collections.singletonList(FilterType.CONTAIN), 0));
+    }
+
+    private static long match(DigitPatternMatcher matcher, String number) {
+        return matcher.match(Integer.parseInt(number), number.length());
+    }
+
+    private static long expected(String number, List<String> patterns, List<FilterType> filters, int regionStart) {
+        String region = number.substring(regionStart);
+        long matched = 0;
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            boolean placed = filters.get(p) == FilterType.START_WITH ? region.startsWith(pattern)
+                    : filters.get(p) == FilterType.END_WITH ? region.endsWith(pattern)
+                    : region.contains(pattern);
+            if (placed) {
+                matched |= 1L << p;
+            }
+        }
+        return matched;
+    }
+
+    // Few distinct digits, so patterns occur often and overlap
+    private static String randomDigits(Random random, int length) {
+        char[] digits = new char[length];
+        for (int i = 0; i < length; i++) {
+            digits[i] = "01688".charAt(random.nextInt(5));
+        }
+        return new String(digits);
+    }
+}
@@ -0,0 +1,203 @@
+package com.account_sell.utils.pricing;
+
+import com.account_sell.enumation.FilterType;
+import com.account_sell.enumation.PriceRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts checked against brute force over every number of small spaces: the leading digits are made
+ * long so the region left for the pattern has a few digits, and each number is priced on its own.
+ */
+class MatchCounterTest {
+
+    private static final FilterType[] FILTERS = {FilterType.CONTAIN, FilterType.START_WITH, FilterType.END_WITH};
+    // Self-overlapping patterns are where a wrong automaton or double counting shows
+    private static final String[] PATTERNS = {"0", "7", "77", "777", "121", "1212", "1111", "168", "8168", "0000"};
+
+    private final PricingRuleSet rules = PricingRules.active();
+
+    @Test
+    void exactCountsMatchBruteForce() {
+        for (List<String> leads : Arrays.asList(
+                Collections.singletonList("12345"),
+                Arrays.asList("88000", "88001"),
+                Collections.singletonList("168"))) {
+            for (String pattern : PATTERNS) {
+                for (FilterType filter : FILTERS) {
+                    String search = leads + " " + filter + " " + pattern;
+                    long[] expected = bruteForce(leads, pattern, filter);
+                    MatchCounter.Histogram histogram = MatchCounter.histogram(leads, pattern, filter, Long.MAX_VALUE);
+
+                    assertTrue(histogram.isExact(), search);
+                    assertEquals(Arrays.stream(expected).sum(), histogram.getCandidates(), search);
+                    assertPriceRanges(expected, histogram, 0, search);
+                }
+            }
+        }
+    }
+
+    @Test
+    void containCountsEachNumberOnceAtItsFirstOccurrence() {
+        List<String> leads = Collections.singletonList("123");
+        // 777777 carries 77 five times and 121212 carries 1212 twice, each is still one number
+        for (String pattern : new String[]{"77", "1212", "121"}) {
+            MatchCounter.Histogram histogram = MatchCounter.histogram(leads, pattern, FilterType.CONTAIN, Long.MAX_VALUE);
+            long expected = Arrays.stream(bruteForce(leads, pattern, FilterType.CONTAIN)).sum();
+
+            assertEquals(expected, histogram.getCandidates(), pattern);
+            assertEquals(expected, histogram.count(0, Double.MAX_VALUE), pattern);
+            assertTrue(histogram.getListed() > histogram.getCandidates(), pattern);
+        }
+    }
+
+    @Test
+    void loanCountsMatchBruteForce() {
+        // Every LOAN number once, checked for 77 at the start, at the end and anywhere after the 4
+        List<String> leads = Collections.singletonList("4");
+        long[][] expected = new long[FILTERS.length][PriceRange.values().length];
+        int[][] blocks = new int[FILTERS.length][1 << 20];
+        int[] sizes = new int[FILTERS.length];
+        for (int region = 0; region < 100_000_000; region++) {
+            boolean[] matches = {contains77(region), region / 1_000_000 == 77, region % 100 == 77};
+            for (int f = 0; f < FILTERS.length; f++) {
+                if (matches[f]) {
+                    blocks[f][sizes[f]++] = 400_000_000 + region;
+                    if (sizes[f] == blocks[f].length) {
+                        addTiers(expected[f], blocks[f], sizes[f]);
+                        sizes[f] = 0;
+                    }
+                }
+            }
+        }
+
+        for (int f = 0; f < FILTERS.length; f++) {
+            addTiers(expected[f], blocks[f], sizes[f]);
+            MatchCounter.Histogram histogram = MatchCounter.histogram(leads, "77", FILTERS[f], Long.MAX_VALUE);
+
+            assertTrue(histogram.isExact(), FILTERS[f].name());
+            assertEquals(Arrays.stream(expected[f]).sum(), histogram.getCandidates(), FILTERS[f].name());
+            assertPriceRanges(expected[f], histogram, 0, FILTERS[f].name());
+
+            // A sample of the same space lands within a percent of the exact share of each price range
+            MatchCounter.Histogram sampled = MatchCounter.histogram(leads, "77", FILTERS[f], 0);
+            assertFalse(sampled.isExact(), FILTERS[f].name());
+            assertEquals(histogram.getCandidates(), sampled.getCandidates(), FILTERS[f].name());
+            assertPriceRanges(expected[f], sampled, histogram.getCandidates() / 100, FILTERS[f].name());
+        }
+    }
+
+    @Test
+    void spacesAboveTheLimitAreSampled() {
+        List<String> leads = Collections.singletonList("");
+        MatchCounter.Histogram exact = MatchCounter.histogram(leads, "1234", FilterType.CONTAIN, Long.MAX_VALUE);
+        long listed = exact.getListed();
+
+        assertTrue(MatchCounter.histogram(leads, "1234", FilterType.CONTAIN, listed).isExact());
+        MatchCounter.Histogram sampled = MatchCounter.histogram(leads, "1234", FilterType.CONTAIN, listed - 1);
+        assertFalse(sampled.isExact());
+        assertEquals(exact.getCandidates(), sampled.getCandidates());
+        // Scaling the sample up keeps the total exact, only the split between prices is estimated
+        assertEquals(exact.getCandidates(), sampled.count(0, Double.MAX_VALUE));
+        assertPriceRanges(tierCounts(exact), sampled, exact.getCandidates() / 100, "1234");
+
+        // Below the cheap limit a request counts in full, above it only a sample is priced
+        assertTrue(listed > MatchCounter.CHEAP_EXACT_CANDIDATES && listed <= MatchCounter.MAX_EXACT_CANDIDATES);
+        assertFalse(MatchCounter.histogram(leads, "1234", FilterType.CONTAIN, MatchCounter.CHEAP_EXACT_CANDIDATES)
+                .isExact());
+        assertTrue(MatchCounter.histogram(leads, "12345", FilterType.START_WITH, MatchCounter.CHEAP_EXACT_CANDIDATES)
+                .isExact());
+    }
+
+    @Test
+    void wildcardPatternCountsMatchBruteForce() {
+        AccountPattern pattern = AccountPattern.compile("12[3-4]4?{5}[^0]??");
+        long[] expected = new long[PriceRange.values().length];
+        int[] block = new int[100_000];
+        int n = 0;
+        for (int number = 120_000_000; number < 130_000_000; number++) {
+            String digits = RegionLayout.toAccountNumber(number);
+            if ((digits.charAt(2) == '3' || digits.charAt(2) == '4') && digits.charAt(3) == '4'
+                    && digits.charAt(5) == digits.charAt(4) && digits.charAt(6) != '0') {
+                block[n++] = number;
+            }
+        }
+        addTiers(expected, block, n);
+
+        MatchCounter.Histogram histogram = MatchCounter.histogram(pattern, Long.MAX_VALUE);
+        assertTrue(histogram.isExact());
+        assertEquals(n, histogram.getCandidates());
+        assertPriceRanges(expected, histogram, 0, pattern.getSource());
+    }
+
+    /**
+     * Checks the histogram answers every range between two tier prices with the tiers priced in it
+     */
+    private void assertPriceRanges(long[] expected, MatchCounter.Histogram histogram, long tolerance, String search) {
+        for (PriceRange low : PriceRange.values()) {
+            for (PriceRange high : PriceRange.values()) {
+                double min = rules.priceOf(low);
+                double max = rules.priceOf(high);
+                if (min > max) {
+                    continue;
+                }
+                long inRange = 0;
+                for (PriceRange tier : PriceRange.values()) {
+                    if (rules.priceOf(tier) >= min && rules.priceOf(tier) <= max) {
+                        inRange += expected[tier.ordinal()];
+                    }
+                }
+                assertEquals(inRange, histogram.count(min, max), tolerance, search + " " + min + "-" + max);
+            }
+        }
+    }
+
+    private long[] bruteForce(List<String> leads, String pattern, FilterType filter) {
+        long[] tierCounts = new long[PriceRange.values().length];
+        int leadLength = leads.get(0).length();
+        int regions = RegionLayout.POW10[AccountPattern.LENGTH - leadLength];
+        for (String lead : leads) {
+            for (int value = 0; value < regions; value++) {
+                String region = RegionLayout.toAccountNumber(value).substring(leadLength);
+                boolean matches = filter == FilterType.START_WITH ? region.startsWith(pattern)
+                        : filter == FilterType.END_WITH ? region.endsWith(pattern)
+                        : region.contains(pattern);
+                if (matches) {
+                    tierCounts[rules.match(lead + region).getTier().ordinal()]++;
+                }
+            }
+        }
+        return tierCounts;
+    }
+
+    private long[] tierCounts(MatchCounter.Histogram histogram) {
+        long[] tierCounts = new long[PriceRange.values().length];
+        for (PriceRange tier : PriceRange.values()) {
+            double price = rules.priceOf(tier);
+            tierCounts[tier.ordinal()] = histogram.count(price, price);
+        }
+        return tierCounts;
+    }
+
+    private void addTiers(long[] tierCounts, int[] numbers, int n) {
+        for (byte tier : rules.matchTiers(Arrays.copyOf(numbers, n), AccountPattern.LENGTH)) {
+            tierCounts[tier]++;
+        }
+    }
+
+    private static boolean contains77(int region) {
+        for (; region >= 10; region /= 10) {
+            if (region % 100 == 77) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,187 @@
+package com.account_sell.utils.pricing;
+
+import com.account_sell.enumation.PriceRange;
+import com.account_sell.utils.PatternUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The bundled rule file must price every number exactly as the rule ladder it replaced, which is kept
+ * here in its original order on top of the PatternUtil predicates.
+ */
+class PricingRuleSetTest {
+
+    private final PricingRuleSet rules = PricingRules.active();
+
+    @Test
+    void bundledRulesMatchTheLegacyLadderOnSmallAlphabets() {
+        for (String alphabet : new String[]{"01", "168", "012", "789", "4567"}) {
+            char[] digits = new char[9];
+            int combinations = (int) Math.pow(alphabet.length(), digits.length);
+            for (int n = 0; n < combinations; n++) {
+                for (int i = 0, rest = n; i < digits.length; i++, rest /= alphabet.length()) {
+                    digits[i] = alphabet.charAt(rest % alphabet.length());
+                }
+                assertSameRule(new String(digits));
+            }
+        }
+    }
+
+    @Test
+    void bundledRulesMatchTheLegacyLadderOnRandomNumbers() {
+        Random random = new Random(41);
+        for (int n = 0; n < 300_000; n++) {
+            assertSameRule(randomNumber(random, 9));
+        }
+        // The predicates take any length, so must the rules
+        for (int n = 0; n < 100_000; n++) {
+            assertSameRule(randomNumber(random, random.nextInt(13)));
+        }
+    }
+
+    @Test
+    void bulkTiersMatchSingleNumberPricing() {
+        Random random = new Random(42);
+        int[] numbers = new int[200_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = Integer.parseInt(randomNumber(random, 9));
+        }
+        byte[] tiers = rules.matchTiers(numbers, 9);
+        for (int i = 0; i < numbers.length; i++) {
+            String accountNumber = String.format("%09d", numbers[i]);
+            assertEquals(rules.match(accountNumber).getTier().ordinal(), tiers[i], accountNumber);
+        }
+    }
+
+    @Test
+    void bulkTiersRejectNumbersOutsideTheWidth() {
+        assertThrows(IllegalArgumentException.class, () -> rules.matchTiers(new int[]{-5}, 9));
+        assertThrows(IllegalArgumentException.class, () -> rules.matchTiers(new int[]{1_999_999_999}, 9));
+        assertThrows(IllegalArgumentException.class, () -> rules.matchTiers(new int[]{1_000}, 3));
+        assertThrows(IllegalArgumentException.class, () -> rules.matchTiers(new int[]{1}, 0));
+        assertThrows(IllegalArgumentException.class, () -> rules.matchTiers(new int[]{1}, 11));
+        // Past the parallel threshold too, where a bad number would surface from a worker thread
+        int[] numbers = new int[1 << 17];
+        numbers[numbers.length - 1] = 1_000_000_000;
+        assertThrows(IllegalArgumentException.class, () -> rules.matchTiers(numbers, 9));
+        // Only the priced range is checked
+        rules.matchTiers(numbers, 9, new byte[numbers.length], 0, numbers.length - 1);
+
+        byte[] edges = rules.matchTiers(new int[]{0, 999_999_999}, 9);
+        assertEquals(rules.match("000000000").getTier().ordinal(), edges[0]);
+        assertEquals(rules.match("999999999").getTier().ordinal(), edges[1]);
+        assertEquals(rules.match("1999999999").getTier().ordinal(),
+                rules.matchTiers(new int[]{1_999_999_999}, 10)[0]);
+    }
+
+    @Test
+    void tierPricesComeFromTheFileAndFallBackToTheDefaults() {
+        PricingRuleSet custom = load("tiers:\n  HIGH_3000: 3500\nrules:\n" +
+                "  - id: ALL_SAME\n    tier: HIGH_3000\n    when:\n      - run: { length: 9 }\n");
+
+        assertEquals(3500, custom.priceOf(PriceRange.HIGH_3000));
+        assertEquals(PriceRange.MID_50.getPrice(), custom.priceOf(PriceRange.MID_50));
+        assertEquals("ALL_SAME", custom.match("777777777").getId());
+        assertEquals(PricingRuleSet.NO_RULE_ID, custom.match("123456780").getId());
+        assertEquals(PriceRange.HIGH_3000, custom.tierOf(3500));
+    }
+
+    @Test
+    void invalidFilesAreRejected() {
+        assertInvalid("rules: [", "Cannot parse");
+        assertInvalid("- just a list", "must contain 'tiers' and 'rules'");
+        assertInvalid("tiers:\n  LOW_20: 20\n", "must contain a 'rules' list");
+        assertInvalid("tiers:\n  LOW_20: cheap\nrules: []\n", "Price of tier LOW_20 must be a number");
+        assertInvalid("rules:\n  - id: X\n    tier: GOLD\n    when:\n      - run: { length: 3 }\n",
+                "Rule X: Unknown tier 'GOLD'");
+        assertInvalid("rules:\n  - id: X\n    tier: LOW_20\n    when: []\n",
+                "Rule X: 'when' must list at least one condition");
+        assertInvalid("rules:\n  - id: X\n    tier: LOW_20\n    when:\n      - teleport: { length: 3 }\n", "Rule X");
+    }
+
+    private void assertSameRule(String accountNumber) {
+        assertEquals(legacyRule(accountNumber), rules.match(accountNumber).getId(), accountNumber);
+    }
+
+    private static void assertInvalid(String yaml, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> load(yaml));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+
+    private static PricingRuleSet load(String yaml) {
+        return PricingRuleSet.load(new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8)), "test");
+    }
+
+    /**
+     * Digits that repeat or step by one more often than chance, so the rare rules are reached
+     */
+    private static String randomNumber(Random random, int length) {
+        char[] digits = new char[length];
+        boolean uniform = random.nextBoolean();
+        for (int i = 0; i < length; i++) {
+            int digit = random.nextInt(10);
+            if (!uniform && i > 0) {
+                int previous = digits[i - 1] - '0';
+                int roll = random.nextInt(10);
+                if (roll < 5) {
+                    digit = previous;
+                } else if (roll < 7) {
+                    digit = (previous + 1) % 10;
+                } else if (roll < 8) {
+                    digit = (previous + 9) % 10;
+                }
+            }
+            digits[i] = (char) ('0' + digit);
+        }
+        return new String(digits);
+    }
+
+    // The rule ladder pricing-rules.yml replaced, in its original order
+    private static String legacyRule(String n) {
+        if (PatternUtil.containsSame5DigitsPlus168(n)) return "SAME_5_DIGITS_PLUS_168";
+
+        if (PatternUtil.containsSame8or9Digits(n)) return "SAME_8_OR_9_DIGITS";
+        if (PatternUtil.contains3SetsOfSame3DigitsInOrder(n)) return "THREE_SETS_OF_SAME_3_DIGITS_IN_ORDER";
+        if (PatternUtil.containsSame5DigitsPlus2SetsOf2Digits(n)) return "SAME_5_DIGITS_PLUS_2_PAIRS";
+        if (PatternUtil.containsSame7DigitsGreaterOrEqualTo8(n)) return "SAME_7_DIGITS_8_OR_ABOVE";
+
+        if (PatternUtil.containsSame6DigitsPlus168(n)) return "SAME_6_DIGITS_PLUS_168";
+        if (PatternUtil.contains4PairsInOrder(n)) return "FOUR_PAIRS_IN_ORDER";
+        if (PatternUtil.containsSame6DigitsPlus3SameDigits(n)) return "SAME_6_DIGITS_PLUS_SAME_3_DIGITS";
+        if (PatternUtil.containsSame7DigitsLessThan8(n)) return "SAME_7_DIGITS_BELOW_8";
+        if (PatternUtil.containsSame4DigitsInMiddle(n)) return "SAME_4_DIGITS_IN_MIDDLE";
+
+        if (PatternUtil.contains9NumbersInOrder(n)) return "NINE_NUMBERS_IN_ORDER";
+        if (PatternUtil.containsSame5DigitsPlus3SameDigits(n)) return "SAME_5_DIGITS_PLUS_SAME_3_DIGITS";
+        if (PatternUtil.containsSame5DigitsPlus4SameDigits(n)) return "SAME_5_DIGITS_PLUS_SAME_4_DIGITS";
+        if (PatternUtil.containsSame6DigitsAtStartOrEnd(n)) return "SAME_6_DIGITS_AT_START_OR_END";
+
+        if (PatternUtil.contains3SetsOfSame3DigitsNotInOrder(n)) return "THREE_SETS_OF_SAME_3_DIGITS_NOT_IN_ORDER";
+        if (PatternUtil.containsSame4DigitsPlus168(n)) return "SAME_4_DIGITS_PLUS_168";
+
+        if (PatternUtil.contains7to8NumbersInOrder(n)) return "SEVEN_TO_8_NUMBERS_IN_ORDER";
+        if (PatternUtil.contains3PairsInOrder(n)) return "THREE_PAIRS_IN_ORDER";
+
+        if (PatternUtil.containsSame4DigitsPlus5NumbersInOrder(n)) return "SAME_4_DIGITS_PLUS_5_NUMBERS_IN_ORDER";
+        if (PatternUtil.containsSame5DigitsAtStartOrEnd(n)) return "SAME_5_DIGITS_AT_START_OR_END";
+
+        if (PatternUtil.contains2SetsOfSame3Digits(n)) return "TWO_SETS_OF_SAME_3_DIGITS";
+
+        if (PatternUtil.contains6NumbersInOrder(n)) return "SIX_NUMBERS_IN_ORDER";
+        if (PatternUtil.containsSame5DigitsInMiddle(n)) return "SAME_5_DIGITS_IN_MIDDLE";
+
+        if (PatternUtil.containsSame4DigitsAtStartOrEnd(n)) return "SAME_4_DIGITS_AT_START_OR_END";
+
+        if (PatternUtil.containsSame3Digits(n)) return "SAME_3_DIGITS";
+        if (PatternUtil.contains168(n)) return "CONTAINS_168";
+
+        return PricingRuleSet.NO_RULE_ID;
+    }
+}
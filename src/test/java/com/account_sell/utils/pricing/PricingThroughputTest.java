@@ -0,0 +1,60 @@
+package com.account_sell.utils.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Numbers priced per second on one core through the bulk path the generators, counters and inventory
+ * use, next to pricing the same numbers one string at a time. The floor only catches a path that has
+ * fallen off a cliff; the printed rates are the figures to compare between changes.
+ */
+class PricingThroughputTest {
+
+    private static final int NUMBERS = 1 << 16;
+    private static final int ROUNDS = 20;
+
+    @Test
+    void bulkPricingThroughputPerCore() {
+        PricingRuleSet rules = PricingRules.active();
+        Random random = new Random(42);
+        int[] numbers = new int[NUMBERS];
+        String[] strings = new String[NUMBERS];
+        for (int i = 0; i < NUMBERS; i++) {
+            numbers[i] = random.nextInt(1_000_000_000);
+            strings[i] = RegionLayout.toAccountNumber(numbers[i]);
+        }
+        byte[] tiers = new byte[NUMBERS];
+
+        // The range overload stays on the calling thread, so this is the rate of one core
+        double bulk = perSecond(() -> rules.matchTiers(numbers, 9, tiers, 0, NUMBERS));
+        byte[] matched = new byte[NUMBERS];
+        double single = perSecond(() -> {
+            for (int i = 0; i < NUMBERS; i++) {
+                matched[i] = (byte) rules.match(strings[i]).getTier().ordinal();
+            }
+        });
+        System.out.printf("Pricing on one core: %,.0f numbers/s in bulk, %,.0f numbers/s one string at a time%n",
+                bulk, single);
+
+        assertArrayEquals(matched, tiers);
+        assertTrue(bulk > 1_000_000, "Bulk pricing fell to " + (long) bulk + " numbers/s");
+    }
+
+    // Best round after warm-up, so a GC pause or JIT compile does not decide the figure
+    private static double perSecond(Runnable round) {
+        for (int i = 0; i < ROUNDS; i++) {
+            round.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            round.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return NUMBERS * 1e9 / best;
+    }
+}
@@ -0,0 +1,140 @@
+package com.account_sell.utils.pricing;
+
+import com.account_sell.enumation.FilterType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Walks over spaces small enough to list: the leading digits leave a 4-digit region
+ */
+class SeededWalkTest {
+
+    private static final List<String> LEADS = Collections.singletonList("12345");
+    private static final List<String> CASA = Arrays.asList("000", "001");
+
+    @Test
+    void walkVisitsEveryIndexOnce() {
+        // Spaces of 1, 2, 3, 10, 7,000 and 100,000 numbers
+        for (String pattern : new String[]{"123456789", "12345678[01]", "12345678[0-2]", "12345678?",
+                "12345[0-6]???", "1234?????"}) {
+            CandidateSpace space = CandidateSpace.of(AccountPattern.compile(pattern));
+            long size = space.size();
+            for (long seed : new long[]{0, 1, -7, 49}) {
+                SeededWalk walk = new SeededWalk(space, seed, 0);
+                boolean[] seen = new boolean[(int) size];
+                for (long position = 0; position < size; position++) {
+                    long index = walk.indexAt(position);
+                    assertTrue(index >= 0 && index < size, "Index " + index + " outside " + size);
+                    assertFalse(seen[(int) index], "Index " + index + " twice for seed " + seed);
+                    seen[(int) index] = true;
+                }
+            }
+        }
+    }
+
+    @Test
+    void pagesReturnEveryNumberOfTheSpaceExactlyOnce() {
+        for (FilterType filter : new FilterType[]{FilterType.CONTAIN, FilterType.START_WITH, FilterType.END_WITH}) {
+            for (String pattern : new String[]{"7", "77", "121", "1111"}) {
+                CandidateSpace space = CandidateSpace.of(LEADS, pattern, filter);
+                assertEquals(numbers(LEADS, pattern, filter), walkAll(space, 42, 7, 0, Double.MAX_VALUE),
+                        filter + " " + pattern);
+            }
+        }
+        // Two leading digit strings
+        assertEquals(numbers(CASA, "77", FilterType.START_WITH),
+                walkAll(CandidateSpace.of(CASA, "77", FilterType.START_WITH), 3, 500, 0, Double.MAX_VALUE));
+    }
+
+    @Test
+    void pagesKeepOnlyThePriceRange() {
+        PricingRuleSet rules = PricingRules.active();
+        double price = rules.match("123450000").getPrice();
+        CandidateSpace space = CandidateSpace.of(LEADS, "1", FilterType.CONTAIN);
+
+        Set<String> expected = new TreeSet<>();
+        for (String number : numbers(LEADS, "1", FilterType.CONTAIN)) {
+            if (rules.match(number).getPrice() == price) {
+                expected.add(number);
+            }
+        }
+        assertEquals(expected, walkAll(space, 5, 10, price, price));
+    }
+
+    @Test
+    void wildcardSpacesArePagedInFull() {
+        AccountPattern pattern = AccountPattern.compile("1234?{5}[^2-4]??");
+        Set<String> expected = new TreeSet<>();
+        int[] all = new int[(int) pattern.size()];
+        pattern.fill(0, all);
+        for (int number : all) {
+            expected.add(RegionLayout.toAccountNumber(number));
+        }
+        assertEquals(expected, walkAll(CandidateSpace.of(pattern), 9, 100, 0, Double.MAX_VALUE));
+    }
+
+    @Test
+    void sameSeedAndPositionGiveTheSamePage() {
+        CandidateSpace space = CandidateSpace.of(LEADS, "7", FilterType.CONTAIN);
+        SeededWalk walk = new SeededWalk(space, 42, 0);
+        walk.next(25, 0, Double.MAX_VALUE);
+        long position = walk.getPosition();
+        List<Map.Entry<String, Double>> page = walk.next(25, 0, Double.MAX_VALUE);
+
+        // Resumed from the position, as from a cursor
+        assertEquals(page, new SeededWalk(space, 42, position).next(25, 0, Double.MAX_VALUE));
+        // Walked again from the start
+        SeededWalk again = new SeededWalk(space, 42, 0);
+        again.next(25, 0, Double.MAX_VALUE);
+        assertEquals(page, again.next(25, 0, Double.MAX_VALUE));
+        // Another seed walks another order
+        assertNotEquals(new SeededWalk(space, 42, 0).next(25, 0, Double.MAX_VALUE),
+                new SeededWalk(space, 43, 0).next(25, 0, Double.MAX_VALUE));
+    }
+
+    /**
+     * Pages through the whole space, checking no number comes back twice
+     */
+    private static Set<String> walkAll(CandidateSpace space, long seed, int pageSize, double minPrice, double maxPrice) {
+        Set<String> walked = new TreeSet<>();
+        SeededWalk walk = new SeededWalk(space, seed, 0);
+        while (!walk.isExhausted()) {
+            // Every page starts from a fresh walk at the previous position, as a cursor would
+            walk = new SeededWalk(space, seed, walk.getPosition());
+            List<Map.Entry<String, Double>> page = walk.next(pageSize, minPrice, maxPrice);
+            assertTrue(page.size() <= pageSize);
+            for (Map.Entry<String, Double> entry : page) {
+                assertTrue(walked.add(entry.getKey()), "Walked " + entry.getKey() + " twice");
+            }
+        }
+        return walked;
+    }
+
+    private static Set<String> numbers(List<String> leads, String pattern, FilterType filter) {
+        Set<String> numbers = new TreeSet<>();
+        int leadLength = leads.get(0).length();
+        for (String lead : leads) {
+            for (int value = 0; value < RegionLayout.POW10[AccountPattern.LENGTH - leadLength]; value++) {
+                String region = RegionLayout.toAccountNumber(value).substring(leadLength);
+                boolean placed = filter == FilterType.START_WITH ? region.startsWith(pattern)
+                        : filter == FilterType.END_WITH ? region.endsWith(pattern)
+                        : region.contains(pattern);
+                if (placed) {
+                    numbers.add(lead + region);
+                }
+            }
+        }
+        return numbers;
+    }
+}